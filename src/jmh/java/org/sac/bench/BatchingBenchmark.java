@@ -0,0 +1,99 @@
+package org.sac.bench;
+
+import io.smallrye.mutiny.Multi;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sac.mutiny.Batching;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Per-item vs batched delivery to a consumer with a fixed cost per call (a store write or an
+// outbound request) plus a small cost per item.
+//  - range*: a source that is always ready, measures the end-to-end rate
+//  - ticks*: 200 ticks every 1 ms, each expanded to `burst` items (ticks() cannot go below
+//    1 ms). The consumer runs on the ticker thread, so a consumer that cannot keep up delays the
+//    ticks; the `delivered` counter reports the items delivered per second of wall time
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchingBenchmark {
+
+    @Param({"500"})
+    long callCost;
+
+    @Param({"5"})
+    long itemCost;
+
+    @Param({"100"})
+    int batchSize;
+
+    @Param({"10000"})
+    int items;
+
+    @Param({"1000"})
+    int burst;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Delivered {
+        public long delivered;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            delivered = 0;
+        }
+    }
+
+    private void write(int count) {
+        Blackhole.consumeCPU(callCost + itemCost * count);
+    }
+
+    @Benchmark
+    public long rangePerItem() {
+        return Multi.createFrom().range(0, items)
+                .onItem().invoke(i -> write(1))
+                .collect().with(Collectors.counting())
+                .await().indefinitely();
+    }
+
+    @Benchmark
+    public long rangeBatched() {
+        return Multi.createFrom().range(0, items)
+                .plug(Batching.batches(batchSize, Duration.ofMillis(10)))
+                .onItem().invoke(batch -> write(batch.size()))
+                .collect().with(Collectors.counting())
+                .await().indefinitely();
+    }
+
+    @Benchmark
+    public void ticksPerItem(Delivered counters) {
+        runTicks(counters, ticks().onItem().invoke(i -> write(1)).onItem().transform(i -> 1));
+    }
+
+    @Benchmark
+    public void ticksBatched(Delivered counters) {
+        runTicks(counters, ticks()
+                .plug(Batching.batches(batchSize, Duration.ofMillis(10)))
+                .onItem().invoke(batch -> write(batch.size()))
+                .onItem().transform(List::size));
+    }
+
+    private Multi<Integer> ticks() {
+        return Multi.createFrom().ticks().every(Duration.ofMillis(1))
+                .onOverflow().drop()
+                .select().first(200)
+                .onItem().transformToMultiAndConcatenate(tick -> Multi.createFrom().range(0, burst));
+    }
+
+    private void runTicks(Delivered counters, Multi<Integer> delivered) {
+        counters.delivered += delivered
+                .collect().with(Collectors.summingLong(Integer::longValue))
+                .await().indefinitely();
+    }
+}
@@ -0,0 +1,63 @@
+package org.sac.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.sac.EmployeeResource.Employee;
+import org.sac.analytics.EmployeeAnalytics;
+import org.sac.store.EmployeeStore;
+import org.sac.store.HeapEmployeeStore;
+
+import java.util.IntSummaryStatistics;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// The analytics endpoint vs the same report written with the boxed standard collectors
+// (summarizingInt, groupingBy + counting over substrings) on a parallel stream
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeAnalyticsBenchmark {
+
+    private static final String[] SYLLABLES = {"sa", "chin", "an", "na", "ro", "bert", "mi", "ra", "jo", "el"};
+
+    @Param({"100000", "1000000"})
+    int size;
+
+    private EmployeeStore store;
+    private EmployeeAnalytics analytics;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        store = new HeapEmployeeStore();
+        for (int i = 0; i < size; i++) {
+            String name = SYLLABLES[random.nextInt(SYLLABLES.length)] + SYLLABLES[random.nextInt(SYLLABLES.length)] + i;
+            store.put(new Employee(name, 18 + random.nextInt(50)));
+        }
+        analytics = new EmployeeAnalytics(store);
+    }
+
+    @Benchmark
+    public EmployeeAnalytics.Report primitive() {
+        return analytics.compute(10, 3, 10);
+    }
+
+    @Benchmark
+    public Object[] boxedCollectors() {
+        IntSummaryStatistics stats = store.all().parallelStream()
+                .collect(Collectors.summarizingInt(Employee::getAge));
+        Map<Integer, Long> histogram = store.all().parallelStream()
+                .collect(Collectors.groupingByConcurrent(e -> e.getAge() / 10 * 10, Collectors.counting()));
+        Map<String, Long> prefixes = store.all().parallelStream()
+                .map(e -> e.getName().substring(0, Math.min(3, e.getName().length())).toLowerCase())
+                .collect(Collectors.groupingByConcurrent(Function.identity(), Collectors.counting()));
+        return new Object[]{stats, histogram, prefixes.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(10).toList()};
+    }
+}
@@ -0,0 +1,148 @@
+package org.sac.bench;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.impl.VertxByteBufAllocator;
+import org.openjdk.jmh.annotations.*;
+import org.sac.EmployeeResource.Employee;
+import org.sac.cbor.CborOutput;
+import org.sac.cbor.EmployeeCborCodec;
+import org.sac.json.EmployeeJsonCodec;
+import org.sac.json.JsonOutput;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JSON against CBOR for a stream of employees, the way the streaming endpoints send them:
+// NDJSON lines (EmployeeJsonCodec) and a CBOR sequence (EmployeeCborCodec), plus Jackson's
+// CBOR databind for reference. Payload sizes are printed once per fork.
+//   ./gradlew jmh -Pjmh.includes=EmployeeCbor
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeCborBenchmark {
+
+    @Param({"100"})
+    int employees;
+
+    private List<Employee> batch;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final CBORFactory cborFactory = new CBORFactory();
+    private ObjectWriter cborWriter;
+    private ObjectReader cborReader;
+    private byte[] ndjson;
+    private byte[] cborSequence;
+
+    @Setup
+    public void setup() throws IOException {
+        batch = new ArrayList<>();
+        for (int i = 0; i < employees; i++)
+            batch.add(new Employee("employee-" + i, 20 + i % 40));
+        CBORMapper mapper = CBORMapper.builder().addModule(new ParameterNamesModule()).build();
+        cborWriter = mapper.writerFor(Employee.class);
+        cborReader = mapper.readerFor(Employee.class);
+        ndjson = bytes(encodeJson());
+        cborSequence = bytes(encodeCbor());
+        System.out.printf("%n%d employees: NDJSON %d bytes, CBOR sequence %d bytes (%.0f%%)%n", employees,
+                ndjson.length, cborSequence.length, 100.0 * cborSequence.length / ndjson.length);
+    }
+
+    private static byte[] bytes(ByteBuf buf) {
+        try {
+            return ByteBufUtil.getBytes(buf);
+        } finally {
+            buf.release();
+        }
+    }
+
+    private ByteBuf encodeJson() {
+        ByteBuf buf = VertxByteBufAllocator.POOLED_ALLOCATOR.directBuffer(employees * 40);
+        JsonOutput out = new JsonOutput(buf);
+        for (Employee employee : batch) {
+            EmployeeJsonCodec.INSTANCE.write(employee, out);
+            out.raw('\n');
+        }
+        return buf;
+    }
+
+    private ByteBuf encodeCbor() {
+        ByteBuf buf = VertxByteBufAllocator.POOLED_ALLOCATOR.directBuffer(employees * 24);
+        CborOutput out = new CborOutput(buf);
+        for (Employee employee : batch)
+            EmployeeCborCodec.INSTANCE.write(employee, out);
+        return buf;
+    }
+
+    @Benchmark
+    public int encodeJsonCodec() {
+        ByteBuf buf = encodeJson();
+        int size = buf.readableBytes();
+        buf.release();
+        return size;
+    }
+
+    @Benchmark
+    public int encodeCborCodec() {
+        ByteBuf buf = encodeCbor();
+        int size = buf.readableBytes();
+        buf.release();
+        return size;
+    }
+
+    @Benchmark
+    public int encodeCborDatabind() throws IOException {
+        ByteBuf buf = Unpooled.buffer(employees * 24);
+        try (OutputStream out = new ByteBufOutputStream(buf);
+             var sequence = cborWriter.writeValues(out)) {
+            for (Employee employee : batch)
+                sequence.write(employee);
+        }
+        return buf.readableBytes();
+    }
+
+    @Benchmark
+    public int decodeJsonCodec() throws IOException {
+        return decode(jsonFactory.createParser(ndjson));
+    }
+
+    @Benchmark
+    public int decodeCborCodec() throws IOException {
+        return decode(cborFactory.createParser(cborSequence));
+    }
+
+    @Benchmark
+    public int decodeCborDatabind() throws IOException {
+        int ages = 0;
+        try (var items = cborReader.<Employee>readValues(cborSequence)) {
+            while (items.hasNext())
+                ages += items.next().getAge();
+        }
+        return ages;
+    }
+
+    // root-level values one after another, both for NDJSON and a CBOR sequence
+    private static int decode(JsonParser parser) throws IOException {
+        int ages = 0;
+        try (parser) {
+            while (parser.nextToken() == JsonToken.START_OBJECT)
+                ages += EmployeeJsonCodec.INSTANCE.read(parser).getAge();
+        }
+        return ages;
+    }
+}
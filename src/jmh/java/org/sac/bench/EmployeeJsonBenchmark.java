@@ -0,0 +1,89 @@
+package org.sac.bench;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import io.netty.buffer.ByteBuf;
+import io.vertx.core.buffer.impl.VertxByteBufAllocator;
+import org.openjdk.jmh.annotations.*;
+import org.sac.EmployeeResource.Employee;
+import org.sac.json.EmployeeJsonCodec;
+import org.sac.json.JsonOutput;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson (de)serialization of EmployeeResource.Employee, configured like Quarkus does it
+// (Employee has no default constructor, the parameter names module binds the constructor),
+// against the hand-written EmployeeJsonCodec used by EmployeeJsonProvider
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeJsonBenchmark {
+
+    private ObjectWriter employeeWriter;
+    private ObjectWriter listWriter;
+    private ObjectReader employeeReader;
+    private ObjectMapper mapper;
+
+    private Employee employee;
+    private List<Employee> employees;
+    private byte[] employeeJson;
+
+    @Setup
+    public void setup() throws IOException {
+        mapper = JsonMapper.builder().addModule(new ParameterNamesModule()).build();
+        employeeWriter = mapper.writerFor(Employee.class);
+        listWriter = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Employee.class));
+        employeeReader = mapper.readerFor(Employee.class);
+
+        employee = new Employee("sachin", 30);
+        employees = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            employees.add(new Employee("employee-" + i, 20 + i % 40));
+        employeeJson = employeeWriter.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public byte[] serializeEmployee() throws IOException {
+        return employeeWriter.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public byte[] serializeEmployeeList() throws IOException {
+        return listWriter.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public Employee deserializeEmployee() throws IOException {
+        return employeeReader.readValue(employeeJson);
+    }
+
+    // encodes into a pooled direct buffer, as EmployeeJsonProvider does for a response
+    @Benchmark
+    public int serializeEmployeeCodec() {
+        ByteBuf buf = VertxByteBufAllocator.POOLED_ALLOCATOR.directBuffer(EmployeeJsonCodec.INSTANCE.sizeHint());
+        try {
+            EmployeeJsonCodec.INSTANCE.write(employee, new JsonOutput(buf));
+            return buf.readableBytes();
+        } finally {
+            buf.release();
+        }
+    }
+
+    @Benchmark
+    public Employee deserializeEmployeeCodec() throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(employeeJson)) {
+            parser.nextToken();
+            return EmployeeJsonCodec.INSTANCE.read(parser);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.sac.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.sac.security.InvalidTokenException;
+import org.sac.security.JwtVerifier;
+import org.sac.security.TokenCache;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+// What a bearer token costs per request: a full verification (HS256 and RS256 with a
+// 2048-bit key) against a TokenCache hit for a token that was verified before.
+//   ./gradlew jmh -Pjmh.includes=JwtVerifier
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerifierBenchmark {
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private JwtVerifier hmac;
+    private JwtVerifier rsa;
+    private String hmacToken;
+    private String rsaToken;
+    private byte[] hmacTokenBytes;
+    private final TokenCache cache = new TokenCache(10_000);
+    private long now;
+
+    @Setup
+    public void setup() throws Exception {
+        byte[] secret = "benchmark-hmac-secret-0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keys = generator.generateKeyPair();
+        hmac = JwtVerifier.hmac(secret, null, Clock.systemUTC());
+        rsa = JwtVerifier.rsa(keys.getPublic(), null, Clock.systemUTC());
+
+        now = System.currentTimeMillis() / 1000;
+        String payload = "{\"sub\":\"sachin\",\"groups\":[\"admin\",\"user\"],\"exp\":" + (now + 3600) + "}";
+        hmacToken = sign("HS256", payload, secret, null);
+        rsaToken = sign("RS256", payload, null, keys);
+        hmacTokenBytes = hmacToken.getBytes(StandardCharsets.US_ASCII);
+        // a few thousand other sessions, so the hit is not on a tiny map
+        for (int i = 0; i < 5_000; i++)
+            cache.put("token-" + i, hmac.verify(hmacToken), now);
+        cache.put(hmacToken, hmac.verify(hmacToken), now);
+    }
+
+    private static String sign(String alg, String payload, byte[] secret, KeyPair keys) throws GeneralSecurityException {
+        String signed = BASE64URL.encodeToString(("{\"alg\":\"" + alg + "\"}").getBytes(StandardCharsets.UTF_8))
+                + "." + BASE64URL.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        byte[] data = signed.getBytes(StandardCharsets.US_ASCII);
+        byte[] signature;
+        if (secret != null) {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            signature = mac.doFinal(data);
+        } else {
+            Signature rsa = Signature.getInstance("SHA256withRSA");
+            rsa.initSign(keys.getPrivate());
+            rsa.update(data);
+            signature = rsa.sign();
+        }
+        return signed + "." + BASE64URL.encodeToString(signature);
+    }
+
+    @Benchmark
+    public JwtVerifier.Claims verifyHs256() throws InvalidTokenException {
+        return hmac.verify(hmacToken);
+    }
+
+    @Benchmark
+    public JwtVerifier.Claims verifyRs256() throws InvalidTokenException {
+        return rsa.verify(rsaToken);
+    }
+
+    // a fresh String, as each request's header is: the hash is computed on every lookup
+    @Benchmark
+    public JwtVerifier.Claims cached() {
+        return cache.get(new String(hmacTokenBytes, StandardCharsets.US_ASCII), now);
+    }
+}
@@ -0,0 +1,75 @@
+package org.sac.bench;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The operator chains from UniPipeline/UniPipeline2 and MultiPipeline, without the
+// println and delayIt() calls so only the operator overhead is measured
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MutinyPipelineBenchmark {
+
+    @Param({"1000"})
+    int rangeSize;
+
+    // UniPipeline / UniPipeline2.method1: item -> transform -> invoke
+    @Benchmark
+    public String uniTransformInvoke() {
+        return Uni.createFrom().item(1)
+                .onItem().transform(i -> "hello" + i)
+                .onItem().invoke(() -> { })
+                .await().indefinitely();
+    }
+
+    // UniExample: item -> append -> uppercase
+    @Benchmark
+    public String uniTwoTransforms() {
+        return Uni.createFrom().item("hello")
+                .onItem().transform(item -> item + " mutiny")
+                .onItem().transform(String::toUpperCase)
+                .await().indefinitely();
+    }
+
+    // MultiPipeline: items -> transform -> first(3) -> recover
+    @Benchmark
+    public List<Integer> multiSelectFirst() {
+        return Multi.createFrom().items(1, 2, 3, 4, 5)
+                .onItem().transform(i -> i * 2)
+                .select().first(3)
+                .onFailure().recoverWithItem(0)
+                .collect().asList()
+                .await().indefinitely();
+    }
+
+    // same chain over a larger source, to see per-item cost
+    @Benchmark
+    public List<Integer> multiRangeTransform() {
+        return Multi.createFrom().range(0, rangeSize)
+                .onItem().transform(i -> i * 2)
+                .select().where(i -> i % 3 == 0)
+                .collect().asList()
+                .await().indefinitely();
+    }
+
+    // MultiPipeline generator source
+    @Benchmark
+    public List<Object> multiGenerator() {
+        Multi<Object> sequence = Multi.createFrom().generator(() -> 1, (n, emitter) -> {
+            int next = n + (n / 2) + 1;
+            if (n < 50)
+                emitter.emit(next);
+            else
+                emitter.complete();
+            return next;
+        });
+        return sequence.collect().asList().await().indefinitely();
+    }
+}
@@ -0,0 +1,113 @@
+package org.sac.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// The collection pipelines from StreamExample and StreamExample2 at realistic sizes:
+// sequential vs parallel, and boxed vs primitive streams
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StreamPipelineBenchmark {
+
+    private static final String[] WORDS = {
+            "Reflection", "Collection", "Stream", "Structure", "State", "Flow",
+            "Sorting", "Mapping", "Reduction", "Sequence", "Spliterator", "Shard"};
+
+    @Param({"1000", "100000"})
+    int size;
+
+    private List<List<String>> listOfLists;
+    private List<String> names;
+    private List<Integer> boxedAges;
+    private int[] ages;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        listOfLists = new ArrayList<>();
+        for (int i = 0; i < size / 10; i++) {
+            List<String> inner = new ArrayList<>();
+            for (int j = 0; j < 10; j++)
+                inner.add(WORDS[random.nextInt(WORDS.length)] + random.nextInt(size));
+            listOfLists.add(inner);
+        }
+        names = listOfLists.stream().flatMap(List::stream).collect(Collectors.toList());
+        ages = random.ints(size, 18, 70).toArray();
+        boxedAges = IntStream.of(ages).boxed().collect(Collectors.toList());
+    }
+
+    // StreamExample: flatMap -> filter -> map -> distinct -> sorted -> collect
+    @Benchmark
+    public List<String> flatMapPipelineSequential() {
+        return listOfLists.stream()
+                .flatMap(List::stream)
+                .filter(s -> s.startsWith("S"))
+                .map(String::toUpperCase)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<String> flatMapPipelineParallel() {
+        return listOfLists.parallelStream()
+                .flatMap(List::stream)
+                .filter(s -> s.startsWith("S"))
+                .map(String::toUpperCase)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    // StreamExample2: reduce with string concatenation (quadratic copying) ...
+    @Benchmark
+    public String reduceConcat() {
+        return names.stream()
+                .limit(1000)
+                .reduce("", (partialString, element) -> partialString + " " + element);
+    }
+
+    // ... vs a joining collector over the same elements
+    @Benchmark
+    public String joining() {
+        return names.stream()
+                .limit(1000)
+                .collect(Collectors.joining(" "));
+    }
+
+    @Benchmark
+    public long filterCountSequential() {
+        return names.stream().filter(name -> name.startsWith("S")).count();
+    }
+
+    @Benchmark
+    public long filterCountParallel() {
+        return names.parallelStream().filter(name -> name.startsWith("S")).count();
+    }
+
+    // boxed vs primitive
+    @Benchmark
+    public long sumBoxed() {
+        return boxedAges.stream().reduce(0, Integer::sum);
+    }
+
+    @Benchmark
+    public long sumPrimitive() {
+        return IntStream.of(ages).sum();
+    }
+
+    @Benchmark
+    public long sumPrimitiveParallel() {
+        return IntStream.of(ages).parallel().sum();
+    }
+}
@@ -0,0 +1,127 @@
+package org.sac.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// The packaged application (build/quarkus-app/quarkus-run.jar, or the native executable)
+// started in its own process, so the load driver and the server do not share a heap or a JIT
+final class AppProcess implements AutoCloseable {
+
+    final int port;
+    private final Process process;
+
+    private AppProcess(int port, Process process) {
+        this.port = port;
+        this.process = process;
+    }
+
+    static AppProcess start(Path appDir, int port, List<String> jvmArgs, Map<String, String> properties)
+            throws IOException {
+        Path jar = appDir.resolve("quarkus-run.jar");
+        if (!Files.exists(jar))
+            throw new IllegalStateException(jar + " not found, run ./gradlew quarkusBuild first");
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-Dquarkus.http.port=" + port);
+        properties.forEach((key, value) -> command.add("-D" + key + "=" + value));
+        command.add("-jar");
+        command.add(jar.toString());
+        return new AppProcess(port, launch(command, appDir.resolve("loadtest-app.log")));
+    }
+
+    // The load benchmarks measure the service, not its load shedding: admission control is
+    // off unless -Dbench.admission=true. Logging is kept to warnings.
+    static Map<String, String> benchmarkProperties(Map<String, String> properties) {
+        Map<String, String> all = new HashMap<>(properties);
+        all.put("quarkus.log.level", "WARN");
+        all.put("admission.enabled", Boolean.toString(Boolean.getBoolean("bench.admission")));
+        return all;
+    }
+
+    // the native executable takes the same -D properties
+    static AppProcess startNative(Path executable, int port, Map<String, String> properties) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(executable.toString());
+        command.add("-Dquarkus.http.port=" + port);
+        properties.forEach((key, value) -> command.add("-D" + key + "=" + value));
+        return new AppProcess(port, launch(command, executable.resolveSibling("loadtest-app.log")));
+    }
+
+    private static Process launch(List<String> command, Path log) throws IOException {
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(log.toFile()))
+                .start();
+    }
+
+    URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    // polls path until it answers 2xx, returns the time it took
+    Duration awaitReady(HttpClient client, String path, Duration timeout) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        HttpRequest request = HttpRequest.newBuilder(uri(path)).build();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive())
+                throw new IllegalStateException("Application exited with " + process.exitValue());
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status / 100 == 2)
+                    return Duration.ofNanos(System.nanoTime() - start);
+            } catch (IOException notYet) {
+                // not listening yet
+            }
+            Thread.sleep(2);
+        }
+        throw new IllegalStateException("Application not ready after " + timeout);
+    }
+
+    long pid() {
+        return process.pid();
+    }
+
+    // resident set size in bytes (Linux /proc, ps elsewhere), -1 if unknown
+    long rss() {
+        try {
+            Path status = Path.of("/proc", Long.toString(process.pid()), "status");
+            if (Files.exists(status)) {
+                for (String line : Files.readAllLines(status))
+                    if (line.startsWith("VmRSS:"))
+                        return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                return -1;
+            }
+            Process ps = new ProcessBuilder("ps", "-o", "rss=", "-p", Long.toString(process.pid())).start();
+            String kilobytes = new String(ps.getInputStream().readAllBytes()).strip();
+            return ps.waitFor() == 0 && !kilobytes.isEmpty() ? Long.parseLong(kilobytes) * 1024 : -1;
+        } catch (IOException | InterruptedException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // SIGTERM, so the application shuts down normally (and e.g. writes a CDS archive at exit)
+    int stop(Duration timeout) throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS))
+            process.destroyForcibly().waitFor();
+        return process.exitValue();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        stop(Duration.ofSeconds(10));
+    }
+}
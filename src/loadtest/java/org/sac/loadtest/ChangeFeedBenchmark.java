@@ -0,0 +1,189 @@
+package org.sac.loadtest;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.PoolOptions;
+import io.vertx.core.http.RequestOptions;
+import io.vertx.core.parsetools.RecordParser;
+import org.sac.metrics.LatencyHistogram;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fan-out of the change feed (/api/employee/changes) to many subscribers at once:
+// bench.subscribers SSE connections, bench.slow of which stop reading after the first bytes,
+// while employees are written at bench.rate per second for bench.duration seconds.
+// Each employee's name carries its send time, so every delivered event gives a
+// publish-to-delivery latency. Reports the write latency (a slow subscriber must not hold up
+// the writer), delivery latency and completeness for the subscribers that keep reading, and
+// the overflow counters and RSS of the application.
+//   ./gradlew changeFeedBenchmark -Pbench.subscribers=200 -Pbench.slow=10 -Pbench.rate=50
+public class ChangeFeedBenchmark {
+
+    private static final String CHANGES = "/api/employee/changes";
+
+    // one SSE connection: events seen, and gaps in the ids (dropped changes)
+    private static final class Subscriber {
+        final AtomicLong events = new AtomicLong();
+        final AtomicLong gaps = new AtomicLong();
+        long lastId = -1;
+        volatile boolean ended;
+    }
+
+    public static void main(String[] args) throws Exception {
+        java.nio.file.Path appDir = java.nio.file.Path.of(args.length > 0 ? args[0] : "build/quarkus-app");
+        String url = System.getProperty("bench.url");
+        int subscribers = Integer.getInteger("bench.subscribers", 200);
+        int slow = Integer.getInteger("bench.slow", 10);
+        int rate = Integer.getInteger("bench.rate", 50);
+        Duration duration = Duration.ofSeconds(Integer.getInteger("bench.duration", 20));
+        int port = Integer.getInteger("bench.port", 18080);
+
+        AppProcess app = url == null
+                ? AppProcess.start(appDir, port, List.of(), AppProcess.benchmarkProperties(Map.of()))
+                : null;
+        Vertx vertx = Vertx.vertx();
+        try (java.net.http.HttpClient setup = java.net.http.HttpClient.newHttpClient()) {
+            URI base = url != null ? URI.create(url) : app.uri("/");
+            if (app != null)
+                app.awaitReady(setup, "/api/hello", Duration.ofSeconds(60));
+
+            HttpClient feedClient = vertx.createHttpClient(
+                    new HttpClientOptions().setDefaultHost(base.getHost()).setDefaultPort(base.getPort()),
+                    new PoolOptions().setHttp1MaxSize(subscribers).setMaxWaitQueueSize(-1));
+            LatencyHistogram delivery = new LatencyHistogram();
+            List<Subscriber> fast = new ArrayList<>();
+            CountDownLatch connected = new CountDownLatch(subscribers);
+            for (int i = 0; i < subscribers; i++) {
+                boolean reading = i >= slow;
+                Subscriber subscriber = new Subscriber();
+                if (reading)
+                    fast.add(subscriber);
+                subscribe(feedClient, subscriber, reading, delivery, connected);
+            }
+            if (!connected.await(60, TimeUnit.SECONDS))
+                throw new IllegalStateException(connected.getCount() + " subscribers not connected");
+            System.out.printf("change feed: %d subscribers (%d not reading), %d writes/s for %ds%n",
+                    subscribers, slow, rate, duration.toSeconds());
+
+            LatencyHistogram writes = new LatencyHistogram();
+            AtomicLong failed = new AtomicLong();
+            long sent = write(vertx, base, rate, duration, writes, failed) - failed.get();
+            // let the readers catch up
+            Thread.sleep(2000);
+
+            long events = fast.stream().mapToLong(s -> s.events.get()).sum();
+            long gaps = fast.stream().mapToLong(s -> s.gaps.get()).sum();
+            long ended = fast.stream().filter(s -> s.ended).count();
+            System.out.printf("writes      %d stored, %d failed, p50 %.2f ms, p99 %.2f ms, max %.2f ms%n", sent, failed.get(),
+                    millis(writes.valueAtQuantile(0.5)), millis(writes.valueAtQuantile(0.99)), millis(writes.max()));
+            System.out.printf("delivery    %d of %d events to reading subscribers, %d gaps, %d ended; p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    events, sent * fast.size(), gaps, ended,
+                    millis(delivery.valueAtQuantile(0.5)), millis(delivery.valueAtQuantile(0.99)), millis(delivery.max()));
+            String metrics = setup.send(HttpRequest.newBuilder(base.resolve("/api/metrics")).build(),
+                    HttpResponse.BodyHandlers.ofString()).body();
+            metrics.lines().filter(line -> line.startsWith("employee_feed_")).forEach(line -> System.out.println("server      " + line));
+            if (app != null)
+                System.out.printf("server      RSS %d MB%n", app.rss() / (1024 * 1024));
+        } finally {
+            vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+            if (app != null)
+                app.close();
+        }
+    }
+
+    private static void subscribe(HttpClient client, Subscriber subscriber, boolean reading,
+                                  LatencyHistogram delivery, CountDownLatch connected) {
+        client.request(new RequestOptions().setMethod(HttpMethod.GET).setURI(CHANGES)
+                        .putHeader(HttpHeaders.ACCEPT, "text/event-stream"))
+                .compose(request -> request.send())
+                .onSuccess(response -> {
+                    connected.countDown();
+                    response.endHandler(v -> subscriber.ended = true);
+                    response.exceptionHandler(e -> subscriber.ended = true);
+                    if (!reading) {
+                        // stop reading: the server's socket buffer fills, then its feed buffer
+                        response.pause();
+                        return;
+                    }
+                    response.handler(RecordParser.newDelimited("\n", line -> onLine(line, subscriber, delivery)));
+                })
+                .onFailure(e -> {
+                    System.err.println("subscribe failed: " + e);
+                    connected.countDown();
+                });
+    }
+
+    // id: n / event: type / data: {"name":"f<nanoTime>","age":a}
+    private static void onLine(Buffer line, Subscriber subscriber, LatencyHistogram delivery) {
+        String text = line.toString();
+        if (text.startsWith("id:")) {
+            long id = Long.parseLong(text.substring(3).strip());
+            if (subscriber.lastId >= 0 && id != subscriber.lastId + 1)
+                subscriber.gaps.incrementAndGet();
+            subscriber.lastId = id;
+        } else if (text.startsWith("data:")) {
+            subscriber.events.incrementAndGet();
+            int start = text.indexOf("\"f") + 2;
+            int end = text.indexOf('"', start);
+            if (start > 1 && end > start)
+                delivery.record(System.nanoTime() - Long.parseLong(text.substring(start, end)));
+        }
+    }
+
+    // rate writes per second in 1 ms ticks, each a POST of a new employee; returns the count,
+    // failed counts the ones refused (shed) or failed
+    private static long write(Vertx vertx, URI base, int rate, Duration duration, LatencyHistogram latency,
+                              AtomicLong failed) throws InterruptedException {
+        HttpClient client = vertx.createHttpClient(
+                new HttpClientOptions().setDefaultHost(base.getHost()).setDefaultPort(base.getPort()).setKeepAlive(true),
+                new PoolOptions().setHttp1MaxSize(32).setMaxWaitQueueSize(-1));
+        AtomicInteger outstanding = new AtomicInteger();
+        AtomicLong sent = new AtomicLong();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(1);
+        vertx.setPeriodic(1, timer -> {
+            long now = System.nanoTime();
+            long due = Math.min(now, end) - start;
+            while (sent.get() < due * rate / 1_000_000_000L) {
+                long sentAt = System.nanoTime();
+                long n = sent.incrementAndGet();
+                outstanding.incrementAndGet();
+                client.request(new RequestOptions().setMethod(HttpMethod.POST).setURI("/api/employee/employee")
+                                .putHeader(HttpHeaders.CONTENT_TYPE, "application/json"))
+                        .compose(request -> request.send("{\"name\":\"f" + sentAt + "\",\"age\":" + (n % 100) + "}"))
+                        .compose(response -> response.body().map(body -> response.statusCode()))
+                        .onComplete(result -> {
+                            latency.record(System.nanoTime() - sentAt);
+                            if (result.failed() || result.result() >= 300)
+                                failed.incrementAndGet();
+                            outstanding.decrementAndGet();
+                        });
+            }
+            if (now >= end && outstanding.get() == 0) {
+                vertx.cancelTimer(timer);
+                done.countDown();
+            }
+        });
+        done.await();
+        return sent.get();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
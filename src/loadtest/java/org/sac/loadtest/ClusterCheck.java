@@ -0,0 +1,154 @@
+package org.sac.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Sharded mode end to end: starts three instances of the packaged application as one cluster
+// (cluster.nodes, cluster.self, cluster.secret) and checks
+// - bulk split: an NDJSON upload to one node lands every employee on exactly one node, and
+//   every node gets a share
+// - routing: every node answers for every name, owned or not; a write through any node is
+//   read back through the others
+// - merged paging: paging through one node returns the whole cluster once, in (age, name) order
+// - X-Shard-Local from a client without the secret is ignored
+// Prints one line per check and exits with 1 when one fails.
+//   ./gradlew clusterCheck -Pbench.employees=3000
+public class ClusterCheck {
+
+    private static final String LOCAL_HEADER = "X-Shard-Local";
+    private static final String SECRET_HEADER = "X-Shard-Secret";
+    private static final String SECRET = "cluster-check";
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        java.nio.file.Path appDir = java.nio.file.Path.of(args.length > 0 ? args[0] : "build/quarkus-app");
+        int count = Integer.getInteger("bench.employees", 3000);
+        int port = Integer.getInteger("bench.port", 18080);
+
+        List<String> nodes = List.of("http://localhost:" + port, "http://localhost:" + (port + 1),
+                "http://localhost:" + (port + 2));
+        List<AppProcess> apps = new ArrayList<>();
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            for (int i = 0; i < nodes.size(); i++)
+                apps.add(AppProcess.start(appDir, port + i, List.of(), AppProcess.benchmarkProperties(Map.of(
+                        "cluster.nodes", String.join(",", nodes),
+                        "cluster.self", nodes.get(i),
+                        "cluster.secret", SECRET))));
+            for (AppProcess app : apps)
+                app.awaitReady(client, "/api/hello", Duration.ofSeconds(60));
+
+            // bulk split
+            Employees.seed(client, apps.get(0).uri("/"), count);
+            Map<String, Integer> owners = new HashMap<>();
+            int[] shares = new int[apps.size()];
+            int misplaced = 0;
+            for (int i = 0; i < count; i++) {
+                String name = Employees.name(i);
+                int holders = 0;
+                for (int node = 0; node < apps.size(); node++) {
+                    if (get(client, apps.get(node), name, true).statusCode() == 200) {
+                        holders++;
+                        owners.put(name, node);
+                        shares[node]++;
+                    }
+                }
+                if (holders != 1)
+                    misplaced++;
+            }
+            check("bulk split", misplaced == 0 && shares[0] > 0 && shares[1] > 0 && shares[2] > 0,
+                    "%d employees, %d / %d / %d per node, %d not on exactly one node",
+                    count, shares[0], shares[1], shares[2], misplaced);
+
+            // routing
+            int wrong = 0;
+            for (int i = 0; i < count; i += 7) {
+                for (AppProcess app : apps) {
+                    HttpResponse<String> response = get(client, app, Employees.name(i), false);
+                    if (response.statusCode() != 200 || JSON.readTree(response.body()).get("age").asInt() != Employees.age(i))
+                        wrong++;
+                }
+            }
+            for (int i = 0; i < 30; i++) {
+                AppProcess writer = apps.get(i % apps.size());
+                String name = "routed-" + i;
+                HttpResponse<String> put = client.send(HttpRequest.newBuilder(writer.uri("/api/employee/employee"))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"" + name + "\",\"age\":" + (20 + i) + "}"))
+                                .build(),
+                        HttpResponse.BodyHandlers.ofString());
+                if (put.statusCode() != 200)
+                    wrong++;
+                for (AppProcess reader : apps)
+                    if (get(client, reader, name, false).statusCode() != 200)
+                        wrong++;
+            }
+            check("routing", wrong == 0, "%d wrong answers", wrong);
+
+            // merged paging
+            List<String> keys = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            String cursor = null;
+            int pages = 0;
+            do {
+                String path = "/api/employee/employees?limit=250"
+                        + (cursor != null ? "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8) : "");
+                JsonNode page = JSON.readTree(client.send(HttpRequest.newBuilder(apps.get(1).uri(path)).build(),
+                        HttpResponse.BodyHandlers.ofString()).body());
+                for (JsonNode item : page.get("items")) {
+                    keys.add(String.format("%03d %s", item.get("age").asInt(), item.get("name").asText()));
+                    seen.add(item.get("name").asText());
+                }
+                cursor = page.get("next").isNull() ? null : page.get("next").asText();
+                pages++;
+            } while (cursor != null);
+            List<String> sorted = keys.stream().sorted().toList();
+            check("merged paging", keys.equals(sorted) && seen.size() == keys.size() && keys.size() == count + 30,
+                    "%d employees in %d pages, %s, %d duplicates", keys.size(), pages,
+                    keys.equals(sorted) ? "in order" : "out of order", keys.size() - seen.size());
+
+            // a client cannot skip routing
+            int answeredLocally = 0;
+            for (int i = 0; i < count; i += 7)
+                if (owners.get(Employees.name(i)) != 0
+                        && client.send(HttpRequest.newBuilder(apps.get(0).uri("/api/employee/employees/" + Employees.name(i)))
+                                        .header(LOCAL_HEADER, "true").build(),
+                                HttpResponse.BodyHandlers.discarding()).statusCode() != 200)
+                    answeredLocally++;
+            check("local header", answeredLocally == 0, "%d requests without the secret answered locally", answeredLocally);
+        } finally {
+            for (AppProcess app : apps)
+                app.close();
+        }
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // local: ask only the node itself, as a peer would
+    private static HttpResponse<String> get(HttpClient client, AppProcess app, String name, boolean local) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(app.uri("/api/employee/employees/" + name));
+        if (local)
+            request.header(LOCAL_HEADER, "true").header(SECRET_HEADER, SECRET);
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void check(String name, boolean passed, String format, Object... args) {
+        if (!passed)
+            failures++;
+        System.out.printf("%-14s %s  %s%n", name, passed ? "PASS" : "FAIL", String.format(format, args));
+    }
+}
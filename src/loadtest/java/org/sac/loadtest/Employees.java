@@ -0,0 +1,36 @@
+package org.sac.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+// The data set every load test starts from: employee-0 .. employee-<count - 1>, aged 18 to 67
+final class Employees {
+
+    private Employees() {
+    }
+
+    static String name(int i) {
+        return "employee-" + i;
+    }
+
+    static int age(int i) {
+        return 18 + i % 50;
+    }
+
+    // one bulk NDJSON upload
+    static void seed(HttpClient client, URI base, int count) throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < count; i++)
+            ndjson.append("{\"name\":\"").append(name(i)).append("\",\"age\":").append(age(i)).append("}\n");
+        HttpRequest request = HttpRequest.newBuilder(base.resolve("/api/employee/employees/bulk"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString(), StandardCharsets.UTF_8))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200)
+            throw new IllegalStateException("Seeding failed: " + response.statusCode() + " " + response.body());
+    }
+}
@@ -0,0 +1,100 @@
+package org.sac.loadtest;
+
+import org.sac.execution.ExecutionMode;
+import org.sac.metrics.LatencyHistogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Closed-loop load against the same EmployeeResource endpoints with every execution mode:
+// the application is started once per mode (execution.mode.default=<mode>), seeded, warmed
+// up, then driven by `concurrency` clients that each send the next request as soon as the
+// previous one completes. Prints throughput and latency quantiles per mode.
+//
+//   ./gradlew executionModeBenchmark -Pbench.concurrency=512 -Pbench.duration=30
+public final class ExecutionModeBenchmark {
+
+    private static final int EMPLOYEES = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        Path appDir = Path.of(args.length > 0 ? args[0] : "build/quarkus-app");
+        int concurrency = Integer.getInteger("bench.concurrency", 256);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("bench.warmup", 10));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("bench.duration", 20));
+        int port = Integer.getInteger("bench.port", 18080);
+        List<ExecutionMode> modes = new ArrayList<>();
+        for (String mode : System.getProperty("bench.modes", "event-loop,worker,virtual-thread").split(","))
+            modes.add(ExecutionMode.valueOf(mode.trim().toUpperCase(Locale.ROOT).replace('-', '_')));
+
+        System.out.printf("%-15s %12s %10s %10s %10s %10s %10s %8s%n",
+                "mode", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (ExecutionMode mode : modes) {
+            String name = mode.name().toLowerCase(Locale.ROOT).replace('_', '-');
+            try (AppProcess app = AppProcess.start(appDir, port, List.of(),
+                    AppProcess.benchmarkProperties(Map.of("execution.mode.default", name)));
+                 HttpClient client = HttpClient.newBuilder()
+                         .executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+                app.awaitReady(client, "/api/employee/employees?limit=1", Duration.ofSeconds(60));
+                Employees.seed(client, app.uri("/"), EMPLOYEES);
+                run(app, client, concurrency, warmup);
+                Result result = run(app, client, concurrency, duration);
+                long[] q = result.latency.valuesAtQuantiles(0.5, 0.9, 0.99, 0.999);
+                System.out.printf("%-15s %12.0f %10.2f %10.2f %10.2f %10.2f %10.2f %8d%n",
+                        name, result.latency.count() / (double) duration.toSeconds(),
+                        q[0] / 1e6, q[1] / 1e6, q[2] / 1e6, q[3] / 1e6, result.latency.max() / 1e6,
+                        result.errors);
+            }
+        }
+    }
+
+    private record Result(LatencyHistogram latency, long errors) {
+    }
+
+    // the request mix: point lookups, a page scan and a case-insensitive catalog search
+    private static HttpRequest nextRequest(AppProcess app) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String path = switch (random.nextInt(4)) {
+            case 0, 1 -> "/api/employee/employees/" + Employees.name(random.nextInt(EMPLOYEES));
+            case 2 -> "/api/employee/employees?minAge=" + (18 + random.nextInt(50)) + "&limit=20";
+            default -> "/api/employee/cheeses?cheese=CHEDDAR";
+        };
+        return HttpRequest.newBuilder(app.uri(path)).build();
+    }
+
+    private static Result run(AppProcess app, HttpClient client, int concurrency, Duration duration)
+            throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder errors = new LongAdder();
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                clients.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            int status = client.send(nextRequest(app), HttpResponse.BodyHandlers.discarding())
+                                    .statusCode();
+                            if (status >= 500)
+                                errors.increment();
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                        latency.record(System.nanoTime() - start);
+                    }
+                });
+            }
+        }
+        return new Result(latency, errors.sum());
+    }
+}
@@ -0,0 +1,221 @@
+package org.sac.loadtest;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.PoolOptions;
+import io.vertx.core.http.RequestOptions;
+import org.sac.metrics.LatencyHistogram;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-loop load at a fixed arrival rate: request i is due at start + i / rate, whether or
+// not earlier requests have completed, the way independent users arrive. Latency is measured
+// from the time a request was due, not from when it was sent, so a stalled server (or a
+// client that fell behind) shows up in the percentiles instead of quietly lowering the
+// offered load: coordinated omission is corrected by construction. The uncorrected service
+// time, from the actual send, is printed alongside for comparison.
+// Requests go out through the non-blocking Vert.x HTTP client over a fixed connection pool.
+//
+//   ./gradlew loadTest -Pbench.rate=2000 -Pbench.duration=60 -Pbench.mix=hello=1,lookup=4,page=2,add=1,cheese=1
+//   ./gradlew loadTest -Pbench.url=http://localhost:8080   (an instance that is already running)
+public final class OpenLoopLoadGenerator {
+
+    private static final String DEFAULT_MIX = "hello=1,lookup=4,page=2,add=1,cheese=1";
+    private static final int EMPLOYEES = 10_000;
+
+    private record Scenario(String name, HttpMethod method, boolean hasBody) {
+
+        String path(ThreadLocalRandom random) {
+            return switch (name) {
+                case "hello" -> "/api/hello";
+                case "lookup" -> "/api/employee/employees/" + Employees.name(random.nextInt(EMPLOYEES));
+                case "page" -> "/api/employee/employees?minAge=" + (18 + random.nextInt(50)) + "&limit=20";
+                case "add" -> "/api/employee/employee";
+                case "cheese" -> "/api/employee/cheeses?cheese=CHEDDAR";
+                case "analytics" -> "/api/employee/analytics";
+                default -> throw new IllegalArgumentException("Unknown scenario " + name);
+            };
+        }
+    }
+
+    private static final Map<String, Scenario> SCENARIOS = Map.of(
+            "hello", new Scenario("hello", HttpMethod.GET, false),
+            "lookup", new Scenario("lookup", HttpMethod.GET, false),
+            "page", new Scenario("page", HttpMethod.GET, false),
+            "add", new Scenario("add", HttpMethod.POST, true),
+            "cheese", new Scenario("cheese", HttpMethod.GET, false),
+            "analytics", new Scenario("analytics", HttpMethod.GET, false));
+
+    // per scenario and in total: latency from the due time and from the send
+    private static final class Stats {
+        final LatencyHistogram corrected = new LatencyHistogram();
+        final LatencyHistogram uncorrected = new LatencyHistogram();
+        final LongAdder failed = new LongAdder();
+    }
+
+    private final HttpClient client;
+    // the client is driven from one event loop; calls from foreign threads race with it
+    private final Context context;
+    private final Scenario[] schedule;  // scenarios repeated by weight, picked at random
+    private final AtomicLong added = new AtomicLong();
+
+    private OpenLoopLoadGenerator(HttpClient client, Context context, Scenario[] schedule) {
+        this.client = client;
+        this.context = context;
+        this.schedule = schedule;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path appDir = Path.of(args.length > 0 ? args[0] : "build/quarkus-app");
+        String url = System.getProperty("bench.url");
+        int rate = Integer.getInteger("bench.rate", 1000);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("bench.warmup", 10));
+        Duration duration = Duration.ofSeconds(Integer.getInteger("bench.duration", 30));
+        int connections = Integer.getInteger("bench.connections", 64);
+        int maxInFlight = Integer.getInteger("bench.maxInFlight", 10_000);
+        int port = Integer.getInteger("bench.port", 18080);
+        Scenario[] schedule = parseMix(System.getProperty("bench.mix", DEFAULT_MIX));
+
+        AppProcess app = url == null
+                ? AppProcess.start(appDir, port, List.of(), AppProcess.benchmarkProperties(Map.of()))
+                : null;
+        Vertx vertx = Vertx.vertx();
+        try (java.net.http.HttpClient setup = java.net.http.HttpClient.newHttpClient()) {
+            URI base = url != null ? URI.create(url) : app.uri("/");
+            if (app != null)
+                app.awaitReady(setup, "/api/hello", Duration.ofSeconds(60));
+            Employees.seed(setup, base, EMPLOYEES);
+
+            HttpClient client = vertx.createHttpClient(
+                    new HttpClientOptions().setDefaultHost(base.getHost()).setDefaultPort(base.getPort())
+                            .setKeepAlive(true),
+                    new PoolOptions().setHttp1MaxSize(connections).setMaxWaitQueueSize(-1));
+            OpenLoopLoadGenerator generator = new OpenLoopLoadGenerator(client, vertx.getOrCreateContext(), schedule);
+            System.out.printf("open loop: %d req/s, %d connections, mix %s%n",
+                    rate, connections, System.getProperty("bench.mix", DEFAULT_MIX));
+            generator.run(rate, warmup, maxInFlight);
+            Map<String, Stats> stats = generator.run(rate, duration, maxInFlight);
+            print(stats, rate, duration);
+        } finally {
+            vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+            if (app != null)
+                app.close();
+        }
+    }
+
+    // "hello=1,lookup=4": each scenario appears weight times in the schedule
+    private static Scenario[] parseMix(String mix) {
+        List<Scenario> schedule = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            Scenario scenario = SCENARIOS.get(parts[0].trim());
+            if (scenario == null)
+                throw new IllegalArgumentException("Unknown scenario " + parts[0] + ", known: " + SCENARIOS.keySet());
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            for (int i = 0; i < weight; i++)
+                schedule.add(scenario);
+        }
+        if (schedule.isEmpty())
+            throw new IllegalArgumentException("Empty request mix");
+        return schedule.toArray(Scenario[]::new);
+    }
+
+    private Map<String, Stats> run(int rate, Duration duration, int maxInFlight) throws InterruptedException {
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        stats.put("all", new Stats());
+        for (Scenario scenario : schedule)
+            stats.putIfAbsent(scenario.name(), new Stats());
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        double interval = 1e9 / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (long i = 0; ; i++) {
+            long due = start + (long) (i * interval);
+            if (due >= end)
+                break;
+            // park for the bulk of the wait, spin for the last stretch (parkNanos overshoots)
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                if (wait > 100_000)
+                    LockSupport.parkNanos(wait - 50_000);
+                else
+                    Thread.onSpinWait();
+            }
+            // blocking here delays the send, not the due time, so the wait is still measured
+            inFlight.acquire();
+            Scenario scenario = schedule[random.nextInt(schedule.length)];
+            send(scenario, scenario.path(random), due, stats.get(scenario.name()), stats.get("all"), inFlight);
+        }
+        // let the stragglers finish
+        if (!inFlight.tryAcquire(maxInFlight, 30, TimeUnit.SECONDS))
+            System.out.printf("%d requests still in flight after 30 s%n", maxInFlight - inFlight.availablePermits());
+        return stats;
+    }
+
+    private void send(Scenario scenario, String path, long due, Stats own, Stats all, Semaphore inFlight) {
+        RequestOptions options = new RequestOptions().setMethod(scenario.method()).setURI(path).setIdleTimeout(30_000);
+        context.runOnContext(v -> request(scenario, options, due, own, all, inFlight));
+    }
+
+    private void request(Scenario scenario, RequestOptions options, long due, Stats own, Stats all, Semaphore inFlight) {
+        long sent = System.nanoTime();
+        client.request(options)
+                .compose(request -> {
+                    if (!scenario.hasBody())
+                        return request.send();
+                    long n = added.incrementAndGet();
+                    request.putHeader("Content-Type", "application/json");
+                    return request.send(Buffer.buffer("{\"name\":\"load-" + n + "\",\"age\":" + (18 + n % 50) + "}"));
+                })
+                .compose(response -> response.body().map(body -> response.statusCode()))
+                .onComplete(result -> {
+                    long now = System.nanoTime();
+                    if (result.succeeded() && result.result() / 100 == 2) {
+                        for (Stats stats : new Stats[]{own, all}) {
+                            stats.corrected.record(now - due);
+                            stats.uncorrected.record(now - sent);
+                        }
+                    } else {
+                        own.failed.increment();
+                        all.failed.increment();
+                    }
+                    inFlight.release();
+                });
+    }
+
+    private static void print(Map<String, Stats> stats, int rate, Duration duration) {
+        Stats all = stats.get("all");
+        System.out.printf("target %d req/s, achieved %.0f req/s, %d ok, %d failed%n", rate,
+                (all.corrected.count() + all.failed.sum()) / (double) duration.toSeconds(),
+                all.corrected.count(), all.failed.sum());
+        System.out.printf("%-12s %-11s %9s %9s %9s %9s %9s %9s %9s%n",
+                "scenario", "latency", "count", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "p99.99 ms", "max ms");
+        stats.forEach((name, s) -> {
+            row(name, "corrected", s.corrected);
+            row("", "service", s.uncorrected);
+        });
+    }
+
+    private static void row(String name, String kind, LatencyHistogram latency) {
+        long[] q = latency.valuesAtQuantiles(0.5, 0.9, 0.99, 0.999, 0.9999);
+        System.out.printf("%-12s %-11s %9d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, kind, latency.count(),
+                q[0] / 1e6, q[1] / 1e6, q[2] / 1e6, q[3] / 1e6, q[4] / 1e6, latency.max() / 1e6);
+    }
+}
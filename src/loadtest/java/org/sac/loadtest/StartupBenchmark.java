@@ -0,0 +1,146 @@
+package org.sac.loadtest;
+
+import org.sac.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Cold start numbers for scale-to-zero deployments. Every variant is started `runs` times:
+// - time from process launch to the first 200 from /api/hello
+// - latency of the first `requests` sequential requests (the first one pays for class
+//   loading and the interpreter, the rest show how fast the JIT catches up)
+// - resident set size after `warmupRequests` more requests
+// Variants: jvm (quarkus-run.jar), jvm-appcds (the same with an AppCDS archive created by a
+// training run, with -Pbench.appcds=true) and native (the *-runner executable, if built).
+//
+//   ./gradlew startupBenchmark -Pbench.runs=10 -Pbench.appcds=true
+public final class StartupBenchmark {
+
+    private static final String PROBE = "/api/hello";
+
+    private record Variant(String name, Launcher launcher) {
+    }
+
+    private interface Launcher {
+        AppProcess start(int port) throws IOException;
+    }
+
+    private record Run(Duration firstResponse, long firstRequest, long rss) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path appDir = Path.of(args.length > 0 ? args[0] : "build/quarkus-app");
+        Path buildDir = Path.of(args.length > 1 ? args[1] : "build");
+        int runs = Integer.getInteger("bench.runs", 5);
+        int requests = Integer.getInteger("bench.requests", 100);
+        int warmupRequests = Integer.getInteger("bench.warmupRequests", 10_000);
+        int port = Integer.getInteger("bench.port", 18080);
+        boolean appCds = Boolean.getBoolean("bench.appcds");
+        Map<String, String> properties = Map.of("quarkus.log.level", "WARN");
+
+        List<Variant> variants = new ArrayList<>();
+        variants.add(new Variant("jvm", p -> AppProcess.start(appDir, p, List.of(), properties)));
+        if (appCds) {
+            Path archive = train(appDir, port, properties);
+            variants.add(new Variant("jvm-appcds", p -> AppProcess.start(appDir, p,
+                    List.of("-XX:SharedArchiveFile=" + archive), properties)));
+        }
+        Path runner = nativeRunner(buildDir);
+        if (runner != null)
+            variants.add(new Variant("native", p -> AppProcess.startNative(runner, p, properties)));
+
+        System.out.printf("%-11s %5s %14s %12s %14s %14s %14s %10s%n", "variant", "runs",
+                "first 200 ms", "(min) ms", "1st request ms", "first p50 ms", "first p99 ms", "RSS MB");
+        for (Variant variant : variants) {
+            List<Run> results = new ArrayList<>();
+            // the first requests of all runs
+            LatencyHistogram first = new LatencyHistogram();
+            for (int i = 0; i < runs; i++)
+                results.add(run(variant.launcher(), port, requests, warmupRequests, first));
+            long[] firstResponse = results.stream().mapToLong(r -> r.firstResponse().toNanos()).sorted().toArray();
+            System.out.printf("%-11s %5d %14.1f %12.1f %14.2f %14.2f %14.2f %10.1f%n",
+                    variant.name(), runs,
+                    median(firstResponse) / 1e6, firstResponse[0] / 1e6,
+                    median(results.stream().mapToLong(Run::firstRequest).sorted().toArray()) / 1e6,
+                    first.valueAtQuantile(0.5) / 1e6, first.valueAtQuantile(0.99) / 1e6,
+                    median(results.stream().mapToLong(Run::rss).sorted().toArray()) / (1024.0 * 1024.0));
+        }
+    }
+
+    private static Run run(Launcher launcher, int port, int requests, int warmupRequests, LatencyHistogram latency)
+            throws Exception {
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            long launched = System.nanoTime();
+            try (AppProcess app = launcher.start(port)) {
+                app.awaitReady(client, PROBE, Duration.ofSeconds(60));
+                Duration firstResponse = Duration.ofNanos(System.nanoTime() - launched);
+
+                HttpRequest probe = HttpRequest.newBuilder(app.uri(PROBE)).build();
+                long firstRequest = -1;
+                for (int i = 0; i < requests; i++) {
+                    long start = System.nanoTime();
+                    client.send(probe, HttpResponse.BodyHandlers.discarding());
+                    long elapsed = System.nanoTime() - start;
+                    latency.record(elapsed);
+                    if (i == 0)
+                        firstRequest = elapsed;
+                }
+                for (int i = 0; i < warmupRequests; i++)
+                    client.send(probe, HttpResponse.BodyHandlers.discarding());
+                return new Run(firstResponse, firstRequest, app.rss());
+            }
+        }
+    }
+
+    // Training run: the JVM records the classes loaded while serving a few typical requests
+    // and dumps them into a dynamic AppCDS archive at exit
+    private static Path train(Path appDir, int port, Map<String, String> properties) throws Exception {
+        Path archive = appDir.resolve("app-cds.jsa").toAbsolutePath();
+        Files.deleteIfExists(archive);
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            AppProcess app = AppProcess.start(appDir, port, List.of("-XX:ArchiveClassesAtExit=" + archive), properties);
+            try {
+                app.awaitReady(client, PROBE, Duration.ofSeconds(60));
+                for (String path : List.of(PROBE, "/api/employee/hello", "/api/employee/employees/nobody",
+                        "/api/employee/employees?limit=10", "/api/employee/cheeses?cheese=Brie", "/api/metrics"))
+                    client.send(HttpRequest.newBuilder(app.uri(path)).build(), HttpResponse.BodyHandlers.discarding());
+                client.send(HttpRequest.newBuilder(app.uri("/api/employee/employee"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"cds\",\"age\":30}"))
+                        .build(), HttpResponse.BodyHandlers.discarding());
+            } finally {
+                // dumping the archive happens during shutdown and takes a few seconds
+                app.stop(Duration.ofMinutes(2));
+            }
+        }
+        if (!Files.exists(archive))
+            throw new IllegalStateException("Training run did not create " + archive + ", see loadtest-app.log");
+        System.out.printf("AppCDS archive: %s (%.1f MB)%n", archive, Files.size(archive) / (1024.0 * 1024.0));
+        return archive;
+    }
+
+    // build/<name>-<version>-runner from ./gradlew build -Dquarkus.native.enabled=true
+    private static Path nativeRunner(Path buildDir) throws IOException {
+        if (!Files.isDirectory(buildDir))
+            return null;
+        try (Stream<Path> files = Files.list(buildDir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith("-runner"))
+                    .filter(Files::isExecutable)
+                    .findFirst()
+                    .orElse(null);
+        }
+    }
+
+    private static long median(long[] sorted) {
+        return sorted.length == 0 ? 0 : sorted[sorted.length / 2];
+    }
+}
@@ -1,31 +1,82 @@
 package org.sac;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import io.quarkus.logging.Log;
-import io.smallrye.common.constraint.NotNull;
+import io.smallrye.common.annotation.Blocking;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.NewCookie;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.SecurityContext;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.resteasy.reactive.*;
 import org.jboss.resteasy.reactive.RestResponse.ResponseBuilder;
+import org.jboss.resteasy.reactive.common.util.RestMediaType;
+import org.sac.admission.AdmissionGroup;
+import org.sac.analytics.EmployeeAnalytics;
+import org.sac.cbor.CborMediaType;
+import org.sac.cbor.CborOutput;
+import org.sac.cbor.EmployeeCborCodec;
+import org.sac.cheese.CheeseCatalog;
+import org.sac.cluster.EmployeeCluster;
+import org.sac.feed.EmployeeChangeFeed;
+import org.sac.execution.BlockingExecutor;
+import org.sac.http.PreEncodedResponse;
+import org.sac.http.PreEncodedResponses;
+import org.sac.json.EmployeeJsonCodec;
+import org.sac.json.JsonOutput;
+import org.sac.lookup.EmployeeLookup;
+import org.sac.lookup.LookupResult;
+import org.sac.mutiny.Coalesce;
+import org.sac.mutiny.PipelineProfiler;
+import org.sac.store.EmployeeBulkLoader;
+import org.sac.store.EmployeeBulkLoader.BulkResult;
+import org.sac.store.EmployeeStore;
+import org.sac.store.PageCursor;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.security.Principal;
 import java.time.Duration;
-import java.time.Instant;
-import java.util.Arrays;
-import java.util.Date;
 import java.util.List;
-import java.util.stream.Stream;
 
+// All endpoints share one adaptive concurrency limit, the analytics scan has its own.
+// Streamed responses, bulk ingest and batch lookups are in STREAMING: their duration follows
+// the size of the result or upload and the speed of the client, not the load, and would
+// drag the adaptive limit of the others down.
 @Path("/employee")
+@AdmissionGroup("employee")
 public class EmployeeResource {
 
+    static final String STREAMING = "employee-streaming";
+
+    public static final int MAX_AGE = 150;
+    public static final int MAX_LOOKUP_NAMES = 1000;
+
+    // every cheese miss returns this one response; Quarkus REST copies it before writing
+    private static final RestResponse<String> CHEESE_NOT_FOUND =
+            RestResponse.status(Response.Status.NOT_FOUND, "Unknown cheese");
+    private static final String TEXT_PLAIN_UTF8 = MediaType.TEXT_PLAIN + ";charset=UTF-8";
+
     public static class Employee {
+        @NotBlank
         private String name;
+        @NotNull
+        @Min(0)
+        @Max(MAX_AGE)
         private Integer age;
 
         public Employee(String name, Integer age) {
@@ -49,6 +100,56 @@ public class EmployeeResource {
         }
     }
 
+    @Inject
+    EmployeeStore store;
+
+    @Inject
+    EmployeeBulkLoader bulkLoader;
+
+    @Inject
+    EmployeeAnalytics analytics;
+
+    @Inject
+    CheeseCatalog cheeses;
+
+    // runs the store and catalog handlers on the event loop, the worker pool or virtual
+    // threads, per execution.mode.* in application.properties
+    @Inject
+    BlockingExecutor executor;
+
+    @Inject
+    PipelineProfiler profiler;
+
+    // sharded mode: routes names to the node that owns them, see org.sac.cluster
+    @Inject
+    EmployeeCluster cluster;
+
+    @Inject
+    EmployeeChangeFeed feed;
+
+    @Inject
+    EmployeeLookup lookup;
+
+    @ConfigProperty(name = "employee.streaming.flush-batch-size", defaultValue = "64")
+    int flushBatchSize;
+
+    private final PreEncodedResponse helloResponse;
+    private final RestResponse<PreEncodedResponse> helloAnnotationResponse;
+
+    @Inject
+    public EmployeeResource(PreEncodedResponses responses) {
+        this.helloResponse = responses.encode(PreEncodedResponse.of("Hello, World!", TEXT_PLAIN_UTF8)
+                .header("X-Cheese", "Camembert")
+                .expiresAfter(Duration.ofDays(2))
+                .cookie(new NewCookie("Flavour", "chocolate")));
+        this.helloAnnotationResponse = RestResponse.status(Response.Status.CREATED,
+                responses.encode(PreEncodedResponse.of("Hello, World!", TEXT_PLAIN_UTF8)
+                        .header("X-Cheese", "Camembert")));
+    }
+
+    public record EmployeePage(List<Employee> items, String next) {
+    }
+
     // http://localhost:8080/api/employee/sachin?age=5
     @GET
     @Path("/{name}")
@@ -70,59 +171,173 @@ public class EmployeeResource {
 
 
     // returning custom class. Requires dependency 'io.quarkus:quarkus-resteasy-reactive-jackson'
+    // Service-to-service callers can ask for CBOR instead (Accept: application/cbor), a
+    // binary encoding that is smaller and cheaper to produce and parse; see org.sac.cbor.
+    // Endpoints listing both media types use qs to keep JSON the default.
     // http://localhost:8080/api/employee/employee
     @GET
     @Path("/employee")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON + ";qs=1", CborMediaType.APPLICATION_CBOR + ";qs=0.9"})
     public Employee getEmployee() {
         return new Employee("sachin", 30);
     }
 
     // Any method parameter with no annotation will receive the method body
+    // @Valid runs the bean validation constraints declared on Employee (400 on failure)
     @POST
     @Path("/employee")
+    @Consumes({MediaType.APPLICATION_JSON, CborMediaType.APPLICATION_CBOR})
+    @Produces({MediaType.APPLICATION_JSON + ";qs=1", CborMediaType.APPLICATION_CBOR + ";qs=0.9"})
+    public Uni<Employee> addEmployee(@Valid Employee requestBody,
+                                     @RestHeader(EmployeeCluster.LOCAL_HEADER) boolean local) {
+        String owner = cluster.remoteOwner(requestBody.getName(), local);
+        if (owner != null)
+            return cluster.put(owner, requestBody);
+        return executor.run("EmployeeResource.addEmployee", () -> {
+            store.put(requestBody);
+            Log.debugf("Added %s", requestBody);
+            return requestBody;
+        });
+    }
+
+    // Bulk ingest of newline delimited JSON, one employee per line
+    // A blocking method with an InputStream body is not buffered by Quarkus REST:
+    // the stream reads from the Vert.x request as the loader consumes it.
+    // curl -X POST -H 'Content-Type: application/x-ndjson' --data-binary @employees.ndjson \
+    //      http://localhost:8080/api/employee/employees/bulk
+    @POST
+    @Path("/employees/bulk")
+    @Blocking
+    @Consumes(RestMediaType.APPLICATION_NDJSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @AdmissionGroup(STREAMING)
+    public BulkResult bulkAddEmployees(InputStream body,
+                                       @RestHeader(EmployeeCluster.LOCAL_HEADER) boolean local) throws IOException {
+        // sharded: each batch is split by owner and the foreign parts are sent on
+        return cluster.enabled() && !local ? bulkLoader.load(body, cluster::putAll) : bulkLoader.load(body);
+    }
+
+    // Employee store endpoints
+    // http://localhost:8080/api/employee/employees/sachin
+    @GET
+    @Path("/employees/{name}")
+    @Produces({MediaType.APPLICATION_JSON + ";qs=1", CborMediaType.APPLICATION_CBOR + ";qs=0.9"})
+    public Uni<RestResponse<Employee>> findEmployee(String name,
+                                                    @RestHeader(EmployeeCluster.LOCAL_HEADER) boolean local) {
+        String owner = cluster.remoteOwner(name, local);
+        if (owner != null)
+            return cluster.get(owner, name)
+                    .map(employee -> employee != null ? RestResponse.ok(employee) : RestResponse.notFound());
+        return executor.run("EmployeeResource.findEmployee", () -> {
+            Employee employee = store.get(name);
+            return employee != null ? RestResponse.ok(employee) : RestResponse.notFound();
+        });
+    }
+
+    // Batch lookup: up to MAX_LOOKUP_NAMES names in one request, one NDJSON line per name
+    // with its status (see LookupResult), in the order the lookups complete:
+    //   {"name":"sachin","status":200,"employee":{"name":"sachin","age":30}}
+    //   {"name":"nobody","status":404}
+    // The names are looked up concurrently (employee.lookup.concurrency) and the lines are
+    // written as they become available, a chunk of local names per write.
+    // curl -H 'Content-Type: application/json' -d '["sachin","nobody"]' \
+    //      http://localhost:8080/api/employee/employees/lookup
+    @POST
+    @Path("/employees/lookup")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Employee addEmployee(Employee requestBody) {
-        Log.info("Added " + requestBody);
-        return requestBody;
+    @Produces(RestMediaType.APPLICATION_NDJSON)
+    @AdmissionGroup(STREAMING)
+    public Multi<NdjsonBatch> lookupEmployees(@NotNull @Size(min = 1, max = MAX_LOOKUP_NAMES) List<@NotNull String> names,
+                                              @RestHeader(EmployeeCluster.LOCAL_HEADER) boolean local) {
+        return lookup.lookup(names, local).map(EmployeeResource::toLookupBatch);
+    }
+
+    // Keyset pagination ordered by (age, name). Pass the returned "next" token as cursor
+    // to get the following page; "next" is null on the last page.
+    // Sharded, every node is asked for the page and the answers are merged.
+    // http://localhost:8080/api/employee/employees?minAge=20&maxAge=40&limit=50
+    @GET
+    @Path("/employees")
+    @Produces({MediaType.APPLICATION_JSON + ";qs=1", CborMediaType.APPLICATION_CBOR + ";qs=0.9"})
+    public Uni<EmployeePage> findEmployeesByAge(@RestQuery @DefaultValue("0") @Min(0) int minAge,
+                                                @RestQuery @DefaultValue("" + MAX_AGE) @Max(MAX_AGE) int maxAge,
+                                                @RestQuery @DefaultValue("100") @Min(1) @Max(1000) int limit,
+                                                @RestQuery String cursor,
+                                                @RestHeader(EmployeeCluster.LOCAL_HEADER) boolean local) {
+        EmployeeStore.AgeKey after = cursor != null ? PageCursor.decode(cursor) : null;
+        Uni<EmployeeStore.Page> page = executor.run("EmployeeResource.findEmployeesByAge",
+                () -> store.page(minAge, maxAge, after, limit));
+        if (cluster.enabled() && !local)
+            page = cluster.page(minAge, maxAge, after, limit, page);
+        return page.map(p -> new EmployeePage(p.items(), p.hasMore() ? PageCursor.encode(p.last()) : null));
+    }
+
+    // http://localhost:8080/api/employee/employees/sachin
+    @DELETE
+    @Path("/employees/{name}")
+    public Uni<RestResponse<Void>> deleteEmployee(String name,
+                                                  @RestHeader(EmployeeCluster.LOCAL_HEADER) boolean local) {
+        String owner = cluster.remoteOwner(name, local);
+        if (owner != null)
+            return cluster.remove(owner, name).map(removed -> removed ? RestResponse.noContent() : RestResponse.notFound());
+        return executor.run("EmployeeResource.deleteEmployee",
+                () -> store.remove(name) != null ? RestResponse.noContent() : RestResponse.notFound());
+    }
+
+    // Count, age statistics and histogram, and the most common name prefixes of the whole
+    // store. The scan runs as parallel streams on the fork/join pool, off the event loop.
+    // Identical requests arriving while a scan runs share its result (@Coalesce).
+    // http://localhost:8080/api/employee/analytics?bucketWidth=10&prefixLength=3&top=10
+    @GET
+    @Path("/analytics")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Coalesce
+    @AdmissionGroup("employee-analytics")
+    public Uni<EmployeeAnalytics.Report> employeeAnalytics(@RestQuery @DefaultValue("10") @Min(1) @Max(MAX_AGE + 1) int bucketWidth,
+                                                           @RestQuery @DefaultValue("3") @Min(1) @Max(32) int prefixLength,
+                                                           @RestQuery @DefaultValue("10") @Min(1) @Max(1000) int top) {
+        return executor.run("EmployeeResource.employeeAnalytics",
+                () -> analytics.compute(bucketWidth, prefixLength, top));
     }
 
     // Setting other response properties
+    // The response is the same on every call, so it is encoded once in the constructor
+    // (see PreEncodedResponse). The ResponseBuilder equivalent is:
+    //   ResponseBuilder.ok("Hello, World!", MediaType.TEXT_PLAIN_TYPE)
+    //           .header("X-Cheese", "Camembert")
+    //           .expires(Date.from(Instant.now().plus(Duration.ofDays(2))))
+    //           .cookie(new NewCookie("Flavour", "chocolate"))
+    //           .build();
     // http://localhost:8080/api/employee/hello
     @GET
     @Path("/hello")
-    public RestResponse<String> hello() {
-        // HTTP OK status with text/plain content type
-        return ResponseBuilder.ok("Hello, World!", MediaType.TEXT_PLAIN_TYPE)
-                // set a response header
-                .header("X-Cheese", "Camembert")
-                // set the Expires response header to two days from now
-                .expires(Date.from(Instant.now().plus(Duration.ofDays(2))))
-                // send a new cookie
-                .cookie(new NewCookie("Flavour", "chocolate"))
-                // end of builder API
-                .build();
+    @Produces(MediaType.TEXT_PLAIN)
+    public PreEncodedResponse hello() {
+        return helloResponse;
     }
 
     // Setting other response properties
     // http://localhost:8080/api/employee/hello-status
     @GET
     @Path("/hello-status")
+    @Produces({MediaType.APPLICATION_JSON + ";qs=1", CborMediaType.APPLICATION_CBOR + ";qs=0.9"})
     public RestResponse<Employee> helloStatus() {
-        // HTTP OK status with text/plain content type
-        return ResponseBuilder.ok(new Employee("sac", 30), MediaType.APPLICATION_JSON)
-                .status(Response.Status.CONFLICT)
+        // HTTP CONFLICT status, content type negotiated from @Produces
+        return ResponseBuilder.create(Response.Status.CONFLICT, new Employee("sac", 30))
                 .build();
     }
 
     // Setting other response properties using annotation
+    //   @ResponseStatus(201)
+    //   @ResponseHeader(name = "X-Cheese", value = "Camembert")
+    // does the same per request; here the header is part of the pre-encoded response and the
+    // status comes with it in a shared RestResponse
     // http://localhost:8080/api/employee/hello-annotation
-    @ResponseStatus(201)
-    @ResponseHeader(name = "X-Cheese", value = "Camembert")
     @GET
     @Path("/hello-annotation")
-    public String helloAnnotation() {
-        return "Hello, World!";
+    @Produces(MediaType.TEXT_PLAIN)
+    public RestResponse<PreEncodedResponse> helloAnnotation() {
+        return helloAnnotationResponse;
     }
 
     // Async/reactive support
@@ -131,23 +346,126 @@ public class EmployeeResource {
     //   until the returned Uni instance resolves to a value
     // - This allows you to not block the event-loop thread while method is processing
     //   and allows Quarkus to serve more requests
+    // - concurrent calls share one computation, and its result is reused for a second
+    //   (@Coalesce, see Coalescer)
     // http://localhost:8080/api/employee/hello-async
     @GET
     @Path("/hello-async")
+    @Coalesce(ttlMillis = 1000)
     public Uni<Employee> helloAsync() {
         return Uni.createFrom().item( () -> new Employee("sac", 30));
     }
 
     // Streaming support
     // useful for streaming text or binary data.
+    // Multi.createFrom().iterable() walks the store lazily: an item is only read when the
+    // HTTP layer requests it, so nothing is materialised up front and heap use stays flat.
+    // The media type is picked from the Accept header:
+    //   application/json      - a JSON array written element by element
+    //   application/x-ndjson  - one employee per line, written in batches
+    //   text/event-stream     - one Server-Sent Event per employee
+    //   application/cbor-seq  - one CBOR map per employee, written in batches
+    // Sharded, the stream walks all nodes page by page (EmployeeCluster.all()).
     @GET
     @Path("/hello-streaming")
+    @Produces(MediaType.APPLICATION_JSON + ";qs=1")   // qs: JSON wins when the client accepts anything
+    @AdmissionGroup(STREAMING)
     public Multi<Employee> streamExample() {
-        List<Employee> list = Arrays.asList(
-                new Employee("sac1", 30),
-                new Employee("sac2", 31) );
-        Stream<Employee> stream = list.stream();
-        return Multi.createFrom().items(stream);
+        return employees();
+    }
+
+    // Each emitted batch is one write (and flush) on the connection; grouping
+    // employee.streaming.flush-batch-size lines per write cuts syscalls for large result sets.
+    @GET
+    @Path("/hello-streaming")
+    @Produces(RestMediaType.APPLICATION_NDJSON + ";qs=0.9")
+    @AdmissionGroup(STREAMING)
+    public Multi<NdjsonBatch> streamNdjson() {
+        // profiled: batching and encoding time per batch, and the demand the HTTP writer signals
+        return profiler.pipeline("EmployeeResource.streamNdjson").multi(trace -> employees()
+                .group().intoLists().of(flushBatchSize)
+                .onItem().invoke(trace.stage("group"))
+                .onItem().transform(EmployeeResource::toNdjsonBatch)
+                .onItem().invoke(trace.stage("encode")));
+    }
+
+    @GET
+    @Path("/hello-streaming")
+    @Produces(MediaType.SERVER_SENT_EVENTS + ";qs=0.8")
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    @AdmissionGroup(STREAMING)
+    public Multi<Employee> streamEvents() {
+        return employees();
+    }
+
+    // the binary counterpart of streamNdjson: CBOR items back to back need no separator,
+    // so a batch is plain bytes
+    @GET
+    @Path("/hello-streaming")
+    @Produces(CborMediaType.APPLICATION_CBOR_SEQ + ";qs=0.7")
+    @AdmissionGroup(STREAMING)
+    public Multi<byte[]> streamCbor() {
+        return employees()
+                .group().intoLists().of(flushBatchSize)
+                .onItem().transform(EmployeeResource::toCborBatch);
+    }
+
+    // Live change feed: every create, update and delete from now on, one Server-Sent Event each
+    //   id: 42
+    //   event: updated
+    //   data: {"name":"sachin","age":31}
+    // Dashboards subscribe once instead of polling hello-streaming. A client that falls more
+    // than employee.feed.buffer-size changes behind loses the oldest ones (a gap in the ids)
+    // or is disconnected, per employee.feed.overflow; either way it should reload the list.
+    // Sharded, every node publishes the changes of its own shard.
+    // Not under admission control: a subscription lasts as long as the client wants.
+    // curl -N http://localhost:8080/api/employee/changes
+    @GET
+    @Path("/changes")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @AdmissionGroup(AdmissionGroup.NONE)
+    public Multi<OutboundSseEvent> changes(Sse sse) {
+        // the JSON is encoded once per change and shared by all subscribers
+        return feed.subscribe().map(change -> sse.newEventBuilder()
+                .id(Long.toString(change.id()))
+                .name(change.type().eventName())
+                .mediaType(MediaType.TEXT_PLAIN_TYPE)
+                .data(change.json())
+                .build());
+    }
+
+    private Multi<Employee> employees() {
+        return cluster.enabled() ? cluster.all() : Multi.createFrom().iterable(store.all());
+    }
+
+    private static byte[] toCborBatch(List<Employee> batch) {
+        ByteBuf buf = Unpooled.buffer(batch.size() * 24);
+        CborOutput out = new CborOutput(buf);
+        for (Employee employee : batch)
+            EmployeeCborCodec.INSTANCE.write(employee, out);
+        return ByteBufUtil.getBytes(buf);
+    }
+
+    private static NdjsonBatch toLookupBatch(List<LookupResult> results) {
+        ByteBuf buf = Unpooled.buffer(results.size() * 64);
+        JsonOutput out = new JsonOutput(buf);
+        for (LookupResult result : results) {
+            if (buf.writerIndex() > 0)
+                out.raw('\n');
+            result.write(out);
+        }
+        return new NdjsonBatch(ByteBufUtil.getBytes(buf));
+    }
+
+    private static NdjsonBatch toNdjsonBatch(List<Employee> batch) {
+        ByteBuf buf = Unpooled.buffer(batch.size() * (EmployeeJsonCodec.INSTANCE.sizeHint() + 1));
+        JsonOutput out = new JsonOutput(buf);
+        for (Employee employee : batch) {
+            if (buf.writerIndex() > 0)
+                out.raw('\n');
+            EmployeeJsonCodec.INSTANCE.write(employee, out);
+        }
+        return new NdjsonBatch(ByteBufUtil.getBytes(buf));
     }
 
     // Accessing context objects
@@ -164,6 +482,8 @@ public class EmployeeResource {
      */
     //    @Inject
     //    SecurityContext security;
+    // The user principal comes from a bearer token (see org.sac.security.TokenAuthentication)
+    // curl -H "Authorization: Bearer $TOKEN" http://localhost:8080/api/employee/hello-context
     @GET
     @Path("/hello-context")
     public String contextExample(SecurityContext security) {
@@ -180,27 +500,40 @@ public class EmployeeResource {
 
     // Exception mapping
     // see ExceptionMappers.java
+    // Cheese lookups no longer throw NotFoundException on a miss: building the exception
+    // (stack trace) and going through the mapper was most of the cost of a miss.
+    // Misses return a constant 404 response instead.
     // http://localhost:8080/api/employee/cheeses/salty
     @GET
     @Path("/cheeses/{cheese}")
-    public String findCheese(String cheese) {
-        Log.info("calling cheese service");
-        if(!cheese.equals("salty"))
-            // send a 404
-            throw new NotFoundException("Unknown cheese: " + cheese);
-        return "Salty cheese";
+    public RestResponse<String> findCheese(String cheese) {
+        Log.debug("calling cheese service");
+        String description = cheeses.find(cheese);
+        return description != null ? RestResponse.ok(description) : CHEESE_NOT_FOUND;
     }
 
+    // case-insensitive lookup
+    // http://localhost:8080/api/employee/cheeses?cheese=SALTY
     @GET
     @Path("/cheeses")
-    public String searchCheese(
+    public Uni<RestResponse<String>> searchCheese(
             @RestQuery
             @NotBlank
             String cheese) {
-        if(!cheese.equals("salty"))
-            // send a 404
-            throw new NotFoundException("Unknown cheese: " + cheese);
-        return "Salty cheese";
+        return executor.run("EmployeeResource.searchCheese", () -> {
+            String description = cheeses.findIgnoreCase(cheese);
+            return description != null ? RestResponse.ok(description) : CHEESE_NOT_FOUND;
+        });
+    }
+
+    // autocomplete; not under /cheeses/, where it would hide a cheese of that name
+    // http://localhost:8080/api/employee/cheese-suggestions?prefix=ca&limit=5
+    @GET
+    @Path("/cheese-suggestions")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<String> suggestCheese(@RestQuery @DefaultValue("") String prefix,
+                                      @RestQuery @DefaultValue("10") @Min(1) @Max(100) int limit) {
+        return cheeses.suggest(prefix, limit);
     }
 
 }
\ No newline at end of file
@@ -1,16 +1,27 @@
 package org.sac;
 
+import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.MediaType;
+import org.sac.http.PreEncodedResponse;
+import org.sac.http.PreEncodedResponses;
 
 @Path("/hello")
 public class GreetingResource {
 
+    // probes hit this endpoint constantly, so the response is encoded once
+    private final PreEncodedResponse hello;
+
+    @Inject
+    public GreetingResource(PreEncodedResponses responses) {
+        hello = responses.encode(PreEncodedResponse.of("Hello from Quarkus REST", MediaType.TEXT_PLAIN + ";charset=UTF-8"));
+    }
+
     @GET
     @Produces(MediaType.TEXT_PLAIN)
-    public String hello() {
-        return "Hello from Quarkus REST";
+    public PreEncodedResponse hello() {
+        return hello;
     }
 }
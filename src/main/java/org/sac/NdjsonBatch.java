@@ -0,0 +1,7 @@
+package org.sac;
+
+// A run of already encoded NDJSON lines, written to the response in one chunk.
+// Quarkus REST JSON-encodes every element of an application/x-ndjson Multi and appends
+// a newline, so a batch carries its lines pre-joined without the trailing newline.
+public record NdjsonBatch(byte[] lines) {
+}
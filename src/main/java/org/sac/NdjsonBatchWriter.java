@@ -0,0 +1,31 @@
+package org.sac;
+
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+import org.jboss.resteasy.reactive.common.util.RestMediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+// writes NdjsonBatch bytes as they are, instead of running them through Jackson
+@Provider
+@Produces({RestMediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON})
+public class NdjsonBatchWriter implements MessageBodyWriter<NdjsonBatch> {
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type == NdjsonBatch.class;
+    }
+
+    @Override
+    public void writeTo(NdjsonBatch batch, Class<?> type, Type genericType, Annotation[] annotations,
+                        MediaType mediaType, MultivaluedMap<String, Object> httpHeaders,
+                        OutputStream entityStream) throws IOException {
+        entityStream.write(batch.lines());
+    }
+}
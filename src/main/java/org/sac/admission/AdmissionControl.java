@@ -0,0 +1,127 @@
+package org.sac.admission;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.sac.http.PreEncodedResponse;
+import org.sac.http.PreEncodedResponses;
+import org.sac.metrics.Prometheus;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Load shedding: each @AdmissionGroup gets a ConcurrencyLimiter whose limit follows the
+// observed latency (GradientLimit). Requests over the limit are answered at once with a
+// pre-encoded 503 and Retry-After, so under overload the service keeps completing what it
+// admitted at normal latency instead of queueing everything until it times out.
+//   admission.enabled=true
+//   admission.initial-limit=20, admission.min-limit=4, admission.max-limit=500, admission.window=20
+// Each setting can be given per group: admission.<group>.max-limit=50
+// The running service exports limits, in-flight counts and rejections on /api/metrics.
+@ApplicationScoped
+public class AdmissionControl {
+
+    static final String PREFIX = "admission.";
+    // endpoints without a group
+    private static final ConcurrencyLimiter UNLIMITED = new ConcurrencyLimiter("", null);
+
+    private final boolean enabled;
+    private final PreEncodedResponse overloaded;
+    // resource class -> method name -> limiter per overload, like RequestMetrics; limiters by group
+    private final Map<Class<?>, Map<String, Overload[]>> endpoints = new ConcurrentHashMap<>();
+    private final Map<String, ConcurrencyLimiter> groups = new ConcurrentHashMap<>();
+
+    // overloaded resource methods share a name, and may be in different groups
+    private record Overload(Class<?>[] parameterTypes, ConcurrencyLimiter limiter) {
+    }
+
+    @Inject
+    public AdmissionControl(PreEncodedResponses responses) {
+        enabled = ConfigProvider.getConfig().getOptionalValue(PREFIX + "enabled", Boolean.class).orElse(true);
+        overloaded = responses.encode(PreEncodedResponse.of("Overloaded, retry later", MediaType.TEXT_PLAIN + ";charset=UTF-8")
+                .header("Retry-After", "1"));
+    }
+
+    PreEncodedResponse overloaded() {
+        return overloaded;
+    }
+
+    // null when the endpoint is not limited
+    ConcurrencyLimiter limiter(Class<?> resource, String method, Class<?>[] parameterTypes) {
+        if (!enabled)
+            return null;
+        Map<String, Overload[]> methods = endpoints.get(resource);
+        if (methods == null)
+            methods = endpoints.computeIfAbsent(resource, c -> new ConcurrentHashMap<>());
+        ConcurrencyLimiter limiter = find(methods.get(method), parameterTypes);
+        if (limiter == null)
+            limiter = find(methods.compute(method, (m, known) -> find(known, parameterTypes) != null ? known
+                    : add(known, new Overload(parameterTypes.clone(), resolve(resource, m, parameterTypes)))), parameterTypes);
+        return limiter == UNLIMITED ? null : limiter;
+    }
+
+    private static ConcurrencyLimiter find(Overload[] overloads, Class<?>[] parameterTypes) {
+        if (overloads != null)
+            for (Overload overload : overloads)
+                if (Arrays.equals(overload.parameterTypes, parameterTypes))
+                    return overload.limiter;
+        return null;
+    }
+
+    private static Overload[] add(Overload[] overloads, Overload overload) {
+        if (overloads == null)
+            return new Overload[]{overload};
+        Overload[] added = Arrays.copyOf(overloads, overloads.length + 1);
+        added[overloads.length] = overload;
+        return added;
+    }
+
+    private ConcurrencyLimiter resolve(Class<?> resource, String name, Class<?>[] parameterTypes) {
+        AdmissionGroup group = null;
+        for (Method method : resource.getMethods())
+            if (method.getName().equals(name) && Arrays.equals(method.getParameterTypes(), parameterTypes))
+                group = method.getAnnotation(AdmissionGroup.class);
+        if (group == null)
+            group = resource.getAnnotation(AdmissionGroup.class);
+        return group == null || group.value().equals(AdmissionGroup.NONE) ? UNLIMITED
+                : groups.computeIfAbsent(group.value(), AdmissionControl::create);
+    }
+
+    private static ConcurrencyLimiter create(String group) {
+        Config config = ConfigProvider.getConfig();
+        return new ConcurrencyLimiter(group, new GradientLimit(
+                setting(config, group, "initial-limit", 20),
+                setting(config, group, "min-limit", 4),
+                setting(config, group, "max-limit", 500),
+                setting(config, group, "window", 20)));
+    }
+
+    // admission.<group>.<name>, then admission.<name>
+    private static int setting(Config config, String group, String name, int defaultValue) {
+        return config.getOptionalValue(PREFIX + group + "." + name, Integer.class)
+                .or(() -> config.getOptionalValue(PREFIX + name, Integer.class))
+                .orElse(defaultValue);
+    }
+
+    public void writePrometheus(StringBuilder out) {
+        Prometheus.header(out, "admission_limit", "gauge", "Current concurrency limit of the endpoint group");
+        for (ConcurrencyLimiter limiter : groups.values())
+            Prometheus.sample(out, "admission_limit", labels(limiter), limiter.limit());
+        Prometheus.header(out, "admission_in_flight", "gauge", "Admitted requests of the endpoint group still running");
+        for (ConcurrencyLimiter limiter : groups.values())
+            Prometheus.sample(out, "admission_in_flight", labels(limiter), limiter.inFlight());
+        Prometheus.header(out, "admission_requests_total", "counter", "Requests admitted and rejected with 503");
+        for (ConcurrencyLimiter limiter : groups.values()) {
+            Prometheus.sample(out, "admission_requests_total", labels(limiter) + ",outcome=\"admitted\"", limiter.admitted.sum());
+            Prometheus.sample(out, "admission_requests_total", labels(limiter) + ",outcome=\"rejected\"", limiter.rejected.sum());
+        }
+    }
+
+    private static String labels(ConcurrencyLimiter limiter) {
+        return "group=\"" + limiter.group + '"';
+    }
+}
@@ -0,0 +1,34 @@
+package org.sac.admission;
+
+import io.vertx.ext.web.RoutingContext;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.reactive.RestResponse;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.jboss.resteasy.reactive.server.SimpleResourceInfo;
+import org.sac.http.PreEncodedResponse;
+
+// Admits or rejects a request once its endpoint is known. The permit is returned, and the
+// latency sampled, when the response has been written or the connection is gone, so
+// streamed responses hold their permit until the last byte.
+class AdmissionFilters {
+
+    @Inject
+    AdmissionControl admission;
+
+    @ServerRequestFilter
+    public RestResponse<PreEncodedResponse> admit(SimpleResourceInfo resourceInfo, RoutingContext routing) {
+        if (resourceInfo == null)
+            return null;
+        ConcurrencyLimiter limiter = admission.limiter(resourceInfo.getResourceClass(), resourceInfo.getMethodName(),
+                resourceInfo.parameterTypes());
+        if (limiter == null)
+            return null;
+        int inFlight = limiter.tryAcquire();
+        if (inFlight == 0)
+            return RestResponse.status(Response.Status.SERVICE_UNAVAILABLE, admission.overloaded());
+        long start = System.nanoTime();
+        routing.addEndHandler(result -> limiter.release(System.nanoTime() - start, inFlight));
+        return null;
+    }
+}
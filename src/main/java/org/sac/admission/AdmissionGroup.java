@@ -0,0 +1,19 @@
+package org.sac.admission;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Puts the endpoints of a resource class, or one method, under a concurrency limit shared by
+// every endpoint of the same group (see AdmissionControl). A method annotation overrides the
+// class one; endpoints without a group are never limited, and NONE exempts a method of a
+// limited class (long-lived subscriptions, whose duration says nothing about load).
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface AdmissionGroup {
+
+    String NONE = "";
+
+    String value();
+}
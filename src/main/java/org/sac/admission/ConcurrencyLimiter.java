@@ -0,0 +1,45 @@
+package org.sac.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Admission for one endpoint group: at most limit() requests in flight, the rest are turned
+// away at once instead of queueing. Every admitted request must be released exactly once.
+public final class ConcurrencyLimiter {
+
+    final String group;
+    private final GradientLimit limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    final LongAdder admitted = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+
+    ConcurrencyLimiter(String group, GradientLimit limit) {
+        this.group = group;
+        this.limit = limit;
+    }
+
+    // the in-flight count including this request, 0 when rejected
+    int tryAcquire() {
+        int current = inFlight.incrementAndGet();
+        if (current > limit.limit()) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            return 0;
+        }
+        admitted.increment();
+        return current;
+    }
+
+    void release(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        limit.sample(rttNanos, inFlightAtStart);
+    }
+
+    public int limit() {
+        return limit.limit();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,86 @@
+package org.sac.admission;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+// Concurrency limit estimated from latency, gradient style (as in Netflix concurrency-limits'
+// Gradient2). Completed requests are grouped in windows of `window` samples:
+// - short RTT: the mean latency of the last window
+// - long RTT: an exponential average of the short ones, the latency when not overloaded
+// gradient = clamp(tolerance * long / short, 0.5, 1). While latency stays near the baseline
+// it is 1 and the limit grows by sqrt(limit) per window (probing for more capacity); once
+// requests queue and latency rises it drops below 1 and the limit shrinks in proportion.
+// The new limit is blended in with `smoothing` and kept within [min, max]. Windows where
+// fewer than half the permits were in use do not raise the limit: nothing was learned about
+// what more concurrency would do.
+final class GradientLimit {
+
+    static final double TOLERANCE = 1.5;
+    static final double SMOOTHING = 0.2;
+    static final int LONG_WINDOWS = 100;
+
+    private final int min;
+    private final int max;
+    private final int window;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile int limit;
+    // guarded by lock
+    private double estimate;
+    private double longRtt;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+
+    GradientLimit(int initial, int min, int max, int window) {
+        if (min < 1 || max < min || initial < min || initial > max)
+            throw new IllegalArgumentException("Need 1 <= min <= initial <= max, got " + min + ", " + initial + ", " + max);
+        if (window < 1)
+            throw new IllegalArgumentException("window must be at least 1");
+        this.min = min;
+        this.max = max;
+        this.window = window;
+        this.limit = initial;
+        this.estimate = initial;
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    // rttNanos of a completed request, inFlight when it started
+    void sample(long rttNanos, int inFlight) {
+        lock.lock();
+        try {
+            windowRttSum += rttNanos;
+            windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+            if (++windowSamples < window)
+                return;
+            double shortRtt = (double) windowRttSum / windowSamples;
+            boolean appLimited = windowMaxInFlight < estimate / 2;
+            windowRttSum = 0;
+            windowSamples = 0;
+            windowMaxInFlight = 0;
+            update(shortRtt, appLimited);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(double shortRtt, boolean appLimited) {
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+            return;
+        }
+        longRtt += (shortRtt - longRtt) * (2.0 / (LONG_WINDOWS + 1));
+        // after a long overload the average has drifted up; pull it back towards what is
+        // being measured once the load is gone
+        if (longRtt > 2 * shortRtt)
+            longRtt *= 0.95;
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double target = estimate * gradient + Math.sqrt(estimate);
+        if (appLimited && target > estimate)
+            return;
+        estimate = Math.max(min, Math.min(max, estimate * (1 - SMOOTHING) + target * SMOOTHING));
+        limit = (int) estimate;
+    }
+}
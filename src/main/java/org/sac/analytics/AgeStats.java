@@ -0,0 +1,58 @@
+package org.sac.analytics;
+
+import static org.sac.EmployeeResource.MAX_AGE;
+
+// Mutable IntStream.collect accumulator: one counter per age. Count, min, max and mean are
+// all derived from the histogram afterwards, so accepting an age is a single array increment.
+final class AgeStats {
+
+    final long[] histogram = new long[MAX_AGE + 1];
+
+    void add(int age) {
+        // ages are validated on the way in; clamp rather than fail on anything else
+        histogram[Math.clamp(age, 0, MAX_AGE)]++;
+    }
+
+    void combine(AgeStats other) {
+        for (int age = 0; age <= MAX_AGE; age++)
+            histogram[age] += other.histogram[age];
+    }
+
+    long count() {
+        long count = 0;
+        for (long n : histogram)
+            count += n;
+        return count;
+    }
+
+    long sum() {
+        long sum = 0;
+        for (int age = 0; age <= MAX_AGE; age++)
+            sum += age * histogram[age];
+        return sum;
+    }
+
+    // -1 if empty
+    int min() {
+        for (int age = 0; age <= MAX_AGE; age++)
+            if (histogram[age] > 0)
+                return age;
+        return -1;
+    }
+
+    // -1 if empty
+    int max() {
+        for (int age = MAX_AGE; age >= 0; age--)
+            if (histogram[age] > 0)
+                return age;
+        return -1;
+    }
+
+    // count of ages in [from, to]
+    long count(int from, int to) {
+        long count = 0;
+        for (int age = Math.max(from, 0); age <= Math.min(to, MAX_AGE); age++)
+            count += histogram[age];
+        return count;
+    }
+}
@@ -0,0 +1,55 @@
+package org.sac.analytics;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.sac.store.EmployeeStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import static org.sac.EmployeeResource.MAX_AGE;
+
+// Whole-store statistics, computed on demand with parallel streams over the store's key
+// spliterators (fork/join common pool). Ages go through an IntStream into a per-age
+// histogram and names into an allocation-free prefix table, so nothing is boxed.
+@ApplicationScoped
+public class EmployeeAnalytics {
+
+    public record AgeBucket(int from, int to, long count) {
+    }
+
+    public record PrefixCount(String prefix, long count) {
+    }
+
+    // min/max/mean are null when the store is empty; only non-empty buckets are listed
+    public record Report(long count, Integer minAge, Integer maxAge, Double meanAge,
+                         List<AgeBucket> ageHistogram, List<PrefixCount> topPrefixes) {
+    }
+
+    private final EmployeeStore store;
+
+    @Inject
+    public EmployeeAnalytics(EmployeeStore store) {
+        this.store = store;
+    }
+
+    public Report compute(int bucketWidth, int prefixLength, int top) {
+        AgeStats ages = StreamSupport.intStream(store.ages(), true)
+                .collect(AgeStats::new, AgeStats::add, AgeStats::combine);
+        PrefixCounts prefixes = StreamSupport.stream(store.names(), true)
+                .collect(() -> new PrefixCounts(prefixLength), PrefixCounts::add, PrefixCounts::combine);
+
+        long count = ages.count();
+        List<AgeBucket> buckets = new ArrayList<>();
+        for (int from = 0; from <= MAX_AGE; from += bucketWidth) {
+            int to = Math.min(from + bucketWidth - 1, MAX_AGE);
+            long inBucket = ages.count(from, to);
+            if (inBucket > 0)
+                buckets.add(new AgeBucket(from, to, inBucket));
+        }
+        return count == 0
+                ? new Report(0, null, null, null, buckets, List.of())
+                : new Report(count, ages.min(), ages.max(), (double) ages.sum() / count, buckets, prefixes.top(top));
+    }
+}
@@ -0,0 +1,155 @@
+package org.sac.analytics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Mutable Stream.collect accumulator counting case-insensitive name prefixes of a fixed length.
+// Open addressing over parallel arrays: a prefix is stored as the first name that had it plus
+// the prefix length, so counting a name allocates nothing (no substring, no boxed counter).
+final class PrefixCounts {
+
+    private final int length;
+    private String[] names;
+    private int[] lengths;
+    private long[] counts;
+    private int size;
+
+    PrefixCounts(int length) {
+        this.length = length;
+        allocate(64);
+    }
+
+    private void allocate(int capacity) {
+        names = new String[capacity];
+        lengths = new int[capacity];
+        counts = new long[capacity];
+    }
+
+    void add(String name) {
+        add(name, Math.min(length, name.length()), 1);
+    }
+
+    void combine(PrefixCounts other) {
+        for (int slot = 0; slot < other.names.length; slot++)
+            if (other.names[slot] != null)
+                add(other.names[slot], other.lengths[slot], other.counts[slot]);
+    }
+
+    private void add(String name, int prefixLength, long count) {
+        if (prefixLength == 0)
+            return;
+        int mask = names.length - 1;
+        int slot = hash(name, prefixLength) & mask;
+        while (names[slot] != null) {
+            if (lengths[slot] == prefixLength && sameFolded(names[slot], name, prefixLength)) {
+                counts[slot] += count;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        names[slot] = name;
+        lengths[slot] = prefixLength;
+        counts[slot] = count;
+        if (++size * 2 > names.length)
+            grow();
+    }
+
+    private void grow() {
+        String[] oldNames = names;
+        int[] oldLengths = lengths;
+        long[] oldCounts = counts;
+        allocate(oldNames.length * 2);
+        size = 0;
+        for (int slot = 0; slot < oldNames.length; slot++)
+            if (oldNames[slot] != null)
+                add(oldNames[slot], oldLengths[slot], oldCounts[slot]);
+    }
+
+    private static int hash(String name, int prefixLength) {
+        int hash = 0;
+        for (int i = 0; i < prefixLength; i++)
+            hash = 31 * hash + Character.toLowerCase(name.charAt(i));
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean sameFolded(String a, String b, int prefixLength) {
+        for (int i = 0; i < prefixLength; i++)
+            if (Character.toLowerCase(a.charAt(i)) != Character.toLowerCase(b.charAt(i)))
+                return false;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // the n most frequent prefixes, most frequent first (ties by prefix)
+    List<EmployeeAnalytics.PrefixCount> top(int n) {
+        // min-heap of slots by count, holding the best n seen so far
+        int[] heap = new int[Math.min(n, size)];
+        int heapSize = 0;
+        for (int slot = 0; slot < names.length; slot++) {
+            if (names[slot] == null)
+                continue;
+            if (heapSize < heap.length) {
+                heap[heapSize++] = slot;
+                siftUp(heap, heapSize - 1);
+            } else if (heap.length > 0 && before(slot, heap[0])) {
+                heap[0] = slot;
+                siftDown(heap, heapSize);
+            }
+        }
+        List<EmployeeAnalytics.PrefixCount> top = new ArrayList<>(heapSize);
+        while (heapSize > 0) {
+            int slot = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize);
+            top.add(new EmployeeAnalytics.PrefixCount(prefix(slot), counts[slot]));
+        }
+        return top.reversed();
+    }
+
+    private String prefix(int slot) {
+        return names[slot].substring(0, lengths[slot]).toLowerCase(Locale.ROOT);
+    }
+
+    // true if slot a ranks before slot b: higher count, then smaller prefix
+    private boolean before(int a, int b) {
+        if (counts[a] != counts[b])
+            return counts[a] > counts[b];
+        return prefix(a).compareTo(prefix(b)) < 0;
+    }
+
+    // the heap root is the slot that ranks last
+    private void siftUp(int[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!before(heap[parent], heap[index]))
+                return;
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int heapSize) {
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize)
+                return;
+            if (child + 1 < heapSize && before(heap[child], heap[child + 1]))
+                child++;
+            if (!before(heap[index], heap[child]))
+                return;
+            swap(heap, index, child);
+            index = child;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+}
@@ -0,0 +1,12 @@
+package org.sac.cbor;
+
+// CBOR (RFC 8949) media types. A cbor-seq body is CBOR items back to back (RFC 8742),
+// the binary counterpart of NDJSON.
+public final class CborMediaType {
+
+    public static final String APPLICATION_CBOR = "application/cbor";
+    public static final String APPLICATION_CBOR_SEQ = "application/cbor-seq";
+
+    private CborMediaType() {
+    }
+}
@@ -0,0 +1,111 @@
+package org.sac.cbor;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+
+import java.nio.charset.StandardCharsets;
+
+// Appends CBOR to a Netty buffer, the binary sibling of JsonOutput. Every item starts with
+// a head: major type in the top 3 bits, then the length or value, inline up to 23 and in
+// 1, 2, 4 or 8 following bytes above. Maps and arrays use definite lengths.
+// Codecs write constant parts (map heads, keys) as pre-encoded bytes, see CborOutput.key.
+public final class CborOutput {
+
+    private static final int UNSIGNED = 0;
+    private static final int NEGATIVE = 1;
+    private static final int TEXT = 3;
+    private static final int ARRAY = 4;
+    private static final int MAP = 5;
+    private static final int NULL = 0xF6;
+
+    private final ByteBuf buf;
+
+    public CborOutput(ByteBuf buf) {
+        this.buf = buf;
+    }
+
+    // a text string item for a constant map key
+    public static byte[] key(String constant) {
+        byte[] bytes = constant.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 23)
+            throw new IllegalArgumentException("Key too long for a one byte head: " + constant);
+        byte[] item = new byte[bytes.length + 1];
+        item[0] = (byte) (TEXT << 5 | bytes.length);
+        System.arraycopy(bytes, 0, item, 1, bytes.length);
+        return item;
+    }
+
+    public ByteBuf buffer() {
+        return buf;
+    }
+
+    public CborOutput raw(byte[] bytes) {
+        buf.writeBytes(bytes);
+        return this;
+    }
+
+    public CborOutput map(int entries) {
+        head(MAP, entries);
+        return this;
+    }
+
+    public CborOutput array(int items) {
+        head(ARRAY, items);
+        return this;
+    }
+
+    public CborOutput nil() {
+        buf.writeByte(NULL);
+        return this;
+    }
+
+    public CborOutput string(String value) {
+        if (value == null)
+            return nil();
+        int length = value.length();
+        // ASCII (the common case) is one byte per char, so the head can be written first;
+        // otherwise the UTF-8 length has to be computed
+        int bytes = ascii(value) ? length : ByteBufUtil.utf8Bytes(value);
+        head(TEXT, bytes);
+        if (bytes == length)
+            buf.writeCharSequence(value, StandardCharsets.ISO_8859_1);
+        else
+            ByteBufUtil.writeUtf8(buf, value);
+        return this;
+    }
+
+    private static boolean ascii(String value) {
+        for (int i = 0; i < value.length(); i++)
+            if (value.charAt(i) >= 0x80)
+                return false;
+        return true;
+    }
+
+    public CborOutput number(Integer value) {
+        return value == null ? nil() : number(value.intValue());
+    }
+
+    public CborOutput number(long value) {
+        // negative n is encoded as -1 - n, so the full long range fits
+        if (value >= 0)
+            head(UNSIGNED, value);
+        else
+            head(NEGATIVE, -1 - value);
+        return this;
+    }
+
+    private void head(int major, long value) {
+        int type = major << 5;
+        if (value < 24) {
+            buf.writeByte(type | (int) value);
+        } else if (value < 0x100) {
+            buf.writeByte(type | 24).writeByte((int) value);
+        } else if (value < 0x10000) {
+            buf.writeByte(type | 25).writeShort((int) value);
+        } else if (value < 0x100000000L) {
+            buf.writeByte(type | 26).writeInt((int) value);
+        } else {
+            buf.writeByte(type | 27).writeLong(value);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.sac.cbor;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+// CBOR for every other type (pages, lists, reports) through Jackson databind, so a resource
+// only has to list application/cbor in @Produces. Employee itself goes through the faster
+// EmployeeCborProvider, which is registered for the exact type and wins.
+@Provider
+@Produces(CborMediaType.APPLICATION_CBOR)
+@Consumes(CborMediaType.APPLICATION_CBOR)
+public class CborProvider implements MessageBodyWriter<Object>, MessageBodyReader<Object> {
+
+    // the entity stream belongs to Quarkus REST; unknown properties are ignored like with
+    // Quarkus' JSON ObjectMapper
+    private final ObjectMapper mapper = CBORMapper.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return true;
+    }
+
+    @Override
+    public void writeTo(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        mapper.writerFor(mapper.constructType(genericType != null ? genericType : type)).writeValue(entityStream, value);
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return true;
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                           MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+        try {
+            return mapper.readerFor(mapper.constructType(genericType != null ? genericType : type)).readValue(entityStream);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Invalid CBOR: " + e.getOriginalMessage());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.sac.cbor;
+
+import org.sac.EmployeeResource.Employee;
+
+// {"name": text, "age": int} as a two entry CBOR map, null for missing values like the JSON
+// codec. Reading needs no codec of its own: Jackson's CBOR parser produces the same tokens
+// as its JSON parser, so EmployeeJsonCodec.read handles both.
+public final class EmployeeCborCodec {
+
+    public static final EmployeeCborCodec INSTANCE = new EmployeeCborCodec();
+
+    private static final byte[] NAME = CborOutput.key("name");
+    private static final byte[] AGE = CborOutput.key("age");
+
+    public void write(Employee employee, CborOutput out) {
+        out.map(2)
+                .raw(NAME).string(employee.getName())
+                .raw(AGE).number(employee.getAge());
+    }
+}
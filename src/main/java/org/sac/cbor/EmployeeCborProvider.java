@@ -0,0 +1,27 @@
+package org.sac.cbor;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.netty.buffer.ByteBuf;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.ext.Provider;
+import org.sac.EmployeeResource.Employee;
+import org.sac.json.EmployeeJsonCodec;
+import org.sac.json.JsonCodecProvider;
+
+// CBOR for EmployeeResource.Employee without reflective binding: written by
+// EmployeeCborCodec, read by EmployeeJsonCodec from Jackson's CBOR parser
+@Provider
+@Produces(CborMediaType.APPLICATION_CBOR)
+@Consumes(CborMediaType.APPLICATION_CBOR)
+public class EmployeeCborProvider extends JsonCodecProvider<Employee> {
+
+    public EmployeeCborProvider() {
+        super(Employee.class, EmployeeJsonCodec.INSTANCE, new CBORFactory(), "CBOR");
+    }
+
+    @Override
+    protected void encode(Employee employee, ByteBuf buf) {
+        EmployeeCborCodec.INSTANCE.write(employee, new CborOutput(buf));
+    }
+}
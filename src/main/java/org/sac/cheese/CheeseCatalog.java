@@ -0,0 +1,107 @@
+package org.sac.cheese;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.Startup;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Immutable cheese catalog, loaded once at startup from cheeses.txt (name=description).
+// Lookups return null on a miss instead of throwing, so unknown names cost a map probe
+// or a short trie walk and nothing else.
+@Startup
+@ApplicationScoped
+public class CheeseCatalog {
+
+    static final String RESOURCE = "cheeses.txt";
+
+    private final Map<String, String> descriptionsByName;
+    // parallel arrays sorted by lower-case name, indexed by the trie
+    private final String[] names;
+    private final String[] descriptions;
+    private final CheeseTrie trie;
+
+    public CheeseCatalog() {
+        this(load());
+    }
+
+    CheeseCatalog(Map<String, String> catalog) {
+        descriptionsByName = Map.copyOf(catalog);
+
+        // one entry per lower-case name, the first one in name order wins
+        List<String> sorted = new ArrayList<>(catalog.keySet());
+        sorted.sort(Comparator.comparing(CheeseCatalog::fold).thenComparing(Comparator.naturalOrder()));
+        List<String> keys = new ArrayList<>(sorted.size());
+        List<String> canonical = new ArrayList<>(sorted.size());
+        for (String name : sorted) {
+            String key = fold(name);
+            if (keys.isEmpty() || !keys.get(keys.size() - 1).equals(key)) {
+                keys.add(key);
+                canonical.add(name);
+            }
+        }
+        names = canonical.toArray(String[]::new);
+        descriptions = canonical.stream().map(catalog::get).toArray(String[]::new);
+        trie = new CheeseTrie(keys.toArray(String[]::new));
+        Log.debugf("Loaded %d cheeses", names.length);
+    }
+
+    // exact (case-sensitive) lookup, null if unknown
+    public String find(String name) {
+        return descriptionsByName.get(name);
+    }
+
+    // case-insensitive lookup, null if unknown
+    public String findIgnoreCase(String name) {
+        int index = trie.indexOf(fold(name));
+        return index >= 0 ? descriptions[index] : null;
+    }
+
+    // up to limit cheese names starting with prefix (case-insensitive), in alphabetical order
+    public List<String> suggest(String prefix, int limit) {
+        int[] indexes = trie.prefixRange(fold(prefix), limit);
+        List<String> result = new ArrayList<>(indexes.length);
+        for (int index : indexes)
+            result.add(names[index]);
+        return result;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<String, String> load() {
+        InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream(RESOURCE);
+        if (in == null)
+            throw new IllegalStateException("Missing " + RESOURCE);
+        Map<String, String> catalog = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                int separator = line.indexOf('=');
+                if (line.isEmpty() || line.startsWith("#") || separator <= 0)
+                    continue;
+                catalog.putIfAbsent(line.substring(0, separator).strip(), line.substring(separator + 1).strip());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return catalog;
+    }
+}
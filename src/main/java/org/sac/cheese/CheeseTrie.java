@@ -0,0 +1,117 @@
+package org.sac.cheese;
+
+import java.util.Arrays;
+
+// Immutable character trie over a sorted array of keys, stored in flat arrays.
+// Keys are sorted, so the keys below any node form a contiguous range of the key array:
+// a node only stores that range, and a prefix query is a walk down the trie plus a slice.
+final class CheeseTrie {
+
+    private final String[] keys;
+
+    // per node: [rangeStart, rangeEnd) into keys, and the slice of edges leaving the node
+    private final int[] rangeStart;
+    private final int[] rangeEnd;
+    private final int[] edgeStart;
+    private final int[] edgeCount;
+    // per edge, sorted by label within a node
+    private final char[] edgeLabel;
+    private final int[] edgeTarget;
+
+    private int nodes;
+    private int edges;
+
+    // keys must be sorted and distinct
+    CheeseTrie(String[] sortedKeys) {
+        this.keys = sortedKeys;
+        // a trie over n keys has at most (total characters + 1) nodes
+        int capacity = 1;
+        for (String key : sortedKeys)
+            capacity += key.length();
+        rangeStart = new int[capacity];
+        rangeEnd = new int[capacity];
+        edgeStart = new int[capacity];
+        edgeCount = new int[capacity];
+        edgeLabel = new char[capacity];
+        edgeTarget = new int[capacity];
+        build(newNode(0, keys.length), 0);
+    }
+
+    private int newNode(int from, int to) {
+        int node = nodes++;
+        rangeStart[node] = from;
+        rangeEnd[node] = to;
+        return node;
+    }
+
+    private void build(int node, int depth) {
+        int from = rangeStart[node];
+        int to = rangeEnd[node];
+        // a key that ends at this node sorts first in the range
+        if (from < to && keys[from].length() == depth)
+            from++;
+        // reserve this node's edges contiguously, then recurse into each child
+        int firstEdge = edges;
+        int count = 0;
+        for (int i = from; i < to; ) {
+            char label = keys[i].charAt(depth);
+            int end = i + 1;
+            while (end < to && keys[end].charAt(depth) == label)
+                end++;
+            edgeLabel[edges] = label;
+            edgeTarget[edges] = newNode(i, end);
+            edges++;
+            count++;
+            i = end;
+        }
+        edgeStart[node] = firstEdge;
+        edgeCount[node] = count;
+        for (int e = firstEdge; e < firstEdge + count; e++)
+            build(edgeTarget[e], depth + 1);
+    }
+
+    // node reached by walking the prefix, or -1
+    private int walk(CharSequence prefix) {
+        int node = 0;
+        for (int i = 0; i < prefix.length() && node >= 0; i++)
+            node = child(node, prefix.charAt(i));
+        return node;
+    }
+
+    private int child(int node, char label) {
+        int low = edgeStart[node];
+        int high = low + edgeCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midLabel = edgeLabel[mid];
+            if (midLabel < label)
+                low = mid + 1;
+            else if (midLabel > label)
+                high = mid - 1;
+            else
+                return edgeTarget[mid];
+        }
+        return -1;
+    }
+
+    // index of the key in the sorted key array, or -1
+    int indexOf(CharSequence key) {
+        int node = walk(key);
+        if (node < 0)
+            return -1;
+        int first = rangeStart[node];
+        return first < rangeEnd[node] && keys[first].length() == key.length() ? first : -1;
+    }
+
+    // indexes of up to limit keys starting with prefix, in key order
+    int[] prefixRange(CharSequence prefix, int limit) {
+        int node = walk(prefix);
+        if (node < 0)
+            return new int[0];
+        int from = rangeStart[node];
+        int to = Math.min(rangeEnd[node], from + limit);
+        int[] range = new int[to - from];
+        Arrays.setAll(range, i -> from + i);
+        return range;
+    }
+}
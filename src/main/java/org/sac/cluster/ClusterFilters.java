@@ -0,0 +1,26 @@
+package org.sac.cluster;
+
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.net.SocketAddress;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+
+// Removes EmployeeCluster.LOCAL_HEADER from requests that do not come from a peer, before the
+// endpoint reads it: a client cannot ask a node to skip routing. Not sharded, it is always
+// removed. Requests without the header cost one header lookup.
+class ClusterFilters {
+
+    @Inject
+    EmployeeCluster cluster;
+
+    @ServerRequestFilter(preMatching = true)
+    public void trustLocalHeader(ContainerRequestContext request, HttpServerRequest vertxRequest) {
+        if (request.getHeaderString(EmployeeCluster.LOCAL_HEADER) == null)
+            return;
+        SocketAddress remote = vertxRequest.remoteAddress();
+        if (!cluster.fromPeer(remote != null ? remote.hostAddress() : null,
+                request.getHeaderString(EmployeeCluster.SECRET_HEADER)))
+            request.getHeaders().remove(EmployeeCluster.LOCAL_HEADER);
+    }
+}
@@ -0,0 +1,228 @@
+package org.sac.cluster;
+
+import io.quarkus.logging.Log;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Vertx;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.sac.EmployeeResource;
+import org.sac.EmployeeResource.Employee;
+import org.sac.store.EmployeeStore;
+import org.sac.store.EmployeeStore.AgeKey;
+import org.sac.store.EmployeeStore.Page;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Sharded mode: the employees are spread over several instances by a consistent hash of the
+// name (HashRing). Every instance is configured with the same node list and its own address:
+//   cluster.nodes=http://localhost:8081,http://localhost:8082,http://localhost:8083
+//   cluster.self=http://localhost:8082
+// A request for a name another node owns is forwarded to it (PeerClient); range queries and
+// the streaming list ask every node and merge the results in (age, name) order. Without
+// cluster.nodes the instance keeps everything in its own store, as before.
+// Analytics stay per node: /analytics describes the shard of the node that is asked.
+// LOCAL_HEADER is only honoured on requests from a node's address (resolved at startup) and,
+// with cluster.secret, carrying the secret in SECRET_HEADER (ClusterFilters); otherwise it is
+// removed, so a client cannot make a node answer for names it does not own.
+@ApplicationScoped
+public class EmployeeCluster {
+
+    // set on requests between nodes: answer from the local store, do not route again
+    public static final String LOCAL_HEADER = "X-Shard-Local";
+    // sent with LOCAL_HEADER when cluster.secret is set
+    static final String SECRET_HEADER = "X-Shard-Secret";
+
+    // page size when the streaming endpoints walk the whole cluster
+    static final int STREAM_PAGE_SIZE = 500;
+
+    @Inject
+    EmployeeStore store;
+
+    private final String self;
+    private final HashRing ring;
+    private final PeerClient peers;
+    // IP addresses of the nodes, and the secret a peer request must carry (null: none)
+    private final Set<String> peerAddresses;
+    private final byte[] secret;
+
+    @Inject
+    public EmployeeCluster(@ConfigProperty(name = "cluster.nodes") Optional<List<String>> nodes,
+                           @ConfigProperty(name = "cluster.self") Optional<String> self,
+                           @ConfigProperty(name = "cluster.virtual-nodes", defaultValue = "128") int virtualNodes,
+                           @ConfigProperty(name = "cluster.client.pool-size", defaultValue = "32") int poolSize,
+                           @ConfigProperty(name = "cluster.client.timeout", defaultValue = "5s") Duration timeout,
+                           @ConfigProperty(name = "cluster.secret") Optional<String> secret,
+                           Vertx vertx) {
+        if (nodes.isEmpty() || nodes.get().size() < 2) {
+            this.self = null;
+            this.ring = null;
+            this.peers = null;
+            this.peerAddresses = Set.of();
+            this.secret = null;
+            return;
+        }
+        List<String> normalized = nodes.get().stream().map(EmployeeCluster::normalize).toList();
+        this.self = normalize(self.orElseThrow(() -> new IllegalStateException("cluster.nodes is set but cluster.self is not")));
+        if (!normalized.contains(this.self))
+            throw new IllegalStateException("cluster.self " + this.self + " is not one of cluster.nodes " + normalized);
+        this.ring = new HashRing(normalized, virtualNodes);
+        this.peers = new PeerClient(vertx, poolSize, timeout, secret.orElse(null));
+        this.peerAddresses = resolve(normalized);
+        this.secret = secret.map(s -> s.getBytes(StandardCharsets.UTF_8)).orElse(null);
+        Log.infof("Sharded mode: %s of %s", this.self, normalized);
+    }
+
+    private static String normalize(String node) {
+        String trimmed = node.strip();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    private static Set<String> resolve(List<String> nodes) {
+        Set<String> addresses = new HashSet<>();
+        for (String node : nodes) {
+            String host = URI.create(node).getHost();
+            try {
+                for (InetAddress address : InetAddress.getAllByName(host))
+                    addresses.add(address.getHostAddress());
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException("Cannot resolve cluster node " + node, e);
+            }
+        }
+        return Set.copyOf(addresses);
+    }
+
+    public boolean enabled() {
+        return ring != null;
+    }
+
+    // whether a request from remoteAddress with this SECRET_HEADER value comes from a peer
+    boolean fromPeer(String remoteAddress, String secretHeader) {
+        if (ring == null || remoteAddress == null || !peerAddresses.contains(remoteAddress))
+            return false;
+        return secret == null || secretHeader != null
+                && MessageDigest.isEqual(secret, secretHeader.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // the node to forward to, or null when this node answers: not sharded, the request was
+    // already routed by a peer (local), or the name is ours
+    public String remoteOwner(String name, boolean local) {
+        if (ring == null || local)
+            return null;
+        String owner = ring.owner(name);
+        return owner.equals(self) ? null : owner;
+    }
+
+    public Uni<Employee> get(String node, String name) {
+        return peers.get(node, name);
+    }
+
+    // see PeerClient.getAll
+    public Uni<Map<String, Employee>> getAll(String node, Collection<String> names) {
+        return peers.getAll(node, names);
+    }
+
+    public Uni<Employee> put(String node, Employee employee) {
+        return peers.put(node, employee);
+    }
+
+    public Uni<Boolean> remove(String node, String name) {
+        return peers.remove(node, name);
+    }
+
+    // Every node returns up to limit employees after the cursor; the first limit of the merged
+    // pages are the global answer, and their last key is the next cursor for all nodes alike.
+    // localPage is this node's part, run the way the resource runs its store calls.
+    public Uni<Page> page(int minAge, int maxAge, AgeKey after, int limit, Uni<Page> localPage) {
+        List<Uni<Page>> parts = new ArrayList<>(ring.nodes().size());
+        for (String node : ring.nodes())
+            parts.add(node.equals(self) ? localPage : peers.page(node, minAge, maxAge, after, limit));
+        return Uni.join().all(parts).andFailFast()
+                .map(pages -> merge(pages, limit));
+    }
+
+    static Page merge(List<Page> pages, int limit) {
+        // k-way merge: one cursor per page, ordered by the key of its next item
+        record Head(Page page, int index) {
+            AgeKey key() {
+                return AgeKey.of(page.items().get(index));
+            }
+        }
+        PriorityQueue<Head> heads = new PriorityQueue<>((a, b) -> a.key().compareTo(b.key()));
+        boolean more = false;
+        for (Page page : pages) {
+            if (!page.items().isEmpty())
+                heads.add(new Head(page, 0));
+            more |= page.hasMore();
+        }
+        List<Employee> items = new ArrayList<>(Math.min(limit, pages.size() * limit));
+        while (items.size() < limit && !heads.isEmpty()) {
+            Head head = heads.poll();
+            items.add(head.page().items().get(head.index()));
+            if (head.index() + 1 < head.page().items().size())
+                heads.add(new Head(head.page(), head.index() + 1));
+        }
+        more |= !heads.isEmpty();
+        AgeKey last = items.isEmpty() ? null : AgeKey.of(items.getLast());
+        return new Page(items, last, more);
+    }
+
+    // the whole cluster in (age, name) order, one merged page at a time as the subscriber
+    // requests more
+    public Multi<Employee> all() {
+        return Multi.createBy().repeating()
+                .uni(() -> new AgeKey[1], after -> page(0, EmployeeResource.MAX_AGE, after[0], STREAM_PAGE_SIZE,
+                        Uni.createFrom().item(() -> store.page(0, EmployeeResource.MAX_AGE, after[0], STREAM_PAGE_SIZE)))
+                        .invoke(page -> after[0] = page.last()))
+                .whilst(Page::hasMore)
+                .onItem().transformToIterable(Page::items);
+    }
+
+    // Blocking, for the bulk loader: the local part goes into the store, the rest to the
+    // owning nodes in parallel
+    public void putAll(List<Employee> employees) {
+        Map<String, List<Employee>> byOwner = new HashMap<>();
+        for (Employee employee : employees)
+            byOwner.computeIfAbsent(ring.owner(employee.getName()), node -> new ArrayList<>()).add(employee);
+        // sent before the local part is stored, so both overlap
+        List<Uni<Void>> remote = new ArrayList<>();
+        byOwner.forEach((node, part) -> {
+            if (!node.equals(self))
+                remote.add(peers.putAll(node, part));
+        });
+        CompletableFuture<List<Void>> sent = remote.isEmpty() ? CompletableFuture.completedFuture(List.of())
+                : Uni.join().all(remote).andFailFast().subscribeAsCompletionStage();
+        List<Employee> local = byOwner.get(self);
+        if (local != null)
+            store.putAll(local);
+        try {
+            sent.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        if (peers != null)
+            peers.close();
+    }
+}
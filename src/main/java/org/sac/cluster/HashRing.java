@@ -0,0 +1,73 @@
+package org.sac.cluster;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Consistent hashing of employee names onto nodes. Each node sits on the ring at
+// virtualNodes pseudo-random points; a name belongs to the first point at or after its own
+// hash. With enough points per node the names spread evenly, and adding or removing a node
+// only moves the names in the ranges it gains or loses (about 1/n of them), not a full
+// reshuffle like hash % n.
+// Immutable; the ring is two sorted arrays and a lookup is a binary search.
+public final class HashRing {
+
+    private final List<String> nodes;
+    private final long[] points;
+    private final int[] owners;   // index into nodes, per point
+
+    public HashRing(List<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty())
+            throw new IllegalArgumentException("A ring needs at least one node");
+        if (virtualNodes < 1)
+            throw new IllegalArgumentException("virtualNodes must be at least 1");
+        if (nodes.stream().distinct().count() != nodes.size())
+            throw new IllegalArgumentException("Duplicate node in " + nodes);
+        this.nodes = List.copyOf(nodes);
+
+        int size = nodes.size() * virtualNodes;
+        long[] hashes = new long[size];
+        for (int node = 0, i = 0; node < nodes.size(); node++) {
+            for (int v = 0; v < virtualNodes; v++, i++)
+                hashes[i] = hash(nodes.get(node) + "#" + v);
+        }
+        // sort the points and carry their owners along
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+        points = new long[size];
+        owners = new int[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = hashes[order[i]];
+            owners[i] = order[i] / virtualNodes;
+        }
+    }
+
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    public String owner(String key) {
+        int i = Arrays.binarySearch(points, hash(key));
+        if (i < 0)
+            i = -i - 1;
+        // past the last point wraps around to the first
+        return nodes.get(owners[i == points.length ? 0 : i]);
+    }
+
+    // FNV-1a over the UTF-16 chars, then the murmur3 finalizer: FNV alone leaves short keys
+    // that differ in their last char close together on the ring
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,255 @@
+package org.sac.cluster;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.PoolOptions;
+import io.vertx.core.http.RequestOptions;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.core.MediaType;
+import org.jboss.resteasy.reactive.common.util.RestMediaType;
+import org.sac.EmployeeResource.Employee;
+import org.sac.cbor.CborMediaType;
+import org.sac.cbor.CborOutput;
+import org.sac.cbor.EmployeeCborCodec;
+import org.sac.json.EmployeeJsonCodec;
+import org.sac.json.JsonOutput;
+import org.sac.store.EmployeeStore.AgeKey;
+import org.sac.store.EmployeeStore.Page;
+import org.sac.store.PageCursor;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Calls the employee endpoints of another node, marked with EmployeeCluster.LOCAL_HEADER (and
+// the cluster secret, if any) so the peer answers from its own store. One Vert.x client with a keep-alive connection pool
+// per peer; requests are non-blocking and pipelined onto pooled connections as they free up.
+// Employees travel as CBOR (see org.sac.cbor), cheaper to encode and parse than JSON.
+// A peer that cannot be reached or answers with an unexpected status fails the call with a
+// ServiceUnavailableException (503 to the client).
+final class PeerClient implements AutoCloseable {
+
+    private static final String BASE_PATH = "/api/employee";
+    private static final String ACCEPT_EMPLOYEES = CborMediaType.APPLICATION_CBOR + ", " + MediaType.APPLICATION_JSON + ";q=0.5";
+
+    private final HttpClient client;
+    private final long timeoutMillis;
+    private final String secret;
+    private final CBORFactory cbor = new CBORFactory();
+    private final JsonFactory json = new JsonFactory();
+
+    PeerClient(Vertx vertx, int poolSize, Duration timeout, String secret) {
+        this.timeoutMillis = timeout.toMillis();
+        this.secret = secret;
+        this.client = vertx.createHttpClient(
+                new HttpClientOptions().setKeepAlive(true).setTcpNoDelay(true)
+                        .setConnectTimeout((int) Math.min(Integer.MAX_VALUE, timeoutMillis)),
+                new PoolOptions().setHttp1MaxSize(poolSize));
+    }
+
+    // null when the peer does not know the name
+    Uni<Employee> get(String node, String name) {
+        return call(node, HttpMethod.GET, "/employees/" + encodePath(name), null, null, response -> switch (response.status) {
+            case 200 -> readEmployee(response.body);
+            case 404 -> null;
+            default -> throw unexpected(node, response.status);
+        });
+    }
+
+    // one batch lookup for all names; the result maps each name the peer answered for to its
+    // employee, or to null when the peer does not know it
+    Uni<Map<String, Employee>> getAll(String node, Collection<String> names) {
+        ByteBuf buf = Unpooled.buffer(names.size() * 16 + 2);
+        JsonOutput out = new JsonOutput(buf).raw('[');
+        boolean first = true;
+        for (String name : names) {
+            if (!first)
+                out.raw(',');
+            out.string(name);
+            first = false;
+        }
+        out.raw(']');
+        return call(node, HttpMethod.POST, "/employees/lookup", MediaType.APPLICATION_JSON, RestMediaType.APPLICATION_NDJSON,
+                Buffer.buffer(buf), response -> {
+                    if (response.status != 200)
+                        throw unexpected(node, response.status);
+                    return readLookup(response.body);
+                });
+    }
+
+    Uni<Employee> put(String node, Employee employee) {
+        ByteBuf buf = Unpooled.buffer(32);
+        EmployeeCborCodec.INSTANCE.write(employee, new CborOutput(buf));
+        return call(node, HttpMethod.POST, "/employee", CborMediaType.APPLICATION_CBOR, Buffer.buffer(buf), response -> {
+            if (response.status != 200)
+                throw unexpected(node, response.status);
+            return readEmployee(response.body);
+        });
+    }
+
+    Uni<Boolean> remove(String node, String name) {
+        return call(node, HttpMethod.DELETE, "/employees/" + encodePath(name), null, null, response -> switch (response.status) {
+            case 204 -> true;
+            case 404 -> false;
+            default -> throw unexpected(node, response.status);
+        });
+    }
+
+    Uni<Page> page(String node, int minAge, int maxAge, AgeKey after, int limit) {
+        String query = "/employees?minAge=" + minAge + "&maxAge=" + maxAge + "&limit=" + limit
+                + (after != null ? "&cursor=" + PageCursor.encode(after) : "");
+        return call(node, HttpMethod.GET, query, null, null, response -> {
+            if (response.status != 200)
+                throw unexpected(node, response.status);
+            return readPage(response.body);
+        });
+    }
+
+    // NDJSON to the bulk endpoint
+    Uni<Void> putAll(String node, List<Employee> employees) {
+        ByteBuf buf = Unpooled.buffer(employees.size() * EmployeeJsonCodec.INSTANCE.sizeHint());
+        JsonOutput out = new JsonOutput(buf);
+        for (Employee employee : employees) {
+            EmployeeJsonCodec.INSTANCE.write(employee, out);
+            out.raw('\n');
+        }
+        return call(node, HttpMethod.POST, "/employees/bulk", RestMediaType.APPLICATION_NDJSON, Buffer.buffer(buf), response -> {
+            if (response.status != 200)
+                throw unexpected(node, response.status);
+            return null;
+        });
+    }
+
+    private record Response(int status, Buffer body) {
+    }
+
+    private <T> Uni<T> call(String node, HttpMethod method, String path, String contentType, Buffer body,
+                            Function<Response, T> handler) {
+        return call(node, method, path, contentType, ACCEPT_EMPLOYEES, body, handler);
+    }
+
+    private <T> Uni<T> call(String node, HttpMethod method, String path, String contentType, String accept, Buffer body,
+                            Function<Response, T> handler) {
+        URI base = URI.create(node);
+        RequestOptions options = new RequestOptions()
+                .setMethod(method)
+                .setHost(base.getHost())
+                .setPort(base.getPort())
+                .setURI(BASE_PATH + path)
+                .setIdleTimeout(timeoutMillis)
+                .putHeader(EmployeeCluster.LOCAL_HEADER, "true")
+                .putHeader(HttpHeaders.ACCEPT, accept);
+        if (secret != null)
+            options.putHeader(EmployeeCluster.SECRET_HEADER, secret);
+        if (contentType != null)
+            options.putHeader(HttpHeaders.CONTENT_TYPE, contentType);
+        // sent on subscription, not here, so callers can bound how many calls are in flight
+        return Uni.createFrom().completionStage(() -> client.request(options)
+                        .compose(request -> body != null ? request.send(body) : request.send())
+                        .compose((HttpClientResponse r) -> r.body().map(b -> new Response(r.statusCode(), b)))
+                        .toCompletionStage())
+                .onFailure(e -> !(e instanceof ServiceUnavailableException))
+                .transform(e -> new ServiceUnavailableException("Shard " + node + " unavailable: " + e.getMessage()))
+                .map(handler);
+    }
+
+    private Employee readEmployee(Buffer body) {
+        try (JsonParser parser = cbor.createParser(body.getBytes())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                throw new IOException("Expected an employee");
+            return EmployeeJsonCodec.INSTANCE.read(parser);
+        } catch (IOException e) {
+            throw new ServiceUnavailableException("Invalid employee from shard: " + e.getMessage());
+        }
+    }
+
+    // {"items": [employee...], "next": cursor or null}, as EmployeeResource.EmployeePage
+    private Page readPage(Buffer body) {
+        List<Employee> items = new ArrayList<>();
+        String next = null;
+        try (JsonParser parser = cbor.createParser(body.getBytes())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                throw new IOException("Expected a page");
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("items".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT)
+                        items.add(EmployeeJsonCodec.INSTANCE.read(parser));
+                } else if ("next".equals(field)) {
+                    next = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new ServiceUnavailableException("Invalid page from shard: " + e.getMessage());
+        }
+        AgeKey last = items.isEmpty() ? null : AgeKey.of(items.getLast());
+        return new Page(items, last, next != null);
+    }
+
+    // NDJSON lines as org.sac.lookup.LookupResult writes them; a name with another status
+    // than found or not found is left out
+    private Map<String, Employee> readLookup(Buffer body) {
+        Map<String, Employee> employees = new HashMap<>();
+        try (JsonParser parser = json.createParser(body.getBytes())) {
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                String name = null;
+                int status = 0;
+                Employee employee = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if ("name".equals(field)) {
+                        name = parser.getText();
+                    } else if ("status".equals(field)) {
+                        status = parser.getIntValue();
+                    } else if ("employee".equals(field) && value == JsonToken.START_OBJECT) {
+                        employee = EmployeeJsonCodec.INSTANCE.read(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                if (name != null && (status == 200 && employee != null || status == 404))
+                    employees.put(name, employee);
+            }
+        } catch (IOException e) {
+            throw new ServiceUnavailableException("Invalid lookup from shard: " + e.getMessage());
+        }
+        return employees;
+    }
+
+    private static ServiceUnavailableException unexpected(String node, int status) {
+        return new ServiceUnavailableException("Shard " + node + " answered " + status);
+    }
+
+    private static String encodePath(String segment) {
+        return URLEncoder.encode(segment, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+}
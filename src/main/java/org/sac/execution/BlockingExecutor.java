@@ -0,0 +1,83 @@
+package org.sac.execution;
+
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.sac.mutiny.PipelineProfiler;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+// Runs handler work on the executor selected by configuration, per resource or per method:
+//   execution.mode.default=worker
+//   execution.mode.EmployeeResource=virtual-thread
+//   execution.mode.EmployeeResource.searchCheese=event-loop
+// The most specific key wins. Handlers return Uni, so Quarkus REST calls them on the
+// event loop and the work is then moved to the selected executor (or run inline).
+@ApplicationScoped
+public class BlockingExecutor {
+
+    static final String PREFIX = "execution.mode.";
+
+    private final Map<String, ExecutionMode> modes = new ConcurrentHashMap<>();
+    private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Inject
+    PipelineProfiler profiler;
+
+    // key is "Resource.method", also the name of its pipeline profile: "dispatch" is the time
+    // to get onto the selected executor, "work" the handler itself
+    public <T> Uni<T> run(String key, Supplier<T> work) {
+        ExecutionMode mode = modeOf(key);
+        return profiler.pipeline(key).uni(trace -> {
+            Runnable dispatched = trace.stage("dispatch");
+            Uni<T> uni = Uni.createFrom().item(() -> {
+                dispatched.run();
+                return work.get();
+            }).onItem().invoke(trace.stage("work"));
+            return switch (mode) {
+                case EVENT_LOOP -> uni;
+                case WORKER -> uni.runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+                case VIRTUAL_THREAD -> uni.runSubscriptionOn(virtualThreads);
+            };
+        });
+    }
+
+    public ExecutionMode modeOf(String key) {
+        ExecutionMode mode = modes.get(key);
+        return mode != null ? mode : modes.computeIfAbsent(key, BlockingExecutor::resolve);
+    }
+
+    private static ExecutionMode resolve(String key) {
+        Config config = ConfigProvider.getConfig();
+        // "Resource.method", then "Resource", then "default"
+        String candidate = key;
+        while (true) {
+            var value = config.getOptionalValue(PREFIX + candidate, String.class);
+            if (value.isPresent())
+                return parse(value.get());
+            int dot = candidate.lastIndexOf('.');
+            if (dot < 0)
+                break;
+            candidate = candidate.substring(0, dot);
+        }
+        return parse(config.getOptionalValue(PREFIX + "default", String.class).orElse("worker"));
+    }
+
+    static ExecutionMode parse(String value) {
+        return ExecutionMode.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        virtualThreads.shutdown();
+    }
+}
@@ -0,0 +1,19 @@
+package org.sac.execution;
+
+import jakarta.inject.Inject;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.jboss.resteasy.reactive.server.SimpleResourceInfo;
+
+// Remembers the endpoint of the last request dispatched on each event loop, the one a stall
+// is blamed on (EventLoopWatchdog). Blocking endpoints are filtered on a worker and leave it alone.
+class EventLoopFilters {
+
+    @Inject
+    EventLoopWatchdog watchdog;
+
+    @ServerRequestFilter
+    public void dispatched(SimpleResourceInfo resourceInfo) {
+        if (resourceInfo != null)
+            watchdog.dispatched(resourceInfo);
+    }
+}
@@ -0,0 +1,252 @@
+package org.sac.execution;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.Startup;
+import io.vertx.core.Vertx;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.server.SimpleResourceInfo;
+import org.sac.metrics.LatencyHistogram;
+import org.sac.metrics.Prometheus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Finds event loops that do not get to new tasks in time, usually because of a blocking call
+// in a handler that runs on the event loop (see the delayIt() comment in UniPipeline).
+// Every threshold/2 a watchdog thread posts a no-op probe to each Vert.x event loop; how long
+// the probe waits is the loop's task latency (event_loop_delay_seconds). A probe still
+// waiting after threshold is a stall: the watchdog samples the loop thread's stack every
+// sample-interval until the probe runs, then records the stall with the endpoint of the last
+// request dispatched on that loop (EventLoopFilters) and its stacks grouped and counted.
+// Stalls of 1.5 x threshold and more are always seen, shorter ones may be.
+// A long queue of short tasks is a stall too; its samples then show varying stacks.
+//   eventloop.stall.threshold=100ms
+//   eventloop.stall.sample-interval=20ms
+// Stalls are logged, counted per endpoint and the latest ones listed at /api/metrics/stalls.
+// Without stalls the cost is a probe per loop and a watchdog wake-up per threshold/2, and a
+// volatile write per request; stacks are only taken while a loop is stalled.
+// Vert.x's own blocked thread checker (quarkus.vertx.max-event-loop-execute-time, 2s) only
+// logs, and much later.
+@Startup
+@ApplicationScoped
+public class EventLoopWatchdog {
+
+    // frames kept per sample, innermost first
+    static final int MAX_FRAMES = 32;
+    static final String UNKNOWN_ENDPOINT = "unknown";
+
+    // the Loop of the current event loop thread, null on other threads
+    private static final ThreadLocal<Loop> CURRENT = new ThreadLocal<>();
+
+    // One event loop. The probe (run) is its only code on the loop; everything else is
+    // the watchdog thread's.
+    static final class Loop implements Runnable {
+        final EventExecutor executor;
+        final String name;
+        final LatencyHistogram delay = new LatencyHistogram();
+        volatile Thread thread;           // known after the first probe ran
+        volatile long postedAt;           // 0: no probe waiting
+        long lastPostedAt;                // watchdog thread only
+        volatile long lastDelay;
+        volatile SimpleResourceInfo endpoint;
+
+        // watchdog thread only: the stall in progress
+        Instant stallStarted;
+        SimpleResourceInfo stallEndpoint;
+        Map<List<StackTraceElement>, Integer> samples;
+        int sampleCount;
+
+        Loop(EventExecutor executor, String name) {
+            this.executor = executor;
+            this.name = name;
+        }
+
+        @Override
+        public void run() {
+            long waited = System.nanoTime() - postedAt;
+            if (thread == null) {
+                thread = Thread.currentThread();
+                CURRENT.set(this);
+            }
+            delay.record(waited);
+            lastDelay = waited;
+            postedAt = 0;
+        }
+    }
+
+    private final Vertx vertx;
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final long probeIntervalNanos;
+    private final long sampleIntervalNanos;
+    private final int maxSamples;
+    private final int history;
+
+    private final List<Loop> loops = new ArrayList<>();
+    private final ArrayDeque<Stall> recent = new ArrayDeque<>();   // guarded by itself
+    private final Map<String, LongAdder> stalls = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> stallNanos = new ConcurrentHashMap<>();
+    private ScheduledExecutorService watchdog;
+
+    @Inject
+    public EventLoopWatchdog(Vertx vertx,
+                             @ConfigProperty(name = "eventloop.stall.enabled", defaultValue = "true") boolean enabled,
+                             @ConfigProperty(name = "eventloop.stall.threshold", defaultValue = "100ms") Duration threshold,
+                             @ConfigProperty(name = "eventloop.stall.sample-interval", defaultValue = "20ms") Duration sampleInterval,
+                             @ConfigProperty(name = "eventloop.stall.max-samples", defaultValue = "100") int maxSamples,
+                             @ConfigProperty(name = "eventloop.stall.history", defaultValue = "32") int history) {
+        if (sampleInterval.isZero() || sampleInterval.isNegative() || threshold.compareTo(sampleInterval) < 0)
+            throw new IllegalArgumentException("eventloop.stall.sample-interval must be positive and at most the threshold");
+        this.vertx = vertx;
+        this.enabled = enabled;
+        this.thresholdNanos = threshold.toNanos();
+        this.probeIntervalNanos = thresholdNanos / 2;
+        this.sampleIntervalNanos = sampleInterval.toNanos();
+        this.maxSamples = maxSamples;
+        this.history = history;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled)
+            return;
+        for (EventExecutor executor : vertx.nettyEventLoopGroup())
+            loops.add(new Loop(executor, "loop-" + loops.size()));
+        watchdog = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("event-loop-watchdog").factory());
+        watchdog.execute(this::check);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (watchdog != null)
+            watchdog.shutdownNow();
+    }
+
+    // called on every request (EventLoopFilters); only event loop threads have a Loop
+    void dispatched(SimpleResourceInfo resourceInfo) {
+        Loop loop = CURRENT.get();
+        if (loop != null)
+            loop.endpoint = resourceInfo;
+    }
+
+    // runs again when the first loop needs attention: a probe is due, may have become a
+    // stall, or a stalled loop is due for its next sample
+    private void check() {
+        long next = probeIntervalNanos;
+        try {
+            for (Loop loop : loops)
+                next = Math.min(next, check(loop));
+        } catch (RuntimeException e) {
+            Log.warn("Event loop watchdog check failed", e);
+        }
+        try {
+            watchdog.schedule((Runnable) this::check, next, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // stopped
+        }
+    }
+
+    // nanoseconds until this loop needs the next check
+    private long check(Loop loop) {
+        long postedAt = loop.postedAt;
+        long now = System.nanoTime();
+        if (postedAt == 0) {
+            if (loop.samples != null)
+                record(loop);
+            long due = loop.lastPostedAt + probeIntervalNanos - now;
+            if (loop.lastPostedAt != 0 && due > 0)
+                return due;
+            loop.lastPostedAt = now;
+            loop.postedAt = now;
+            loop.executor.execute(loop);
+            return probeIntervalNanos;
+        }
+        if (now - postedAt < thresholdNanos)
+            return thresholdNanos - (now - postedAt);
+        Thread thread = loop.thread;
+        if (loop.samples == null) {
+            loop.samples = new HashMap<>();
+            loop.sampleCount = 0;
+            loop.stallStarted = Instant.now().minusNanos(now - postedAt);
+            // while the loop is blocked in one task this cannot change
+            loop.stallEndpoint = loop.endpoint;
+            Log.warnf("Event loop %s stalled for more than %d ms running %s",
+                    thread != null ? thread.getName() : loop.name, thresholdNanos / 1_000_000, endpoint(loop.stallEndpoint));
+        }
+        if (thread != null && loop.sampleCount < maxSamples) {
+            StackTraceElement[] stack = thread.getStackTrace();
+            loop.samples.merge(List.of(Arrays.copyOf(stack, Math.min(stack.length, MAX_FRAMES))), 1, Integer::sum);
+            loop.sampleCount++;
+        }
+        return sampleIntervalNanos;
+    }
+
+    // the probe that waited has run: its wait is the length of the stall
+    private void record(Loop loop) {
+        List<Stall.Stack> stacks = new ArrayList<>(loop.samples.size());
+        loop.samples.forEach((frames, count) -> stacks.add(new Stall.Stack(count, frames)));
+        stacks.sort(Comparator.comparingInt(Stall.Stack::count).reversed());
+        Thread thread = loop.thread;
+        Stall stall = new Stall(thread != null ? thread.getName() : loop.name, endpoint(loop.stallEndpoint),
+                loop.stallStarted, Duration.ofNanos(loop.lastDelay), List.copyOf(stacks));
+        loop.samples = null;
+        loop.stallEndpoint = null;
+
+        stalls.computeIfAbsent(stall.endpoint(), e -> new LongAdder()).increment();
+        stallNanos.computeIfAbsent(stall.endpoint(), e -> new LongAdder()).add(loop.lastDelay);
+        synchronized (recent) {
+            if (recent.size() == history)
+                recent.removeFirst();
+            recent.addLast(stall);
+        }
+        StringBuilder message = new StringBuilder();
+        stall.format(message);
+        Log.warn(message.toString().stripTrailing());
+    }
+
+    private static String endpoint(SimpleResourceInfo resourceInfo) {
+        return resourceInfo == null ? UNKNOWN_ENDPOINT
+                : resourceInfo.getResourceClass().getSimpleName() + "." + resourceInfo.getMethodName();
+    }
+
+    // latest first
+    public List<Stall> recentStalls() {
+        synchronized (recent) {
+            return List.copyOf(recent.reversed());
+        }
+    }
+
+    public void writePrometheus(StringBuilder out) {
+        Prometheus.header(out, "event_loop_delay_seconds", "summary", "Time a task waits for its event loop");
+        for (Loop loop : loops)
+            Prometheus.summary(out, "event_loop_delay_seconds", "loop=\"" + loop.name + '"', loop.delay);
+        Prometheus.header(out, "event_loop_stalls_total", "counter",
+                "Event loop stalls by the endpoint of the last request dispatched on the loop");
+        stalls.forEach((endpoint, count) ->
+                Prometheus.sample(out, "event_loop_stalls_total", "endpoint=\"" + endpoint + '"', count.sum()));
+        Prometheus.header(out, "event_loop_stall_seconds_total", "counter", "Time event loops spent stalled");
+        stallNanos.forEach((endpoint, nanos) -> {
+            out.append("event_loop_stall_seconds_total{endpoint=\"").append(endpoint).append("\"} ");
+            Prometheus.seconds(out, nanos.sum()).append('\n');
+        });
+    }
+}
@@ -0,0 +1,11 @@
+package org.sac.execution;
+
+// Where a blocking handler runs, see BlockingExecutor
+public enum ExecutionMode {
+    // inline on the Vert.x event loop: cheapest, only for work that never blocks
+    EVENT_LOOP,
+    // the Quarkus worker pool (bounded platform threads)
+    WORKER,
+    // a new virtual thread per call
+    VIRTUAL_THREAD
+}
@@ -0,0 +1,34 @@
+package org.sac.execution;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// One stall of an event loop, as recorded by EventLoopWatchdog: how long a task waited for the
+// loop, the endpoint of the last request dispatched on it, and the stacks sampled meanwhile,
+// most frequent first
+public record Stall(String thread, String endpoint, Instant started, Duration duration, List<Stack> stacks) {
+
+    // count samples that showed these frames (innermost first)
+    public record Stack(int count, List<StackTraceElement> frames) {
+    }
+
+    public int samples() {
+        return stacks.stream().mapToInt(Stack::count).sum();
+    }
+
+    //   2026-10-17T10:15:30Z vert.x-eventloop-thread-1 stalled 1204 ms running EmployeeResource.helloAsync, 60 samples
+    //     58 samples
+    //       at java.lang.Thread.sleep(Thread.java:509)
+    //       ...
+    public void format(StringBuilder out) {
+        out.append(started).append(' ').append(thread)
+                .append(" stalled ").append(duration.toMillis()).append(" ms running ").append(endpoint)
+                .append(", ").append(samples()).append(" samples\n");
+        for (Stack stack : stacks) {
+            out.append("  ").append(stack.count()).append(" samples\n");
+            for (StackTraceElement frame : stack.frames())
+                out.append("    at ").append(frame).append('\n');
+        }
+    }
+}
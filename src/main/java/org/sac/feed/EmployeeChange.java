@@ -0,0 +1,67 @@
+package org.sac.feed;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.sac.EmployeeResource.Employee;
+import org.sac.json.EmployeeJsonCodec;
+import org.sac.json.JsonOutput;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+// One mutation of the store, as sent on the change feed. ids increase by one per change, so
+// a subscriber sees from a gap that events were dropped for it.
+// The JSON is encoded once, on first use, and shared by every subscriber.
+public final class EmployeeChange {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED;
+
+        private final String eventName = name().toLowerCase(Locale.ROOT);
+
+        // the SSE event name
+        public String eventName() {
+            return eventName;
+        }
+    }
+
+    private final long id;
+    private final Type type;
+    private final Employee employee;
+    private volatile String json;
+
+    EmployeeChange(long id, Type type, Employee employee) {
+        this.id = id;
+        this.type = type;
+        this.employee = employee;
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public Type type() {
+        return type;
+    }
+
+    // the new state, or the removed employee for DELETED
+    public Employee employee() {
+        return employee;
+    }
+
+    // racy but idempotent: two threads may both encode, either result is the same
+    public String json() {
+        String encoded = json;
+        if (encoded == null) {
+            ByteBuf buf = Unpooled.buffer(EmployeeJsonCodec.INSTANCE.sizeHint());
+            EmployeeJsonCodec.INSTANCE.write(employee, new JsonOutput(buf));
+            json = encoded = buf.toString(StandardCharsets.UTF_8);
+        }
+        return encoded;
+    }
+
+    @Override
+    public String toString() {
+        return id + " " + type.eventName() + " " + employee;
+    }
+}
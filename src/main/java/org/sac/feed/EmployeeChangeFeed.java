@@ -0,0 +1,106 @@
+package org.sac.feed;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.operators.multi.processors.BroadcastProcessor;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.sac.EmployeeResource.Employee;
+import org.sac.metrics.Prometheus;
+import org.sac.store.ObservedEmployeeStore;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Live feed of store changes (see EmployeeResource.changes). Every create, update and delete
+// is published once to a BroadcastProcessor and from there to every subscriber through its
+// own SubscriberBuffer:
+//   employee.feed.buffer-size=256          changes a subscriber may fall behind
+//   employee.feed.overflow=drop-oldest     or disconnect
+// so a slow client costs at most buffer-size changes of memory and never holds up the
+// writer. Subscribers receive on their own Vert.x context (the connection's event loop), the
+// publisher only appends to the buffers.
+// Nothing is published while there are no subscribers.
+@ApplicationScoped
+public class EmployeeChangeFeed implements ObservedEmployeeStore.Listener {
+
+    private final BroadcastProcessor<EmployeeChange> broadcast = BroadcastProcessor.create();
+    private final int bufferSize;
+    private final OverflowPolicy overflow;
+
+    // ids are taken and published under the lock, so every subscriber sees them in order
+    private final Object publishing = new Object();
+    private long lastId;
+
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder disconnected = new LongAdder();
+
+    @Inject
+    public EmployeeChangeFeed(@ConfigProperty(name = "employee.feed.buffer-size", defaultValue = "256") int bufferSize,
+                              @ConfigProperty(name = "employee.feed.overflow", defaultValue = "drop-oldest") String overflow) {
+        if (bufferSize < 1)
+            throw new IllegalArgumentException("employee.feed.buffer-size must be at least 1");
+        this.bufferSize = bufferSize;
+        this.overflow = OverflowPolicy.parse(overflow);
+    }
+
+    @Override
+    public void put(Employee employee, Employee previous) {
+        publish(previous == null ? EmployeeChange.Type.CREATED : EmployeeChange.Type.UPDATED, employee);
+    }
+
+    @Override
+    public void removed(Employee employee) {
+        publish(EmployeeChange.Type.DELETED, employee);
+    }
+
+    @Override
+    public boolean listening() {
+        return subscribers.get() > 0;
+    }
+
+    private void publish(EmployeeChange.Type type, Employee employee) {
+        if (subscribers.get() == 0)
+            return;
+        synchronized (publishing) {
+            broadcast.onNext(new EmployeeChange(++lastId, type, employee));
+        }
+        published.increment();
+    }
+
+    // changes from the moment of subscription on, never the current state
+    public Multi<EmployeeChange> subscribe() {
+        return Multi.createFrom().deferred(() -> {
+            Multi<EmployeeChange> changes = SubscriberBuffer.attach(broadcast, bufferSize, overflow,
+                    dropped::increment, disconnected::increment);
+            Context context = Vertx.currentContext();
+            if (context != null)
+                changes = changes.emitOn(task -> context.runOnContext(v -> task.run()));
+            return changes;
+        })
+                .onSubscription().invoke(subscribers::incrementAndGet)
+                .onTermination().invoke(subscribers::decrementAndGet);
+    }
+
+    // ends every subscriber's stream, so SSE clients see a clean end at shutdown
+    @PreDestroy
+    void close() {
+        broadcast.onComplete();
+    }
+
+    public void writePrometheus(StringBuilder out) {
+        Prometheus.header(out, "employee_feed_subscribers", "gauge", "Connected subscribers of the employee change feed");
+        Prometheus.sample(out, "employee_feed_subscribers", "", subscribers.get());
+        Prometheus.header(out, "employee_feed_changes_total", "counter", "Changes published to the employee change feed");
+        Prometheus.sample(out, "employee_feed_changes_total", "", published.sum());
+        Prometheus.header(out, "employee_feed_overflow_total", "counter",
+                "Changes dropped for slow subscribers, and slow subscribers disconnected");
+        Prometheus.sample(out, "employee_feed_overflow_total", "action=\"dropped\"", dropped.sum());
+        Prometheus.sample(out, "employee_feed_overflow_total", "action=\"disconnected\"", disconnected.sum());
+    }
+}
@@ -0,0 +1,18 @@
+package org.sac.feed;
+
+import java.util.Locale;
+
+// What a subscriber's buffer does when a change arrives and it is full
+public enum OverflowPolicy {
+
+    // discard the oldest buffered change: the subscriber stays connected and skips ahead
+    DROP_OLDEST,
+
+    // end the subscriber's stream with an error; the client reconnects and starts over
+    DISCONNECT;
+
+    // drop-oldest, disconnect
+    public static OverflowPolicy parse(String value) {
+        return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
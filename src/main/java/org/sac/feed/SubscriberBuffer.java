@@ -0,0 +1,187 @@
+package org.sac.feed;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.helpers.Subscriptions;
+import io.smallrye.mutiny.subscription.BackPressureFailure;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A bounded buffer between the broadcast and one subscriber. Upstream it requests everything,
+// so the broadcast never waits for (or fails because of) a slow subscriber; downstream it
+// hands items on as they are requested. When capacity items are waiting and another one
+// arrives, the OverflowPolicy decides: drop the oldest, or fail the subscriber. Either way
+// the memory per subscriber is bounded by capacity.
+// Mutiny's onOverflow() has a failing bounded buffer and dropping of the newest items, but no
+// bounded drop-oldest, hence this operator.
+final class SubscriberBuffer<T> implements Flow.Subscriber<T>, Flow.Subscription {
+
+    private final Flow.Subscriber<? super T> downstream;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final Runnable onDrop;
+    private final Runnable onDisconnect;
+
+    private final ArrayDeque<T> queue;   // guarded by itself
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile Flow.Subscription upstream;
+    private volatile boolean cancelled;
+    private volatile boolean done;
+    private Throwable failure;   // written before done is set
+
+    private SubscriberBuffer(Flow.Subscriber<? super T> downstream, int capacity, OverflowPolicy policy,
+                             Runnable onDrop, Runnable onDisconnect) {
+        this.downstream = downstream;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.onDrop = onDrop;
+        this.onDisconnect = onDisconnect;
+        this.queue = new ArrayDeque<>(Math.min(capacity, 64));
+    }
+
+    // a new buffer for every subscription to the returned Multi
+    static <T> Multi<T> attach(Multi<T> source, int capacity, OverflowPolicy policy, Runnable onDrop, Runnable onDisconnect) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be at least 1");
+        return Multi.createFrom().publisher(subscriber -> source.subscribe()
+                .withSubscriber(new SubscriberBuffer<T>(subscriber, capacity, policy, onDrop, onDisconnect)));
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        downstream.onSubscribe(this);
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(T item) {
+        if (done || cancelled)
+            return;
+        boolean overflow;
+        synchronized (queue) {
+            overflow = queue.size() >= capacity;
+            if (overflow && policy == OverflowPolicy.DROP_OLDEST)
+                queue.poll();
+            if (!overflow || policy == OverflowPolicy.DROP_OLDEST)
+                queue.offer(item);
+        }
+        if (overflow) {
+            if (policy == OverflowPolicy.DROP_OLDEST) {
+                onDrop.run();
+            } else {
+                upstream.cancel();
+                synchronized (queue) {
+                    queue.clear();
+                }
+                failure = new BackPressureFailure("Subscriber too slow, " + capacity + " changes behind");
+                done = true;
+                onDisconnect.run();
+            }
+        }
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        failure = throwable;
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            cancel();
+            downstream.onError(Subscriptions.getInvalidRequestException());
+            return;
+        }
+        Subscriptions.add(requested, n);
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        Flow.Subscription subscription = upstream;
+        if (subscription != null)
+            subscription.cancel();
+        drain();
+    }
+
+    // One thread at a time delivers; a call while another thread delivers only makes it loop
+    // once more. After the terminal signal wip stays non-zero, so nothing follows it.
+    private void drain() {
+        if (wip.getAndIncrement() != 0)
+            return;
+        int missed = 1;
+        do {
+            long wanted = requested.get();
+            long emitted = 0;
+            while (emitted != wanted) {
+                if (cancelled) {
+                    clear();
+                    return;
+                }
+                boolean terminated = done;
+                T item;
+                synchronized (queue) {
+                    item = queue.poll();
+                }
+                if (item == null) {
+                    if (terminated) {
+                        terminate();
+                        return;
+                    }
+                    break;
+                }
+                downstream.onNext(item);
+                emitted++;
+            }
+            if (cancelled) {
+                clear();
+                return;
+            }
+            if (done && isEmpty()) {
+                terminate();
+                return;
+            }
+            if (emitted != 0 && wanted != Long.MAX_VALUE)
+                requested.addAndGet(-emitted);
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void terminate() {
+        Throwable error = failure;
+        if (error != null)
+            downstream.onError(error);
+        else
+            downstream.onComplete();
+    }
+
+    private boolean isEmpty() {
+        synchronized (queue) {
+            return queue.isEmpty();
+        }
+    }
+
+    private void clear() {
+        synchronized (queue) {
+            queue.clear();
+        }
+    }
+}
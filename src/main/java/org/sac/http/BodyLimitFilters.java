@@ -0,0 +1,56 @@
+package org.sac.http;
+
+import io.quarkus.runtime.configuration.MemorySize;
+import io.quarkus.vertx.http.runtime.VertxHttpRecorder;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.RestResponse;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.jboss.resteasy.reactive.server.SimpleResourceInfo;
+
+import java.io.InputStream;
+
+// Quarkus has one request body limit (quarkus.http.limits.max-body-size), checked before the
+// endpoint is known, so it is set as high as the largest bulk upload. Endpoints that take the
+// body as an InputStream read it as it arrives and get all of it. Every other endpoint
+// buffers its body and is held to http.max-body-size: a Content-Length over it is a 413
+// before anything is read, and the connection is closed after it rather than left with an
+// unread body; a chunked body fails with a 413 once it reaches the limit.
+// Runs ahead of admission control, so an oversized body never takes a permit.
+class BodyLimitFilters {
+
+    @ConfigProperty(name = "http.max-body-size", defaultValue = "10240K")
+    MemorySize maxBodySize;
+
+    @ServerRequestFilter(priority = Priorities.ENTITY_CODER)
+    public RestResponse<Void> limitBody(SimpleResourceInfo resourceInfo, RoutingContext routing) {
+        if (resourceInfo == null || streamsBody(resourceInfo))
+            return null;
+        long limit = maxBodySize.asLongValue();
+        String length = routing.request().getHeader(HttpHeaders.CONTENT_LENGTH);
+        if (length == null) {
+            // read by the body's input stream (VertxInputStream)
+            routing.put(VertxHttpRecorder.MAX_REQUEST_SIZE_KEY, limit);
+            return null;
+        }
+        try {
+            if (Long.parseLong(length) > limit)
+                return RestResponse.ResponseBuilder.<Void>create(Response.Status.REQUEST_ENTITY_TOO_LARGE)
+                        .header(HttpHeaders.CONNECTION.toString(), "close")
+                        .build();
+        } catch (NumberFormatException e) {
+            // Vert.x rejects it when reading the body
+        }
+        return null;
+    }
+
+    private static boolean streamsBody(SimpleResourceInfo resourceInfo) {
+        for (Class<?> type : resourceInfo.parameterTypes())
+            if (type == InputStream.class)
+                return true;
+        return false;
+    }
+}
@@ -0,0 +1,110 @@
+package org.sac.http;
+
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerResponse;
+import jakarta.ws.rs.core.NewCookie;
+import jakarta.ws.rs.ext.RuntimeDelegate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// A response whose headers and body never change, encoded once: header names and values are
+// interned ASCII strings, the body is a read-only direct buffer shared by every request.
+// The only moving part is an optional Expires header, which PreEncodedResponses refreshes
+// once per clock tick instead of formatting a date per request.
+// Return it from a resource method; PreEncodedResponseWriter writes it out. A status other
+// than 200 goes in a RestResponse around it, RestResponse.status(CREATED, response), so the
+// response filters see it.
+public final class PreEncodedResponse {
+
+    static final DateTimeFormatter HTTP_DATE =
+            DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US).withZone(ZoneOffset.UTC);
+    private static final CharSequence CONTENT_TYPE = HttpHeaders.createOptimized("Content-Type");
+    private static final CharSequence EXPIRES = HttpHeaders.createOptimized("Expires");
+
+    final byte[] bodyBytes;
+    final CharSequence contentType;
+    // name, value, name, value, ...
+    final CharSequence[] headers;
+    private final Buffer body;
+    private final Duration expiresAfter;
+    private volatile CharSequence expires;
+
+    // see PreEncodedResponses.encode
+    PreEncodedResponse(Builder builder, Instant now) {
+        this.bodyBytes = builder.body;
+        this.contentType = HttpHeaders.createOptimized(builder.contentType);
+        this.headers = builder.headers.toArray(CharSequence[]::new);
+        this.body = Buffer.buffer(Unpooled.unreleasableBuffer(
+                Unpooled.directBuffer(bodyBytes.length).writeBytes(bodyBytes).asReadOnly()));
+        this.expiresAfter = builder.expiresAfter;
+        refresh(now);
+    }
+
+    public static Builder of(String body, String contentType) {
+        return new Builder(body.getBytes(StandardCharsets.UTF_8), contentType);
+    }
+
+    boolean expires() {
+        return expiresAfter != null;
+    }
+
+    void refresh(Instant now) {
+        if (expiresAfter != null)
+            expires = HttpHeaders.createOptimized(HTTP_DATE.format(now.plus(expiresAfter)));
+    }
+
+    CharSequence expiresValue() {
+        return expires;
+    }
+
+    void writeTo(HttpServerResponse response) {
+        var responseHeaders = response.headers();
+        // replaces the Content-Type negotiated by Quarkus REST
+        responseHeaders.set(CONTENT_TYPE, contentType);
+        for (int i = 0; i < headers.length; i += 2)
+            responseHeaders.add(headers[i], headers[i + 1]);
+        if (expiresAfter != null)
+            responseHeaders.set(EXPIRES, expires);
+        // each write gets its own view of the shared buffer
+        response.end(body);
+    }
+
+    public static final class Builder {
+
+        private final byte[] body;
+        private final String contentType;
+        private final List<CharSequence> headers = new ArrayList<>();
+        private Duration expiresAfter;
+
+        private Builder(byte[] body, String contentType) {
+            this.body = body;
+            this.contentType = contentType;
+        }
+
+        public Builder header(String name, String value) {
+            headers.add(HttpHeaders.createOptimized(name));
+            headers.add(HttpHeaders.createOptimized(value));
+            return this;
+        }
+
+        // the cookie is encoded the way Quarkus REST encodes a NewCookie
+        public Builder cookie(NewCookie cookie) {
+            return header("Set-Cookie", RuntimeDelegate.getInstance().createHeaderDelegate(NewCookie.class).toString(cookie));
+        }
+
+        // Expires: now + after, refreshed on each tick of PreEncodedResponses
+        public Builder expiresAfter(Duration after) {
+            this.expiresAfter = after;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.sac.http;
+
+import io.vertx.core.http.HttpServerResponse;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.Provider;
+import org.jboss.resteasy.reactive.server.core.ResteasyReactiveRequestContext;
+import org.jboss.resteasy.reactive.server.core.ServerSerialisers;
+import org.jboss.resteasy.reactive.server.spi.ResteasyReactiveResourceInfo;
+import org.jboss.resteasy.reactive.server.spi.ServerMessageBodyWriter;
+import org.jboss.resteasy.reactive.server.spi.ServerRequestContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+// Writes a PreEncodedResponse straight to the Vert.x response: headers and body as they were
+// encoded, nothing is serialized per request. The status is Quarkus REST's, as the filters saw it.
+@Provider
+public class PreEncodedResponseWriter implements ServerMessageBodyWriter<PreEncodedResponse> {
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, ResteasyReactiveResourceInfo target, MediaType mediaType) {
+        return type == PreEncodedResponse.class;
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type == PreEncodedResponse.class;
+    }
+
+    @Override
+    public void writeResponse(PreEncodedResponse response, Type genericType, ServerRequestContext context) {
+        if (context instanceof ResteasyReactiveRequestContext request) {
+            HttpServerResponse vertxResponse = request.serverRequest().unwrap(HttpServerResponse.class);
+            if (vertxResponse != null) {
+                // Quarkus REST copies status and headers (including those added by response filters)
+                // to the response just before it is committed; do that now, then let ours win
+                ServerSerialisers.encodeResponseHeaders(request);
+                request.serverResponse().setPreCommitListener(null);
+                response.writeTo(vertxResponse);
+                return;
+            }
+        }
+        var serverResponse = context.serverResponse();
+        serverResponse.setResponseHeader("Content-Type", response.contentType);
+        for (int i = 0; i < response.headers.length; i += 2)
+            serverResponse.addResponseHeader(response.headers[i], response.headers[i + 1]);
+        if (response.expires())
+            serverResponse.setResponseHeader("Expires", response.expiresValue());
+        serverResponse.end(response.bodyBytes);
+    }
+
+    @Override
+    public void writeTo(PreEncodedResponse response, Class<?> type, Type genericType, Annotation[] annotations,
+                        MediaType mediaType, MultivaluedMap<String, Object> httpHeaders,
+                        OutputStream entityStream) throws IOException {
+        httpHeaders.putSingle("Content-Type", response.contentType.toString());
+        for (int i = 0; i < response.headers.length; i += 2)
+            httpHeaders.add(response.headers[i].toString(), response.headers[i + 1].toString());
+        if (response.expires())
+            httpHeaders.putSingle("Expires", response.expiresValue().toString());
+        entityStream.write(response.bodyBytes);
+    }
+}
@@ -0,0 +1,51 @@
+package org.sac.http;
+
+import io.vertx.core.Vertx;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Encodes PreEncodedResponses and keeps their Expires headers current: a one second
+// Vert.x timer reformats them all, HTTP dates having a resolution of one second anyway.
+//
+//   hello = responses.encode(PreEncodedResponse.of("Hello", MediaType.TEXT_PLAIN)
+//           .header("X-Cheese", "Camembert")
+//           .expiresAfter(Duration.ofDays(2)));
+@ApplicationScoped
+public class PreEncodedResponses {
+
+    static final long TICK_MILLIS = 1000;
+
+    @Inject
+    Vertx vertx;
+
+    private final List<PreEncodedResponse> expiring = new CopyOnWriteArrayList<>();
+    private long timer;
+
+    @PostConstruct
+    void start() {
+        timer = vertx.setPeriodic(TICK_MILLIS, id -> tick(Instant.now()));
+    }
+
+    @PreDestroy
+    void stop() {
+        vertx.cancelTimer(timer);
+    }
+
+    public PreEncodedResponse encode(PreEncodedResponse.Builder builder) {
+        PreEncodedResponse response = new PreEncodedResponse(builder, Instant.now());
+        if (response.expires())
+            expiring.add(response);
+        return response;
+    }
+
+    void tick(Instant now) {
+        for (PreEncodedResponse response : expiring)
+            response.refresh(now);
+    }
+}
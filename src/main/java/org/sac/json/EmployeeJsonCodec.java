@@ -0,0 +1,68 @@
+package org.sac.json;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.InputCoercionException;
+import org.sac.EmployeeResource.Employee;
+
+import java.io.IOException;
+
+// {"name":"...","age":N}, same field order and null handling as Jackson
+public final class EmployeeJsonCodec implements JsonCodec<Employee> {
+
+    public static final EmployeeJsonCodec INSTANCE = new EmployeeJsonCodec();
+
+    private static final byte[] NAME = JsonOutput.encode("{\"name\":");
+    private static final byte[] AGE = JsonOutput.encode(",\"age\":");
+
+    @Override
+    public void write(Employee employee, JsonOutput out) {
+        out.raw(NAME).string(employee.getName())
+                .raw(AGE).number(employee.getAge())
+                .raw('}');
+    }
+
+    @Override
+    public Employee read(JsonParser parser) throws IOException {
+        String name = null;
+        Integer age = null;
+        // unknown fields are skipped, like Quarkus' default ObjectMapper does
+        for (String field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "name" -> name = value == JsonToken.VALUE_NULL ? null : text(parser, value);
+                case "age" -> age = value == JsonToken.VALUE_NULL ? null : integer(parser, value);
+                default -> parser.skipChildren();
+            }
+        }
+        if (parser.currentToken() != JsonToken.END_OBJECT)
+            throw new JsonParseException(parser, "Expected a field name or '}'");
+        return new Employee(name, age);
+    }
+
+    private static String text(JsonParser parser, JsonToken value) throws IOException {
+        if (!value.isScalarValue())
+            throw new JsonParseException(parser, "Expected a string for 'name'");
+        return parser.getText();
+    }
+
+    private static int integer(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT)
+            return parser.getIntValue();
+        // Jackson coerces "30" to 30 by default
+        if (value == JsonToken.VALUE_STRING) {
+            try {
+                return Integer.parseInt(parser.getText().trim());
+            } catch (NumberFormatException e) {
+                // fall through
+            }
+        }
+        throw new InputCoercionException(parser, "Expected an integer for 'age'", value, Integer.TYPE);
+    }
+
+    @Override
+    public int sizeHint() {
+        return 64;
+    }
+}
@@ -0,0 +1,22 @@
+package org.sac.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+import org.sac.EmployeeResource.Employee;
+
+// JSON for EmployeeResource.Employee without reflective binding, see JsonCodecProvider
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class EmployeeJsonProvider extends JsonCodecProvider<Employee> {
+
+    @Inject
+    public EmployeeJsonProvider(ObjectMapper mapper) {
+        // the parser factory only, so parser features follow the Quarkus configuration
+        super(Employee.class, EmployeeJsonCodec.INSTANCE, mapper.getFactory());
+    }
+}
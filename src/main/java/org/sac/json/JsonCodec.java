@@ -0,0 +1,21 @@
+package org.sac.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+
+// Hand-written JSON binding for one type, used by JsonCodecProvider instead of
+// Jackson's reflective databind
+public interface JsonCodec<T> {
+
+    void write(T value, JsonOutput out);
+
+    // parser is positioned on the START_OBJECT token; malformed input throws
+    // a JsonProcessingException
+    T read(JsonParser parser) throws IOException;
+
+    // initial buffer size for one value
+    default int sizeHint() {
+        return 128;
+    }
+}
@@ -0,0 +1,133 @@
+package org.sac.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import io.netty.buffer.ByteBuf;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.buffer.impl.VertxByteBufAllocator;
+import io.vertx.core.http.HttpServerResponse;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import org.jboss.resteasy.reactive.server.core.ResteasyReactiveRequestContext;
+import org.jboss.resteasy.reactive.server.spi.ResteasyReactiveResourceInfo;
+import org.jboss.resteasy.reactive.server.spi.ServerMessageBodyReader;
+import org.jboss.resteasy.reactive.server.spi.ServerMessageBodyWriter;
+import org.jboss.resteasy.reactive.server.spi.ServerRequestContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+// Reads and writes one type with a JsonCodec. Subclasses are the @Provider, e.g.
+// EmployeeJsonProvider; being registered for the exact type they take precedence over
+// the Jackson providers, which stay in use for everything else.
+//
+// Responses are encoded into a pooled direct buffer that is handed to Vert.x as is and
+// released once written. Requests are parsed token by token with the Jackson streaming
+// parser, no tree and no databind.
+public abstract class JsonCodecProvider<T> implements ServerMessageBodyWriter<T>, ServerMessageBodyReader<T> {
+
+    private final Class<T> type;
+    private final JsonCodec<T> codec;
+    private final JsonFactory factory;
+    private final String format;
+
+    protected JsonCodecProvider(Class<T> type, JsonCodec<T> codec, JsonFactory factory) {
+        this(type, codec, factory, "JSON");
+    }
+
+    // format names the input in 400 responses
+    protected JsonCodecProvider(Class<T> type, JsonCodec<T> codec, JsonFactory factory, String format) {
+        this.type = type;
+        this.codec = codec;
+        this.factory = factory;
+        this.format = format;
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, ResteasyReactiveResourceInfo target, MediaType mediaType) {
+        return type == this.type;
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type == this.type;
+    }
+
+    @Override
+    public void writeResponse(T value, Type genericType, ServerRequestContext context) throws IOException {
+        HttpServerResponse response = context instanceof ResteasyReactiveRequestContext request
+                ? request.serverRequest().unwrap(HttpServerResponse.class) : null;
+        ByteBuf buf = VertxByteBufAllocator.POOLED_ALLOCATOR.directBuffer(codec.sizeHint());
+        try {
+            encode(value, buf);
+        } catch (RuntimeException e) {
+            buf.release();
+            throw e;
+        }
+        if (response == null) {
+            // not running on Vert.x: fall back to a copy
+            byte[] bytes = new byte[buf.readableBytes()];
+            buf.readBytes(bytes).release();
+            context.serverResponse().end(bytes);
+            return;
+        }
+        // Vert.x writes an unreleasable view of the buffer, so it is ours to release
+        response.end(Buffer.buffer(buf)).onComplete(written -> buf.release());
+    }
+
+    @Override
+    public void writeTo(T value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        ByteBuf buf = VertxByteBufAllocator.POOLED_ALLOCATOR.heapBuffer(codec.sizeHint());
+        try {
+            encode(value, buf);
+            buf.readBytes(entityStream, buf.readableBytes());
+        } finally {
+            buf.release();
+        }
+    }
+
+    // appends one encoded value; a provider for another format of the same parser family
+    // (CBOR) overrides this and keeps the reading side
+    protected void encode(T value, ByteBuf buf) {
+        codec.write(value, new JsonOutput(buf));
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, ResteasyReactiveResourceInfo lazyMethod, MediaType mediaType) {
+        return type == this.type;
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type == this.type;
+    }
+
+    @Override
+    public T readFrom(Class<T> type, Type genericType, MediaType mediaType, ServerRequestContext context)
+            throws IOException {
+        return read(context.getInputStream());
+    }
+
+    @Override
+    public T readFrom(Class<T> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                      MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+        return read(entityStream);
+    }
+
+    private T read(InputStream in) throws IOException {
+        try (JsonParser parser = factory.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                throw new BadRequestException("Expected a " + format + " object");
+            return codec.read(parser);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Invalid " + format + ": " + e.getOriginalMessage());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.sac.json;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+
+import java.nio.charset.StandardCharsets;
+
+// Appends JSON to a Netty buffer, UTF-8 encoded, without intermediate Strings.
+// Codecs write constant parts (braces, "field":) as pre-encoded bytes, see JsonOutput.encode.
+// String escaping matches Jackson's defaults, so the output is byte-for-byte what
+// ObjectMapper would have produced.
+public final class JsonOutput {
+
+    private static final byte[] NULL = encode("null");
+    private static final byte[] HEX = encode("0123456789ABCDEF");
+    // per ASCII char: 0 = as is, 'u' = \\u00XX, else the char after the backslash
+    private static final byte[] ESCAPES = new byte[128];
+
+    static {
+        for (int c = 0; c < 0x20; c++)
+            ESCAPES[c] = 'u';
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\t'] = 't';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\r'] = 'r';
+    }
+
+    private final ByteBuf buf;
+
+    public JsonOutput(ByteBuf buf) {
+        this.buf = buf;
+    }
+
+    public static byte[] encode(String constant) {
+        return constant.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public ByteBuf buffer() {
+        return buf;
+    }
+
+    public JsonOutput raw(byte[] bytes) {
+        buf.writeBytes(bytes);
+        return this;
+    }
+
+    public JsonOutput raw(char c) {
+        buf.writeByte(c);
+        return this;
+    }
+
+    public JsonOutput string(String value) {
+        if (value == null)
+            return raw(NULL);
+        buf.writeByte('"');
+        // copy runs of characters that need no escaping in one go
+        int run = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 128 || ESCAPES[c] == 0)
+                continue;
+            if (run < i)
+                ByteBufUtil.writeUtf8(buf, value, run, i);
+            escape(c);
+            run = i + 1;
+        }
+        if (run < value.length())
+            ByteBufUtil.writeUtf8(buf, value, run, value.length());
+        buf.writeByte('"');
+        return this;
+    }
+
+    private void escape(char c) {
+        byte escape = ESCAPES[c];
+        buf.writeByte('\\');
+        if (escape != 'u') {
+            buf.writeByte(escape);
+            return;
+        }
+        buf.writeByte('u').writeByte('0').writeByte('0')
+                .writeByte(HEX[c >> 4]).writeByte(HEX[c & 0xF]);
+    }
+
+    public JsonOutput number(Integer value) {
+        return value == null ? raw(NULL) : number(value.intValue());
+    }
+
+    public JsonOutput number(long value) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                buf.writeCharSequence(Long.toString(value), StandardCharsets.US_ASCII);
+                return this;
+            }
+            buf.writeByte('-');
+            value = -value;
+        }
+        // digits are written right to left into their final place
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10)
+            digits++;
+        int end = buf.writerIndex() + digits;
+        buf.ensureWritable(digits);
+        for (int at = end - 1; at >= end - digits; at--) {
+            buf.setByte(at, (int) ('0' + value % 10));
+            value /= 10;
+        }
+        buf.writerIndex(end);
+        return this;
+    }
+}
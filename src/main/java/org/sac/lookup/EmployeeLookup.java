@@ -0,0 +1,101 @@
+package org.sac.lookup;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.sac.cluster.EmployeeCluster;
+import org.sac.execution.BlockingExecutor;
+import org.sac.store.EmployeeStore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+// Batched multi-get (EmployeeResource.lookupEmployees): many names in one request instead
+// of a request each. The names are resolved concurrently, at most employee.lookup.concurrency
+// lookups at a time, and results are emitted as lookups complete, so the response streams
+// in completion order rather than request order.
+// A lookup is either a chunk of up to employee.lookup.chunk-size names read from the local
+// store in one executor.run (in worker or virtual-thread mode chunks run on several
+// threads), or, sharded, all the names another node owns, asked of it in one batch lookup.
+// When that node fails, each of its names is unavailable (503).
+@ApplicationScoped
+public class EmployeeLookup {
+
+    static final String KEY = "EmployeeResource.lookupEmployees";
+
+    @Inject
+    EmployeeStore store;
+
+    @Inject
+    EmployeeCluster cluster;
+
+    @Inject
+    BlockingExecutor executor;
+
+    @ConfigProperty(name = "employee.lookup.concurrency", defaultValue = "16")
+    int concurrency;
+
+    @ConfigProperty(name = "employee.lookup.chunk-size", defaultValue = "64")
+    int chunkSize;
+
+    // each name once, in the order of its first appearance; local as in EmployeeCluster.remoteOwner
+    public Multi<List<LookupResult>> lookup(Collection<String> names, boolean local) {
+        List<Uni<List<LookupResult>>> lookups = new ArrayList<>();
+        Map<String, List<String>> remote = new LinkedHashMap<>();
+        List<String> chunk = new ArrayList<>(chunkSize);
+        for (String name : new LinkedHashSet<>(names)) {
+            String owner = cluster.remoteOwner(name, local);
+            if (owner != null) {
+                remote.computeIfAbsent(owner, node -> new ArrayList<>()).add(name);
+                continue;
+            }
+            chunk.add(name);
+            if (chunk.size() == chunkSize) {
+                lookups.add(localLookup(chunk));
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty())
+            lookups.add(localLookup(chunk));
+        // first, so the round trips overlap the local chunks
+        List<Uni<List<LookupResult>>> remoteLookups = new ArrayList<>(remote.size());
+        remote.forEach((owner, ownerNames) -> remoteLookups.add(remoteLookup(owner, ownerNames)));
+        lookups.addAll(0, remoteLookups);
+        return fanOut(lookups, concurrency);
+    }
+
+    private Uni<List<LookupResult>> remoteLookup(String owner, List<String> names) {
+        return cluster.getAll(owner, names)
+                .map(employees -> {
+                    List<LookupResult> results = new ArrayList<>(names.size());
+                    for (String name : names)
+                        results.add(employees.containsKey(name) ? LookupResult.of(name, employees.get(name))
+                                : LookupResult.unavailable(name));
+                    return results;
+                })
+                .onFailure().recoverWithItem(() -> names.stream().map(LookupResult::unavailable).toList());
+    }
+
+    private Uni<List<LookupResult>> localLookup(List<String> names) {
+        return executor.run(KEY, () -> {
+            List<LookupResult> results = new ArrayList<>(names.size());
+            for (String name : names)
+                results.add(LookupResult.of(name, store.get(name)));
+            return results;
+        });
+    }
+
+    // subscribes to at most concurrency lookups at a time (a Uni does nothing before that)
+    // and emits each result when it arrives
+    static <T> Multi<T> fanOut(List<Uni<T>> lookups, int concurrency) {
+        return Multi.createFrom().iterable(lookups)
+                .onItem().transformToUni(lookup -> lookup)
+                .merge(concurrency);
+    }
+}
@@ -0,0 +1,36 @@
+package org.sac.lookup;
+
+import org.sac.EmployeeResource.Employee;
+import org.sac.json.EmployeeJsonCodec;
+import org.sac.json.JsonOutput;
+
+// One name of a batch lookup and what became of it, written as one NDJSON line:
+//   {"name":"sachin","status":200,"employee":{"name":"sachin","age":30}}
+//   {"name":"nobody","status":404}
+//   {"name":"elsewhere","status":503}      its node did not answer
+// The status tells each item apart, so a miss does not fail the whole response.
+public record LookupResult(String name, int status, Employee employee) {
+
+    public static final int FOUND = 200;
+    public static final int NOT_FOUND = 404;
+    public static final int UNAVAILABLE = 503;
+
+    private static final byte[] NAME = JsonOutput.encode("{\"name\":");
+    private static final byte[] STATUS = JsonOutput.encode(",\"status\":");
+    private static final byte[] EMPLOYEE = JsonOutput.encode(",\"employee\":");
+
+    public static LookupResult of(String name, Employee employee) {
+        return employee != null ? new LookupResult(name, FOUND, employee) : new LookupResult(name, NOT_FOUND, null);
+    }
+
+    public static LookupResult unavailable(String name) {
+        return new LookupResult(name, UNAVAILABLE, null);
+    }
+
+    public void write(JsonOutput out) {
+        out.raw(NAME).string(name).raw(STATUS).number(status);
+        if (employee != null)
+            EmployeeJsonCodec.INSTANCE.write(employee, out.raw(EMPLOYEE));
+        out.raw('}');
+    }
+}
@@ -0,0 +1,71 @@
+package org.sac.metrics;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import org.sac.admission.AdmissionControl;
+import org.sac.execution.EventLoopWatchdog;
+import org.sac.execution.Stall;
+import org.sac.feed.EmployeeChangeFeed;
+import org.sac.mutiny.Coalescing;
+import org.sac.mutiny.PipelineProfiler;
+import org.sac.security.TokenAuthentication;
+
+// Prometheus scrape endpoint
+// http://localhost:8080/api/metrics
+// and the latest event loop stalls with their sampled stacks
+// http://localhost:8080/api/metrics/stalls
+@Path("/metrics")
+public class MetricsResource {
+
+    static final String PROMETHEUS_TEXT = "text/plain; version=0.0.4; charset=utf-8";
+
+    @Inject
+    RequestMetrics metrics;
+
+    @Inject
+    PipelineProfiler profiler;
+
+    @Inject
+    Coalescing coalescing;
+
+    @Inject
+    AdmissionControl admission;
+
+    @Inject
+    TokenAuthentication authentication;
+
+    @Inject
+    EmployeeChangeFeed feed;
+
+    @Inject
+    EventLoopWatchdog watchdog;
+
+    @GET
+    @Produces(PROMETHEUS_TEXT)
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        metrics.writePrometheus(out);
+        profiler.writePrometheus(out);
+        coalescing.writePrometheus(out);
+        admission.writePrometheus(out);
+        authentication.writePrometheus(out);
+        feed.writePrometheus(out);
+        watchdog.writePrometheus(out);
+        return out.toString();
+    }
+
+    @GET
+    @Path("/stalls")
+    @Produces(MediaType.TEXT_PLAIN)
+    public String stalls() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Stall stall : watchdog.recentStalls()) {
+            stall.format(out);
+            out.append('\n');
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,36 @@
+package org.sac.metrics;
+
+// Helpers for the Prometheus text exposition format (version 0.0.4)
+public final class Prometheus {
+
+    static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private Prometheus() {
+    }
+
+    // name{labels,quantile="q"} for each quantile, then name_sum and name_count;
+    // labels is a preformatted label list such as endpoint="a",status="200"
+    public static void summary(StringBuilder out, String name, String labels, LatencyHistogram histogram) {
+        long[] values = histogram.valuesAtQuantiles(QUANTILES);
+        for (int q = 0; q < QUANTILES.length; q++) {
+            out.append(name).append('{').append(labels).append(",quantile=\"").append(QUANTILES[q]).append("\"} ");
+            seconds(out, values[q]).append('\n');
+        }
+        out.append(name).append("_sum{").append(labels).append("} ");
+        seconds(out, histogram.sum()).append('\n');
+        out.append(name).append("_count{").append(labels).append("} ").append(histogram.count()).append('\n');
+    }
+
+    public static void sample(StringBuilder out, String name, String labels, long value) {
+        out.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    public static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    public static StringBuilder seconds(StringBuilder out, long nanos) {
+        return out.append(nanos / 1e9);
+    }
+}
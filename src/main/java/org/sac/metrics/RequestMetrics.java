@@ -0,0 +1,93 @@
+package org.sac.metrics;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Registry of per-endpoint, per-status latency histograms and mapped exception counters.
+// The hot path is two map lookups without allocation (class -> method -> status slot);
+// histograms are only created the first time an endpoint returns a given status.
+@ApplicationScoped
+public class RequestMetrics {
+
+    static final String UNMATCHED = "unmatched";
+
+    // histograms for one endpoint, indexed by HTTP status code
+    static final class EndpointStats {
+        final String endpoint;
+        final AtomicReferenceArray<LatencyHistogram> byStatus = new AtomicReferenceArray<>(600);
+
+        EndpointStats(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        LatencyHistogram histogram(int status) {
+            int slot = status >= 0 && status < 600 ? status : 0;
+            LatencyHistogram histogram = byStatus.get(slot);
+            if (histogram == null) {
+                byStatus.compareAndSet(slot, null, new LatencyHistogram());
+                histogram = byStatus.get(slot);
+            }
+            return histogram;
+        }
+    }
+
+    private final Map<Class<?>, Map<String, EndpointStats>> endpoints = new ConcurrentHashMap<>();
+    private final EndpointStats unmatched = new EndpointStats(UNMATCHED);
+    private final Map<String, LongAdder> mappedExceptions = new ConcurrentHashMap<>();
+
+    public void recordRequest(Class<?> resourceClass, String method, int status, long nanos) {
+        EndpointStats stats = resourceClass == null ? unmatched
+                : endpoints.computeIfAbsent(resourceClass, c -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(method, m -> new EndpointStats(resourceClass.getSimpleName() + "." + m));
+        stats.histogram(status).record(nanos);
+    }
+
+    public void recordMappedException(Throwable exception) {
+        mappedExceptions.computeIfAbsent(exception.getClass().getSimpleName(), e -> new LongAdder()).increment();
+    }
+
+    // Prometheus text exposition format (version 0.0.4)
+    public void writePrometheus(StringBuilder out) {
+        Prometheus.header(out, "http_server_requests_seconds", "summary", "Request latency by endpoint and status");
+        for (Map<String, EndpointStats> methods : endpoints.values())
+            for (EndpointStats stats : methods.values())
+                writeEndpoint(out, stats);
+        writeEndpoint(out, unmatched);
+
+        Prometheus.header(out, "http_server_requests_max_seconds", "gauge", "Slowest request by endpoint and status");
+        for (Map<String, EndpointStats> methods : endpoints.values())
+            for (EndpointStats stats : methods.values())
+                writeMax(out, stats);
+        writeMax(out, unmatched);
+
+        Prometheus.header(out, "mapped_exceptions_total", "counter", "Exceptions handled by the exception mappers");
+        mappedExceptions.forEach((exception, counter) ->
+                Prometheus.sample(out, "mapped_exceptions_total", "exception=\"" + exception + '"', counter.sum()));
+    }
+
+    private static void writeEndpoint(StringBuilder out, EndpointStats stats) {
+        for (int status = 0; status < 600; status++) {
+            LatencyHistogram histogram = stats.byStatus.get(status);
+            if (histogram != null)
+                Prometheus.summary(out, "http_server_requests_seconds", labels(stats.endpoint, status), histogram);
+        }
+    }
+
+    private static void writeMax(StringBuilder out, EndpointStats stats) {
+        for (int status = 0; status < 600; status++) {
+            LatencyHistogram histogram = stats.byStatus.get(status);
+            if (histogram == null)
+                continue;
+            out.append("http_server_requests_max_seconds{").append(labels(stats.endpoint, status)).append("} ");
+            Prometheus.seconds(out, histogram.max()).append('\n');
+        }
+    }
+
+    private static String labels(String endpoint, int status) {
+        return "endpoint=\"" + endpoint + "\",status=\"" + status + '"';
+    }
+}
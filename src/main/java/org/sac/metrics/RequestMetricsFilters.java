@@ -0,0 +1,36 @@
+package org.sac.metrics;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+import org.jboss.resteasy.reactive.server.SimpleResourceInfo;
+
+// Times every REST request, from before resource matching to the response filters.
+// For streamed (Multi) responses this is the time to the first byte.
+class RequestMetricsFilters {
+
+    static final String START_NANOS = RequestMetricsFilters.class.getName() + ".start";
+
+    @Inject
+    RequestMetrics metrics;
+
+    @ServerRequestFilter(preMatching = true)
+    public void startTimer(ContainerRequestContext request) {
+        request.setProperty(START_NANOS, System.nanoTime());
+    }
+
+    @ServerResponseFilter
+    public void recordLatency(ContainerRequestContext request, ContainerResponseContext response,
+                              SimpleResourceInfo resourceInfo) {
+        Object start = request.getProperty(START_NANOS);
+        if (start == null)
+            return;
+        long nanos = System.nanoTime() - (Long) start;
+        if (resourceInfo != null)
+            metrics.recordRequest(resourceInfo.getResourceClass(), resourceInfo.getMethodName(), response.getStatus(), nanos);
+        else
+            metrics.recordRequest(null, null, response.getStatus(), nanos);
+    }
+}
@@ -0,0 +1,248 @@
+package org.sac.mutiny;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+// Groups a Multi into batches closed by count, by time or by byte budget, whichever comes first:
+//
+//   multi.plug(Batching.batches(500, Duration.ofMillis(20)))
+//   multi.plug(Batching.batches(500, Duration.ofMillis(20), 64 * 1024, e -> e.getName().length() + 16))
+//
+// Backpressure is preserved: upstream is only asked for items while the subscriber wants a
+// batch and every closed batch has been delivered, and only for what fills the batch being
+// built. So at most maxItems items are buffered, though not always in one batch: items asked
+// for before the time window or byte budget closed a batch go on into the next ones, and
+// those closed batches wait for the subscriber's next request. Memory is bounded by maxItems
+// items, not by one batch's maxBytes. Unlike group().intoLists().every(...), a slow
+// subscriber never causes a BackPressureFailure.
+public final class Batching {
+
+    private Batching() {
+    }
+
+    public static <T> Function<Multi<T>, Multi<List<T>>> batches(int maxItems) {
+        return batches(maxItems, null, Long.MAX_VALUE, item -> 0);
+    }
+
+    public static <T> Function<Multi<T>, Multi<List<T>>> batches(int maxItems, Duration maxDelay) {
+        return batches(maxItems, maxDelay, Long.MAX_VALUE, item -> 0);
+    }
+
+    // maxDelay null: no time limit; an item larger than maxBytes forms a batch on its own
+    public static <T> Function<Multi<T>, Multi<List<T>>> batches(int maxItems, Duration maxDelay,
+                                                                 long maxBytes, ToLongFunction<? super T> sizer) {
+        if (maxItems < 1)
+            throw new IllegalArgumentException("maxItems must be at least 1");
+        if (maxBytes < 1)
+            throw new IllegalArgumentException("maxBytes must be at least 1");
+        if (maxDelay != null && (maxDelay.isNegative() || maxDelay.isZero()))
+            throw new IllegalArgumentException("maxDelay must be positive");
+        return upstream -> Multi.createFrom().publisher(downstream -> upstream.subscribe(
+                new BatchingSubscriber<T>(downstream, maxItems, maxDelay, maxBytes, sizer,
+                        Infrastructure.getDefaultWorkerPool())));
+    }
+
+    // All state is guarded by the subscriber's monitor; signals to the downstream subscriber
+    // are only sent from drain(), which one thread at a time runs (wip counter), outside the lock.
+    static final class BatchingSubscriber<T> implements Flow.Subscriber<T>, Flow.Subscription {
+
+        private final Flow.Subscriber<? super List<T>> downstream;
+        private final int maxItems;
+        private final long maxDelayNanos;
+        private final long maxBytes;
+        private final ToLongFunction<? super T> sizer;
+        private final ScheduledExecutorService timer;
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private Flow.Subscription upstream;
+        private List<T> current;
+        private long currentBytes;
+        // incremented whenever a batch is closed, so a late timer does not close the next one
+        private long generation;
+        private ScheduledFuture<?> window;
+        private final ArrayDeque<List<T>> ready = new ArrayDeque<>();
+        private long demand;
+        private long outstanding;
+        private boolean done;
+        private Throwable failure;
+        private boolean cancelled;
+        private boolean terminated;
+
+        BatchingSubscriber(Flow.Subscriber<? super List<T>> downstream, int maxItems, Duration maxDelay,
+                           long maxBytes, ToLongFunction<? super T> sizer, ScheduledExecutorService timer) {
+            this.downstream = downstream;
+            this.maxItems = maxItems;
+            this.maxDelayNanos = maxDelay == null ? 0 : maxDelay.toNanos();
+            this.maxBytes = maxBytes;
+            this.sizer = sizer;
+            this.timer = timer;
+            this.current = new ArrayList<>(Math.min(maxItems, 1024));
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            upstream = subscription;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T item) {
+            long bytes = sizer.applyAsLong(item);
+            synchronized (this) {
+                // items may still arrive after cancel()
+                if (cancelled || done)
+                    return;
+                outstanding--;
+                if (!current.isEmpty() && currentBytes + bytes > maxBytes)
+                    closeBatch();
+                current.add(item);
+                currentBytes += bytes;
+                if (current.size() >= maxItems || currentBytes >= maxBytes)
+                    closeBatch();
+                else if (current.size() == 1 && maxDelayNanos > 0)
+                    startWindow();
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            synchronized (this) {
+                if (done)
+                    return;
+                failure = throwable;
+                done = true;
+            }
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            synchronized (this) {
+                if (done)
+                    return;
+                if (!current.isEmpty())
+                    closeBatch();
+                done = true;
+            }
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                // Reactive Streams rule 3.9
+                synchronized (this) {
+                    failure = new IllegalArgumentException("Invalid request " + n);
+                    done = true;
+                }
+                upstream.cancel();
+                drain();
+                return;
+            }
+            synchronized (this) {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                cancelWindow();
+                ready.clear();
+                current = List.of();
+            }
+            upstream.cancel();
+        }
+
+        private void startWindow() {
+            long batch = generation;
+            window = timer.schedule(() -> windowClosed(batch), maxDelayNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private void windowClosed(long batch) {
+            synchronized (this) {
+                if (batch != generation || current.isEmpty() || cancelled)
+                    return;
+                closeBatch();
+            }
+            drain();
+        }
+
+        // with the lock held
+        private void closeBatch() {
+            ready.add(current);
+            current = new ArrayList<>(Math.min(maxItems, 1024));
+            currentBytes = 0;
+            generation++;
+            cancelWindow();
+        }
+
+        private void cancelWindow() {
+            if (window != null) {
+                window.cancel(false);
+                window = null;
+            }
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0)
+                return;
+            do {
+                while (true) {
+                    List<T> batch;
+                    synchronized (this) {
+                        if (cancelled || demand == 0 || ready.isEmpty())
+                            break;
+                        batch = ready.poll();
+                        if (demand != Long.MAX_VALUE)
+                            demand--;
+                    }
+                    downstream.onNext(batch);
+                }
+
+                long toRequest = 0;
+                Throwable error = null;
+                boolean complete = false;
+                synchronized (this) {
+                    if (cancelled || terminated)
+                        return;
+                    if (done && (failure != null || ready.isEmpty())) {
+                        terminated = true;
+                        cancelWindow();
+                        error = failure;
+                        complete = failure == null;
+                    } else if (!done && demand > 0 && ready.isEmpty() && outstanding == 0) {
+                        // ask for what fills the batch being built
+                        toRequest = maxItems - current.size();
+                        outstanding = toRequest;
+                    }
+                }
+                if (error != null) {
+                    downstream.onError(error);
+                    return;
+                }
+                if (complete) {
+                    downstream.onComplete();
+                    return;
+                }
+                if (toRequest > 0)
+                    upstream.request(toRequest);
+            } while (wip.decrementAndGet() != 0);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.sac.mutiny;
+
+import jakarta.enterprise.util.Nonbinding;
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Single-flight for methods returning Uni: concurrent calls with equal arguments share one
+// subscription to the Uni of the first call and all get its item or failure (see Coalescer).
+// With ttlMillis > 0 items are also cached that long, at most maxEntries argument lists.
+// Arguments are compared with equals(), so they should be values (strings, numbers, records).
+//
+//   @Coalesce(ttlMillis = 500)
+//   public Uni<Report> report(String region) { ... }
+@InterceptorBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Coalesce {
+
+    @Nonbinding
+    long ttlMillis() default 0;
+
+    @Nonbinding
+    int maxEntries() default 1024;
+}
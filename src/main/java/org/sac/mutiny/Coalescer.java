@@ -0,0 +1,147 @@
+package org.sac.mutiny;
+
+import io.smallrye.mutiny.Uni;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Single-flight by key: while the Uni for a key is running, other subscriptions for the same
+// key join it instead of subscribing again, and all of them get the one item or failure.
+// Optionally successful items are then cached for ttl, at most maxEntries keys with the least
+// recently used evicted first. Failures are never cached, the next call tries again.
+//
+//   Coalescer<String, Report> reports = new Coalescer<>(Duration.ofMillis(500), 1024);
+//   Uni<Report> report = reports.get(region, Uni.createFrom().item(() -> compute(region)));
+//
+// The shared subscription runs to completion even if every waiting subscriber cancels, so the
+// result still reaches the cache. A call that arrives while a computation is running gets its
+// result even if it started before the caller's own earlier write; use ttl 0 where that is
+// the only staleness acceptable.
+public final class Coalescer<K, V> {
+
+    private record Cached<V>(V value, long expiresAt) {
+    }
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock cacheLock = new ReentrantLock();
+    // access order, guarded by cacheLock
+    private final LinkedHashMap<K, Cached<V>> cache;
+
+    final LongAdder loads = new LongAdder();
+    final LongAdder joins = new LongAdder();
+    final LongAdder hits = new LongAdder();
+
+    public Coalescer() {
+        this(Duration.ZERO, 0);
+    }
+
+    public Coalescer(Duration ttl, int maxEntries) {
+        if (ttl.isNegative())
+            throw new IllegalArgumentException("ttl must not be negative");
+        if (!ttl.isZero() && maxEntries < 1)
+            throw new IllegalArgumentException("maxEntries must be at least 1 with a ttl");
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Cached<V>> eldest) {
+                return size() > Coalescer.this.maxEntries;
+            }
+        };
+    }
+
+    // source is subscribed at most once per flight, when the returned Uni is subscribed to and
+    // neither a cached item nor a running flight exists for the key
+    public Uni<V> get(K key, Uni<V> source) {
+        return Uni.createFrom().deferred(() -> {
+            Cached<V> cached = cached(key);
+            if (cached != null) {
+                hits.increment();
+                return Uni.createFrom().item(cached.value());
+            }
+            CompletableFuture<V> flight = new CompletableFuture<>();
+            CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+            if (running != null) {
+                joins.increment();
+                return join(running);
+            }
+            // the previous flight may have finished between the cache lookup and putIfAbsent
+            cached = cached(key);
+            if (cached != null) {
+                inFlight.remove(key, flight);
+                hits.increment();
+                return Uni.createFrom().item(cached.value());
+            }
+            loads.increment();
+            source.subscribe().with(item -> finish(key, flight, item, null), failure -> finish(key, flight, null, failure));
+            return join(flight);
+        });
+    }
+
+    // a copy per subscriber, so one cancellation does not cancel the flight for the others
+    private static <V> Uni<V> join(CompletableFuture<V> flight) {
+        return Uni.createFrom().completionStage(flight::copy);
+    }
+
+    private void finish(K key, CompletableFuture<V> flight, V item, Throwable failure) {
+        // cache before leaving inFlight, so a new call finds one or the other
+        if (failure == null && ttlNanos > 0) {
+            cacheLock.lock();
+            try {
+                cache.put(key, new Cached<>(item, System.nanoTime() + ttlNanos));
+            } finally {
+                cacheLock.unlock();
+            }
+        }
+        inFlight.remove(key, flight);
+        if (failure == null)
+            flight.complete(item);
+        else
+            flight.completeExceptionally(failure);
+    }
+
+    private Cached<V> cached(K key) {
+        if (ttlNanos == 0)
+            return null;
+        cacheLock.lock();
+        try {
+            Cached<V> cached = cache.get(key);
+            if (cached != null && System.nanoTime() - cached.expiresAt() >= 0) {
+                cache.remove(key);
+                return null;
+            }
+            return cached;
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    public int cached() {
+        cacheLock.lock();
+        try {
+            return cache.size();
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        cacheLock.lock();
+        try {
+            cache.clear();
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+}
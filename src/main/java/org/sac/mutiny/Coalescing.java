@@ -0,0 +1,48 @@
+package org.sac.mutiny;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.sac.metrics.Prometheus;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// One Coalescer per @Coalesce method, named "Resource.method" like the execution modes and
+// pipeline profiles. The running service exports their counters on /api/metrics.
+@ApplicationScoped
+public class Coalescing {
+
+    private final Map<Method, Named> coalescers = new ConcurrentHashMap<>();
+
+    private record Named(String name, Coalescer<List<Object>, Object> coalescer) {
+    }
+
+    Coalescer<List<Object>, Object> of(Method method) {
+        Named named = coalescers.get(method);
+        return (named != null ? named : coalescers.computeIfAbsent(method, Coalescing::create)).coalescer();
+    }
+
+    private static Named create(Method method) {
+        Coalesce settings = method.getAnnotation(Coalesce.class);
+        if (settings == null)
+            settings = method.getDeclaringClass().getAnnotation(Coalesce.class);
+        Coalescer<List<Object>, Object> coalescer = settings == null
+                ? new Coalescer<>()
+                : new Coalescer<>(Duration.ofMillis(settings.ttlMillis()), settings.maxEntries());
+        return new Named(method.getDeclaringClass().getSimpleName() + "." + method.getName(), coalescer);
+    }
+
+    public void writePrometheus(StringBuilder out) {
+        Prometheus.header(out, "coalesce_calls_total", "counter",
+                "Calls of @Coalesce methods that subscribed (load), joined a running call or hit the cache");
+        for (Named named : coalescers.values()) {
+            String labels = "method=\"" + named.name() + '"';
+            Coalescer<?, ?> coalescer = named.coalescer();
+            Prometheus.sample(out, "coalesce_calls_total", labels + ",outcome=\"load\"", coalescer.loads.sum());
+            Prometheus.sample(out, "coalesce_calls_total", labels + ",outcome=\"join\"", coalescer.joins.sum());
+            Prometheus.sample(out, "coalesce_calls_total", labels + ",outcome=\"hit\"", coalescer.hits.sum());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.sac.mutiny;
+
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+import java.util.Arrays;
+
+// Applies @Coalesce. Calling the method only assembles its Uni, the work starts on
+// subscription, so every call still runs the method and the coalescing happens on subscribe.
+// Methods that do not return Uni are not touched.
+@Coalesce
+@Interceptor
+@Priority(Interceptor.Priority.APPLICATION)
+public class CoalescingInterceptor {
+
+    @Inject
+    Coalescing coalescing;
+
+    @AroundInvoke
+    @SuppressWarnings("unchecked")
+    Object coalesce(InvocationContext context) throws Exception {
+        Object result = context.proceed();
+        if (!(result instanceof Uni<?> uni))
+            return result;
+        // a copy: the parameter array may be reused once the call returns
+        var key = Arrays.asList(context.getParameters().clone());
+        return coalescing.of(context.getMethod()).get(key, (Uni<Object>) uni);
+    }
+}
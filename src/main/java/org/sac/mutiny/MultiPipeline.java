@@ -91,5 +91,11 @@ public class MultiPipeline {
         // The generator function return value is the next current state
         // o/p: 2 4 7 11 17 26 40 61
 
+        // Batching: group items by count, time window or byte budget, whichever comes first
+        // (see Batching). Downstream handles a list per call instead of one item per call.
+        Multi.createFrom().ticks().every(Duration.ofMillis(10))
+                .select().first(25)
+                .plug(Batching.batches(10, Duration.ofMillis(50)))
+                .subscribe().with(batch -> System.out.println("\nbatch: " + batch));
     }
 }
@@ -0,0 +1,148 @@
+package org.sac.mutiny;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Context;
+import org.sac.metrics.LatencyHistogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Aggregates for one named pipeline, see PipelineProfiler
+public final class PipelineProfile {
+
+    public enum Event {
+        SUBSCRIBE("subscribe"), ITEM("item"), REQUEST("request"), UNBOUNDED_REQUEST("unbounded_request"),
+        COMPLETE("complete"), FAILURE("failure"), CANCEL("cancel");
+
+        final String label;
+
+        Event(String label) {
+            this.label = label;
+        }
+    }
+
+    // kind of thread a signal ran on; a change between two signals is a thread hop
+    public enum ThreadKind {
+        EVENT_LOOP("event-loop"), WORKER("worker"), VIRTUAL("virtual"), OTHER("other");
+
+        final String label;
+
+        ThreadKind(String label) {
+            this.label = label;
+        }
+
+        // computed once per platform thread
+        private static final ThreadLocal<ThreadKind> CURRENT = ThreadLocal.withInitial(() -> {
+            if (Context.isOnEventLoopThread())
+                return EVENT_LOOP;
+            // Vert.x workers, or the Quarkus worker pool (also Mutiny's default executor in Quarkus)
+            if (Context.isOnWorkerThread() || Thread.currentThread().getName().startsWith("executor-thread"))
+                return WORKER;
+            return OTHER;
+        });
+
+        static ThreadKind current() {
+            return Thread.currentThread().isVirtual() ? VIRTUAL : CURRENT.get();
+        }
+    }
+
+    interface HopConsumer {
+        void accept(ThreadKind from, ThreadKind to, long count);
+    }
+
+    final String name;
+    final String labels;
+    final LatencyHistogram total = new LatencyHistogram();
+    final Map<String, LatencyHistogram> stages = new ConcurrentHashMap<>();
+    private final LongAdder[] events = new LongAdder[Event.values().length];
+    private final LongAdder requestedItems = new LongAdder();
+    // from * kinds + to
+    private final LongAdder[] hops = new LongAdder[ThreadKind.values().length * ThreadKind.values().length];
+
+    PipelineProfile(String name) {
+        this.name = name;
+        this.labels = "pipeline=\"" + name + '"';
+        for (int i = 0; i < events.length; i++)
+            events[i] = new LongAdder();
+        for (int i = 0; i < hops.length; i++)
+            hops[i] = new LongAdder();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    // profiles every subscription to the Uni built by pipeline
+    public <T> Uni<T> uni(Function<PipelineTrace, Uni<T>> pipeline) {
+        return Uni.createFrom().deferred(() -> {
+            PipelineTrace trace = new PipelineTrace(this);
+            return pipeline.apply(trace)
+                    .onItemOrFailure().invoke((item, failure) -> {
+                        if (failure == null)
+                            trace.item();
+                        trace.terminated(failure == null ? Event.COMPLETE : Event.FAILURE);
+                    })
+                    .onCancellation().invoke(() -> trace.terminated(Event.CANCEL));
+        });
+    }
+
+    // profiles every subscription to the Multi built by pipeline, including the demand
+    // the subscriber signals
+    public <T> Multi<T> multi(Function<PipelineTrace, Multi<T>> pipeline) {
+        return Multi.createFrom().deferred(() -> {
+            PipelineTrace trace = new PipelineTrace(this);
+            return pipeline.apply(trace)
+                    .onItem().invoke(trace::item)
+                    .onFailure().invoke(() -> trace.terminated(Event.FAILURE))
+                    .onCompletion().invoke(() -> trace.terminated(Event.COMPLETE))
+                    .onCancellation().invoke(() -> trace.terminated(Event.CANCEL))
+                    .onRequest().invoke(trace::requested);
+        });
+    }
+
+    LatencyHistogram stage(String stage) {
+        LatencyHistogram histogram = stages.get(stage);
+        return histogram != null ? histogram : stages.computeIfAbsent(stage, s -> new LatencyHistogram());
+    }
+
+    void record(Event event) {
+        events[event.ordinal()].increment();
+    }
+
+    void requested(long n) {
+        if (n == Long.MAX_VALUE) {
+            record(Event.UNBOUNDED_REQUEST);
+        } else {
+            record(Event.REQUEST);
+            requestedItems.add(n);
+        }
+    }
+
+    void hop(ThreadKind from, ThreadKind to) {
+        hops[from.ordinal() * ThreadKind.values().length + to.ordinal()].increment();
+    }
+
+    public long count(Event event) {
+        return events[event.ordinal()].sum();
+    }
+
+    public long requestedItems() {
+        return requestedItems.sum();
+    }
+
+    public long hops(ThreadKind from, ThreadKind to) {
+        return hops[from.ordinal() * ThreadKind.values().length + to.ordinal()].sum();
+    }
+
+    void forEachHop(HopConsumer consumer) {
+        for (ThreadKind from : ThreadKind.values())
+            for (ThreadKind to : ThreadKind.values()) {
+                long count = hops(from, to);
+                if (count > 0)
+                    consumer.accept(from, to, count);
+            }
+    }
+}
@@ -0,0 +1,61 @@
+package org.sac.mutiny;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.sac.metrics.Prometheus;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Aggregated profiles of named Uni/Multi pipelines, built on the hooks ObservingEvents prints
+// (onSubscription, onItem, onRequest, onCancellation, ...). Wrap a pipeline and mark its stages:
+//
+//   Uni<String> result = profiler.pipeline("UniPipeline2.method1").uni(trace -> Uni.createFrom().item(1)
+//           .onItem().transform(i -> "hello" + i)
+//           .onItem().invoke(trace.stage("transform"))
+//           .onItem().delayIt().by(Duration.ofMillis(1000))
+//           .onItem().invoke(trace.stage("delay")));
+//
+// Each subscription gets its own PipelineTrace; only the aggregates (histograms and counters)
+// are kept, so the cost is a few objects per subscription and a few atomic adds per signal.
+// The running service exports its profiles on /api/metrics.
+@ApplicationScoped
+public class PipelineProfiler {
+
+    private final Map<String, PipelineProfile> pipelines = new ConcurrentHashMap<>();
+
+    public PipelineProfile pipeline(String name) {
+        PipelineProfile profile = pipelines.get(name);
+        return profile != null ? profile : pipelines.computeIfAbsent(name, PipelineProfile::new);
+    }
+
+    public void writePrometheus(StringBuilder out) {
+        Prometheus.header(out, "mutiny_pipeline_seconds", "summary",
+                "Time from subscription to completion, failure or cancellation");
+        for (PipelineProfile profile : pipelines.values())
+            Prometheus.summary(out, "mutiny_pipeline_seconds", profile.labels, profile.total);
+
+        Prometheus.header(out, "mutiny_pipeline_stage_seconds", "summary",
+                "Time from the previous stage mark (or the subscription) to this one");
+        for (PipelineProfile profile : pipelines.values())
+            profile.stages.forEach((stage, histogram) -> Prometheus.summary(out, "mutiny_pipeline_stage_seconds",
+                    profile.labels + ",stage=\"" + stage + '"', histogram));
+
+        Prometheus.header(out, "mutiny_pipeline_events_total", "counter",
+                "Subscriptions, items, requests, completions, failures and cancellations");
+        for (PipelineProfile profile : pipelines.values())
+            for (PipelineProfile.Event event : PipelineProfile.Event.values())
+                Prometheus.sample(out, "mutiny_pipeline_events_total",
+                        profile.labels + ",event=\"" + event.label + '"', profile.count(event));
+
+        Prometheus.header(out, "mutiny_pipeline_requested_items_total", "counter",
+                "Items requested by subscribers, unbounded requests excluded");
+        for (PipelineProfile profile : pipelines.values())
+            Prometheus.sample(out, "mutiny_pipeline_requested_items_total", profile.labels, profile.requestedItems());
+
+        Prometheus.header(out, "mutiny_pipeline_thread_hops_total", "counter",
+                "Signals that ran on a different kind of thread than the previous one");
+        for (PipelineProfile profile : pipelines.values())
+            profile.forEachHop((from, to, count) -> Prometheus.sample(out, "mutiny_pipeline_thread_hops_total",
+                    profile.labels + ",from=\"" + from.label + "\",to=\"" + to.label + '"', count));
+    }
+}
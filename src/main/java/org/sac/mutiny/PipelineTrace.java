@@ -0,0 +1,67 @@
+package org.sac.mutiny;
+
+import org.sac.metrics.LatencyHistogram;
+import org.sac.mutiny.PipelineProfile.Event;
+import org.sac.mutiny.PipelineProfile.ThreadKind;
+
+// One subscription to a profiled pipeline. Stage marks measure the time since the previous
+// mark (or the subscription), and note a thread hop when the signal runs on a different kind
+// of thread than the previous one. For a Multi the time is taken per item, which is exact as
+// long as the pipeline has a single item in flight between two marks.
+//
+// Item and terminal signals are serialized (Reactive Streams), so the fields need no
+// synchronization; requests only touch the profile counters.
+public final class PipelineTrace {
+
+    private final PipelineProfile profile;
+    private final long subscribed;
+    private long lastMark;
+    private ThreadKind lastThread;
+    private boolean terminated;
+
+    PipelineTrace(PipelineProfile profile) {
+        this.profile = profile;
+        this.subscribed = System.nanoTime();
+        this.lastMark = subscribed;
+        this.lastThread = ThreadKind.current();
+        profile.record(Event.SUBSCRIBE);
+    }
+
+    // a mark to pass to onItem().invoke(...) after the stage it ends
+    public Runnable stage(String name) {
+        LatencyHistogram histogram = profile.stage(name);
+        return () -> mark(histogram);
+    }
+
+    private void mark(LatencyHistogram histogram) {
+        long now = System.nanoTime();
+        histogram.record(now - lastMark);
+        lastMark = now;
+        checkThread();
+    }
+
+    private void checkThread() {
+        ThreadKind thread = ThreadKind.current();
+        if (thread != lastThread) {
+            profile.hop(lastThread, thread);
+            lastThread = thread;
+        }
+    }
+
+    void item() {
+        profile.record(Event.ITEM);
+    }
+
+    void requested(long n) {
+        profile.requested(n);
+    }
+
+    void terminated(Event event) {
+        if (terminated)
+            return;
+        terminated = true;
+        profile.record(event);
+        profile.total.record(System.nanoTime() - subscribed);
+        checkThread();
+    }
+}
@@ -24,6 +24,14 @@ public class UniPipeline2 {
         System.out.println("subscribed2");
 
         System.out.println("main finished " + Thread.currentThread());
+
+        // the same pipeline with its stages measured instead of printed
+        PipelineProfiler profiler = new PipelineProfiler();
+        for (int i = 0; i < 3; i++)
+            profiledMethod1(profiler).await().indefinitely();
+        StringBuilder report = new StringBuilder();
+        profiler.writePrometheus(report);
+        System.out.println(report);
     }
 
     public static Uni<String> method1() {
@@ -41,4 +49,13 @@ public class UniPipeline2 {
 
         return result;
     }
+
+    // method1 with a mark after each stage, see PipelineProfiler
+    public static Uni<String> profiledMethod1(PipelineProfiler profiler) {
+        return profiler.pipeline("UniPipeline2.method1").uni(trace -> Uni.createFrom().item(1)
+                .onItem().transform(i -> "hello" + i)
+                .onItem().invoke(trace.stage("transform"))
+                .onItem().delayIt().by(Duration.ofMillis(1000))
+                .onItem().invoke(trace.stage("delay")));
+    }
 }
@@ -0,0 +1,36 @@
+package org.sac.security;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.reactive.RestResponse;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.sac.http.PreEncodedResponse;
+
+// Authorization: Bearer <jwt> sets the request's SecurityContext; a token that does not
+// verify is a 401 ahead of admission control. Requests without a bearer token pass through
+// anonymous. Not pre-matching: RESTEasy Reactive hands a SecurityContext set that early to
+// the Quarkus security extension, which this application does not include.
+class AuthenticationFilters {
+
+    private static final String BEARER = "Bearer ";
+
+    @Inject
+    TokenAuthentication authentication;
+
+    @ServerRequestFilter(priority = Priorities.AUTHENTICATION)
+    public RestResponse<PreEncodedResponse> authenticate(ContainerRequestContext request) {
+        if (!authentication.enabled())
+            return null;
+        String header = request.getHeaderString(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length()))
+            return null;
+        JwtVerifier.Claims claims = authentication.authenticate(header.substring(BEARER.length()).strip());
+        if (claims == null)
+            return RestResponse.status(Response.Status.UNAUTHORIZED, authentication.invalidToken());
+        request.setSecurityContext(new TokenSecurityContext(claims, request.getSecurityContext().isSecure()));
+        return null;
+    }
+}
@@ -0,0 +1,10 @@
+package org.sac.security;
+
+// A bearer token that does not verify. The message is for logs, clients only get a 401.
+public class InvalidTokenException extends Exception {
+
+    public InvalidTokenException(String message) {
+        // no stack trace: thrown for every bad token, never a bug
+        super(message, null, false, false);
+    }
+}
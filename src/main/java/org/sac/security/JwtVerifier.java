@@ -0,0 +1,188 @@
+package org.sac.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// Verifies compact JWS tokens (header.payload.signature, base64url) against one local key:
+// - an HMAC secret (HS256/HS384/HS512): the key file holds the secret itself
+// - an RSA public key (RS256/RS384/RS512): the key file is a PEM "PUBLIC KEY"
+// The header's alg must belong to the key's family, so an RSA public key can never be
+// used as an HMAC secret, and "none" is never accepted. exp is required; nbf and iss are
+// checked when present (iss only when an issuer is configured).
+// Claims follow MicroProfile JWT: the name is upn, else sub; roles are the groups array.
+//
+//   openssl genpkey -algorithm RSA -out private.pem && openssl pkey -in private.pem -pubout -out public.pem
+public final class JwtVerifier {
+
+    // tolerated clock difference to the issuer for nbf
+    static final long LEEWAY_SECONDS = 30;
+
+    private static final ObjectMapper JSON = JsonMapper.builder().build();
+    private static final Base64.Decoder BASE64URL = Base64.getUrlDecoder();
+
+    private enum Algorithm {
+        HS256("HmacSHA256"), HS384("HmacSHA384"), HS512("HmacSHA512"),
+        RS256("SHA256withRSA"), RS384("SHA384withRSA"), RS512("SHA512withRSA");
+
+        final String jca;
+
+        Algorithm(String jca) {
+            this.jca = jca;
+        }
+
+        boolean hmac() {
+            return name().startsWith("HS");
+        }
+    }
+
+    public record Claims(String name, Set<String> groups, long expiresAt) {
+    }
+
+    private final byte[] secret;
+    private final PublicKey publicKey;
+    private final String issuer;
+    private final Clock clock;
+
+    private JwtVerifier(byte[] secret, PublicKey publicKey, String issuer, Clock clock) {
+        this.secret = secret;
+        this.publicKey = publicKey;
+        this.issuer = issuer;
+        this.clock = clock;
+    }
+
+    public static JwtVerifier hmac(byte[] secret, String issuer, Clock clock) {
+        // RFC 7518: at least as long as the hash output of HS256
+        if (secret.length < 32)
+            throw new IllegalArgumentException("HMAC secret must be at least 32 bytes, got " + secret.length);
+        return new JwtVerifier(secret.clone(), null, issuer, clock);
+    }
+
+    public static JwtVerifier rsa(PublicKey key, String issuer, Clock clock) {
+        return new JwtVerifier(null, key, issuer, clock);
+    }
+
+    // a PEM public key means RSA, anything else is an HMAC secret (surrounding whitespace
+    // removed, so a trailing newline does not become part of it)
+    public static JwtVerifier fromKeyFile(Path file, String issuer, Clock clock) throws IOException, GeneralSecurityException {
+        String content = Files.readString(file, StandardCharsets.ISO_8859_1).strip();
+        if (content.startsWith("-----BEGIN PUBLIC KEY-----")) {
+            String base64 = content.replace("-----BEGIN PUBLIC KEY-----", "")
+                    .replace("-----END PUBLIC KEY-----", "")
+                    .replaceAll("\\s", "");
+            PublicKey key = KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(base64)));
+            return rsa(key, issuer, clock);
+        }
+        if (content.startsWith("-----BEGIN"))
+            throw new GeneralSecurityException("Unsupported key in " + file + ", expected a PEM PUBLIC KEY or an HMAC secret");
+        return hmac(content.getBytes(StandardCharsets.ISO_8859_1), issuer, clock);
+    }
+
+    public Claims verify(String token) throws InvalidTokenException {
+        int first = token.indexOf('.');
+        int second = first < 0 ? -1 : token.indexOf('.', first + 1);
+        if (first < 0 || second < 0 || token.indexOf('.', second + 1) >= 0)
+            throw new InvalidTokenException("Not a compact JWS");
+        JsonNode header = json(token.substring(0, first));
+        Algorithm algorithm = algorithm(header.path("alg").asText());
+
+        byte[] signed = token.substring(0, second).getBytes(StandardCharsets.US_ASCII);
+        byte[] signature = base64(token.substring(second + 1));
+        try {
+            if (!(algorithm.hmac() ? verifyHmac(algorithm, signed, signature) : verifyRsa(algorithm, signed, signature)))
+                throw new InvalidTokenException("Bad signature");
+        } catch (GeneralSecurityException e) {
+            throw new InvalidTokenException("Signature check failed: " + e.getMessage());
+        }
+        // the payload is only looked at once the signature holds
+        return claims(json(token.substring(first + 1, second)));
+    }
+
+    private Algorithm algorithm(String alg) throws InvalidTokenException {
+        Algorithm algorithm;
+        try {
+            algorithm = Algorithm.valueOf(alg);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTokenException("Unsupported alg " + alg);
+        }
+        if (algorithm.hmac() != (secret != null))
+            throw new InvalidTokenException("alg " + alg + " does not match the configured key");
+        return algorithm;
+    }
+
+    private boolean verifyHmac(Algorithm algorithm, byte[] signed, byte[] signature) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(algorithm.jca);
+        mac.init(new SecretKeySpec(secret, algorithm.jca));
+        // constant time
+        return MessageDigest.isEqual(mac.doFinal(signed), signature);
+    }
+
+    private boolean verifyRsa(Algorithm algorithm, byte[] signed, byte[] signature) throws GeneralSecurityException {
+        Signature verifier = Signature.getInstance(algorithm.jca);
+        verifier.initVerify(publicKey);
+        verifier.update(signed);
+        return verifier.verify(signature);
+    }
+
+    private Claims claims(JsonNode payload) throws InvalidTokenException {
+        long now = clock.millis() / 1000;
+        JsonNode exp = payload.get("exp");
+        if (exp == null || !exp.canConvertToLong())
+            throw new InvalidTokenException("exp missing");
+        if (now >= exp.asLong())
+            throw new InvalidTokenException("Expired");
+        JsonNode nbf = payload.get("nbf");
+        if (nbf != null && !nbf.canConvertToLong())
+            throw new InvalidTokenException("nbf not a number");
+        if (nbf != null && now + LEEWAY_SECONDS < nbf.asLong())
+            throw new InvalidTokenException("Not valid yet");
+        if (issuer != null && !issuer.equals(payload.path("iss").asText(null)))
+            throw new InvalidTokenException("Wrong issuer");
+
+        String name = payload.path("upn").asText(null);
+        if (name == null)
+            name = payload.path("sub").asText(null);
+        if (name == null)
+            throw new InvalidTokenException("Neither upn nor sub");
+        Set<String> groups = new LinkedHashSet<>();
+        for (JsonNode group : payload.path("groups"))
+            groups.add(group.asText());
+        return new Claims(name, Set.copyOf(groups), exp.asLong());
+    }
+
+    private static JsonNode json(String part) throws InvalidTokenException {
+        try {
+            JsonNode node = JSON.readTree(base64(part));
+            if (node == null || !node.isObject())
+                throw new InvalidTokenException("Not a JSON object");
+            return node;
+        } catch (IOException e) {
+            throw new InvalidTokenException("Invalid JSON");
+        }
+    }
+
+    private static byte[] base64(String part) throws InvalidTokenException {
+        try {
+            return BASE64URL.decode(part);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTokenException("Invalid base64url");
+        }
+    }
+}
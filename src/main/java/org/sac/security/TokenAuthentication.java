@@ -0,0 +1,91 @@
+package org.sac.security;
+
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.sac.http.PreEncodedResponse;
+import org.sac.http.PreEncodedResponses;
+import org.sac.metrics.Prometheus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.time.Clock;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bearer token authentication against a local key file, no identity provider involved:
+//   auth.jwt.key-file=/etc/app/jwt.pem   (RSA public key, or a file holding an HMAC secret)
+//   auth.jwt.issuer=https://issuer       (optional, then iss must match)
+//   auth.jwt.cache-size=10000
+// Without a key file bearer tokens are ignored and every request is anonymous.
+// Repeat tokens are served from a TokenCache; the running service exports the verification
+// counts on /api/metrics.
+@ApplicationScoped
+public class TokenAuthentication {
+
+    private final JwtVerifier verifier;
+    private final TokenCache cache;
+    private final Clock clock = Clock.systemUTC();
+    private final PreEncodedResponse invalidToken;
+
+    private final LongAdder cached = new LongAdder();
+    private final LongAdder verified = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @Inject
+    public TokenAuthentication(@ConfigProperty(name = "auth.jwt.key-file") Optional<String> keyFile,
+                               @ConfigProperty(name = "auth.jwt.issuer") Optional<String> issuer,
+                               @ConfigProperty(name = "auth.jwt.cache-size", defaultValue = "10000") int cacheSize,
+                               PreEncodedResponses responses) {
+        try {
+            verifier = keyFile.isPresent() ? JwtVerifier.fromKeyFile(Path.of(keyFile.get()), issuer.orElse(null), clock) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read auth.jwt.key-file " + keyFile.get(), e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid key in auth.jwt.key-file " + keyFile.get(), e);
+        }
+        cache = new TokenCache(cacheSize);
+        invalidToken = responses.encode(PreEncodedResponse.of("Invalid bearer token", MediaType.TEXT_PLAIN + ";charset=UTF-8")
+                .header("WWW-Authenticate", "Bearer error=\"invalid_token\""));
+    }
+
+    boolean enabled() {
+        return verifier != null;
+    }
+
+    PreEncodedResponse invalidToken() {
+        return invalidToken;
+    }
+
+    // null when the token does not verify
+    JwtVerifier.Claims authenticate(String token) {
+        long now = clock.millis() / 1000;
+        JwtVerifier.Claims claims = cache.get(token, now);
+        if (claims != null) {
+            cached.increment();
+            return claims;
+        }
+        try {
+            claims = verifier.verify(token);
+        } catch (InvalidTokenException e) {
+            rejected.increment();
+            Log.debugf("Rejected bearer token: %s", e.getMessage());
+            return null;
+        }
+        verified.increment();
+        cache.put(token, claims, now);
+        return claims;
+    }
+
+    public void writePrometheus(StringBuilder out) {
+        Prometheus.header(out, "auth_tokens_total", "counter",
+                "Bearer tokens served from the verification cache, verified by signature, or rejected");
+        Prometheus.sample(out, "auth_tokens_total", "outcome=\"cached\"", cached.sum());
+        Prometheus.sample(out, "auth_tokens_total", "outcome=\"verified\"", verified.sum());
+        Prometheus.sample(out, "auth_tokens_total", "outcome=\"rejected\"", rejected.sum());
+    }
+}
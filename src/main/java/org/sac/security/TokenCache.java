@@ -0,0 +1,62 @@
+package org.sac.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Verified tokens, keyed by the whole token string (signature included, so a modified token
+// is a miss) until their exp. A hit is one map lookup and a clock comparison instead of a
+// signature check. Bounded: when full, expired entries are dropped first, then arbitrary
+// ones, a tenth of the capacity at a time, so the eviction cost is spread over many puts.
+// Puts take a lock, so the cache never holds more than maxEntries; a put only follows a
+// signature check, which costs far more than the lock.
+// Failures are not cached; that would let anyone fill the cache with garbage tokens.
+public final class TokenCache {
+
+    private final int maxEntries;
+    private final Map<String, JwtVerifier.Claims> tokens = new ConcurrentHashMap<>();
+    private final ReentrantLock puts = new ReentrantLock();
+
+    public TokenCache(int maxEntries) {
+        if (maxEntries < 1)
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        this.maxEntries = maxEntries;
+    }
+
+    // now in epoch seconds
+    public JwtVerifier.Claims get(String token, long now) {
+        JwtVerifier.Claims claims = tokens.get(token);
+        if (claims == null)
+            return null;
+        if (now >= claims.expiresAt()) {
+            tokens.remove(token, claims);
+            return null;
+        }
+        return claims;
+    }
+
+    public void put(String token, JwtVerifier.Claims claims, long now) {
+        puts.lock();
+        try {
+            if (tokens.size() >= maxEntries && !tokens.containsKey(token))
+                evict(now);
+            tokens.put(token, claims);
+        } finally {
+            puts.unlock();
+        }
+    }
+
+    private void evict(long now) {
+        tokens.values().removeIf(claims -> now >= claims.expiresAt());
+        int target = maxEntries - Math.max(1, maxEntries / 10);
+        for (Iterator<String> it = tokens.keySet().iterator(); tokens.size() > target && it.hasNext(); ) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    public int size() {
+        return tokens.size();
+    }
+}
@@ -0,0 +1,29 @@
+package org.sac.security;
+
+import jakarta.ws.rs.core.SecurityContext;
+
+import java.security.Principal;
+
+// The caller of a request that carried a verified bearer token
+record TokenSecurityContext(JwtVerifier.Claims claims, boolean secure) implements SecurityContext {
+
+    @Override
+    public Principal getUserPrincipal() {
+        return claims::name;
+    }
+
+    @Override
+    public boolean isUserInRole(String role) {
+        return claims.groups().contains(role);
+    }
+
+    @Override
+    public boolean isSecure() {
+        return secure;
+    }
+
+    @Override
+    public String getAuthenticationScheme() {
+        return "Bearer";
+    }
+}
@@ -0,0 +1,830 @@
+package org.sac.store;
+
+import org.sac.EmployeeResource.Employee;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import static org.sac.EmployeeResource.MAX_AGE;
+
+// Employee store in columns (employee.store.mode=columnar), for large employee counts.
+// An employee is a row: its age in an int column, its name as UTF-8 bytes in an off-heap
+// arena referenced by offset and length. The name dictionary (open addressing over row
+// numbers) and the age index (per age, the rows sorted by name) are int arrays too, so the
+// heap holds a few primitive arrays instead of millions of Employee, String, Integer and map
+// node objects, and the collector has next to nothing to trace. Employee objects are only
+// created on the way out.
+// Names are ordered by their UTF-8 bytes, that is by code point, which differs from String
+// order only for supplementary characters.
+// The rows are split over STRIPES stripes by a hash of the name, each with its own columns,
+// dictionary, age index, name arena and read/write lock. A write locks its stripe only: it
+// waits for readers of that stripe and holds up that stripe's readers while it shifts the
+// stripe's part of the age run. putAll applies a batch with one lock per stripe and rebuilds
+// each age run it touches once. Range reads (page, all, ages, names) read-lock every stripe,
+// in index order, for one page or snapshot and merge the stripes' runs of each age by name;
+// writes wait for them meanwhile.
+public class ColumnarEmployeeStore implements EmployeeStore {
+
+    private static final int STRIPES = 16;          // a power of two, see stripeIndex
+    private static final int FREE = -1;             // age of a removed row
+    private static final int ITERATION_PAGE = 256;  // all() iterates page by page
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public ColumnarEmployeeStore() {
+        this(1024, 1 << 20);
+    }
+
+    // capacities of the whole store, spread over the stripes
+    ColumnarEmployeeStore(int initialRows, long initialNameBytes) {
+        for (int i = 0; i < STRIPES; i++)
+            stripes[i] = new Stripe(Math.max(1, initialRows / STRIPES), Math.max(1, initialNameBytes / STRIPES));
+    }
+
+    @Override
+    public Employee get(String name) {
+        byte[] key = utf8(name);
+        int hash = hash(key);
+        Stripe stripe = stripe(hash);
+        stripe.lock.readLock().lock();
+        try {
+            int slot = stripe.findSlot(MemorySegment.ofArray(key), hash);
+            return slot >= 0 ? new Employee(name, stripe.ages[stripe.slots[slot] - 1]) : null;
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    // the previous employee is a copy, the store keeps no Employee objects
+    @Override
+    public Employee put(Employee employee) {
+        int age = checkAge(employee);
+        byte[] bytes = utf8(employee.getName());
+        int hash = hash(bytes);
+        Stripe stripe = stripe(hash);
+        stripe.lock.writeLock().lock();
+        try {
+            int previousAge = stripe.put(bytes, hash, age);
+            return previousAge == FREE ? null : new Employee(employee.getName(), previousAge);
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    // Per stripe under one write lock: the rows are written first, then every age run the
+    // batch changed is rebuilt once, instead of shifting the run for each employee. The batch
+    // is checked before anything is written.
+    @Override
+    @SuppressWarnings("unchecked")
+    public void putAll(Collection<Employee> employees) {
+        List<Pending>[] byStripe = new List[STRIPES];
+        for (Employee employee : employees) {
+            int age = checkAge(employee);
+            byte[] bytes = utf8(employee.getName());
+            int hash = hash(bytes);
+            int stripe = stripeIndex(hash);
+            if (byStripe[stripe] == null)
+                byStripe[stripe] = new ArrayList<>();
+            byStripe[stripe].add(new Pending(bytes, hash, age));
+        }
+        for (int i = 0; i < STRIPES; i++) {
+            if (byStripe[i] == null)
+                continue;
+            Stripe stripe = stripes[i];
+            stripe.lock.writeLock().lock();
+            try {
+                stripe.putAll(byStripe[i]);
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public Employee remove(String name) {
+        byte[] bytes = utf8(name);
+        int hash = hash(bytes);
+        Stripe stripe = stripe(hash);
+        stripe.lock.writeLock().lock();
+        try {
+            int age = stripe.remove(bytes, hash);
+            return age == FREE ? null : new Employee(name, age);
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    // a binary search per stripe in the start age, then the age runs merged in order
+    @Override
+    public Page page(int minAge, int maxAge, AgeKey after, int limit) {
+        int age = Math.max(minAge, 0);
+        int toAge = Math.min(maxAge, MAX_AGE);
+        List<Employee> items = new ArrayList<>(Math.min(limit, 256));
+        AgeKey last = null;
+        boolean hasMore = false;
+        lockAll();
+        try {
+            int[] positions = new int[STRIPES];
+            // (minAge, "") is the smallest key of minAge
+            if (after != null && after.age() >= minAge && after.age() >= age) {
+                age = after.age();
+                if (age <= MAX_AGE) {
+                    MemorySegment key = MemorySegment.ofArray(utf8(after.name()));
+                    for (int i = 0; i < STRIPES; i++) {
+                        int found = stripes[i].search(age, key);
+                        positions[i] = found >= 0 ? found + 1 : -(found + 1);
+                    }
+                }
+            }
+            for (; age <= toAge; age++, Arrays.fill(positions, 0)) {
+                AgeRuns runs = new AgeRuns(age, positions);
+                for (; !runs.isEmpty() && items.size() < limit; runs.advance()) {
+                    String name = stripes[runs.stripe()].decode(runs.row());
+                    items.add(new Employee(name, age));
+                    last = new AgeKey(age, name);
+                }
+                if (!runs.isEmpty()) {
+                    hasMore = true;
+                    break;
+                }
+            }
+            return new Page(items, last, hasMore);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    // iterates page by page, each page decoded under the read locks
+    @Override
+    public Collection<Employee> all() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Employee> iterator() {
+                return new AllIterator();
+            }
+
+            @Override
+            public int size() {
+                return ColumnarEmployeeStore.this.size();
+            }
+        };
+    }
+
+    // a snapshot: the age counts give runs of equal ages
+    @Override
+    public Spliterator.OfInt ages() {
+        lockAll();
+        try {
+            int total = 0;
+            for (Stripe stripe : stripes)
+                total += stripe.size;
+            int[] snapshot = new int[total];
+            int position = 0;
+            for (int age = 0; age <= MAX_AGE; age++) {
+                int count = 0;
+                for (Stripe stripe : stripes)
+                    count += stripe.ageCounts[age];
+                Arrays.fill(snapshot, position, position + count, age);
+                position += count;
+            }
+            return Arrays.spliterator(snapshot);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    // a snapshot of the rows in (age, name) order and their generations, names are decoded
+    // lazily (rows removed meanwhile are skipped, also when they were reused for another
+    // employee)
+    @Override
+    public Spliterator<String> names() {
+        lockAll();
+        try {
+            int total = 0;
+            for (Stripe stripe : stripes)
+                total += stripe.size;
+            byte[] rowStripes = new byte[total];
+            int[] rows = new int[total];
+            int[] rowGenerations = new int[total];
+            int position = 0;
+            int[] positions = new int[STRIPES];
+            for (int age = 0; age <= MAX_AGE; age++, Arrays.fill(positions, 0)) {
+                for (AgeRuns runs = new AgeRuns(age, positions); !runs.isEmpty(); runs.advance()) {
+                    int row = runs.row();
+                    rowStripes[position] = (byte) runs.stripe();
+                    rows[position] = row;
+                    rowGenerations[position++] = stripes[runs.stripe()].generations[row];
+                }
+            }
+            return new NameSpliterator(rowStripes, rows, rowGenerations, 0, total);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.readLock().lock();
+            try {
+                size += stripe.size;
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+        return size;
+    }
+
+    // off-heap bytes reserved for names
+    public long nameArenaBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.readLock().lock();
+            try {
+                bytes += stripe.names.byteSize();
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.writeLock().lock();
+            try {
+                stripe.arena.close();
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static int checkAge(Employee employee) {
+        int age = employee.getAge();
+        if (age < 0 || age > MAX_AGE)
+            throw new IllegalArgumentException("Age out of range: " + age);
+        return age;
+    }
+
+    private static byte[] utf8(String name) {
+        return name.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int hash(byte[] name) {
+        int hash = Arrays.hashCode(name);
+        return hash ^ (hash >>> 16);
+    }
+
+    // the top bits of the hash times the golden ratio pick the stripe (short names have
+    // nothing in the top bits of the hash itself), the dictionary slots use the low bits
+    private static int stripeIndex(int hash) {
+        return (hash * 0x9E3779B9) >>> (Integer.SIZE - Integer.numberOfTrailingZeros(STRIPES));
+    }
+
+    private Stripe stripe(int hash) {
+        return stripes[stripeIndex(hash)];
+    }
+
+    private void lockAll() {
+        for (Stripe stripe : stripes)
+            stripe.lock.readLock().lock();
+    }
+
+    private void unlockAll() {
+        for (int i = STRIPES - 1; i >= 0; i--)
+            stripes[i].lock.readLock().unlock();
+    }
+
+    // unsigned byte order of two names, anywhere in the arenas or on the heap
+    private static int compare(MemorySegment a, long aOffset, long aLength, MemorySegment b, long bOffset, long bLength) {
+        // JDK 21 reports no mismatch when both ranges are in the same segment: compare slices
+        if (a == b)
+            return compare(a.asSlice(aOffset, aLength), 0, aLength, b.asSlice(bOffset, bLength), 0, bLength);
+        long mismatch = MemorySegment.mismatch(a, aOffset, aOffset + aLength, b, bOffset, bOffset + bLength);
+        if (mismatch < 0)
+            return 0;
+        if (mismatch == aLength || mismatch == bLength)
+            return Long.compare(aLength, bLength);
+        return Byte.compareUnsigned(a.get(ValueLayout.JAVA_BYTE, aOffset + mismatch),
+                b.get(ValueLayout.JAVA_BYTE, bOffset + mismatch));
+    }
+
+    private record Pending(byte[] name, int hash, int age) {
+    }
+
+    // One stripe: a complete columnar store for the names that hash to it. Every method
+    // expects the caller to hold the stripe's lock, the write lock for the mutating ones.
+    private static final class Stripe {
+
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        // row columns; removed rows are reused from the free list, and their generation counts
+        // the reuses so a snapshot of row numbers can tell its rows from their successors
+        int[] ages;
+        long[] nameOffsets;
+        int[] nameLengths;
+        int[] nameHashes;
+        int[] generations;
+        int rowCount;
+        int[] freeRows = new int[16];
+        int freeCount;
+        int size;
+
+        // name dictionary: row + 1 per slot, 0 when empty. Linear probing with backward shift
+        // deletion, so there are no tombstones.
+        int[] slots;
+
+        // age index: per age, the rows of that age sorted by name
+        final int[][] byAge = new int[MAX_AGE + 1][];
+        final int[] ageCounts = new int[MAX_AGE + 1];
+
+        // name arena; removed names stay there until it fills up and gets compacted
+        Arena arena;
+        MemorySegment names;
+        long namesUsed;
+        long namesLive;
+
+        Stripe(int initialRows, long initialNameBytes) {
+            ages = new int[initialRows];
+            nameOffsets = new long[initialRows];
+            nameLengths = new int[initialRows];
+            nameHashes = new int[initialRows];
+            generations = new int[initialRows];
+            slots = new int[Math.max(16, Integer.highestOneBit(initialRows) * 4)];
+            Arrays.fill(byAge, new int[0]);
+            arena = Arena.ofShared();
+            names = arena.allocate(initialNameBytes);
+        }
+
+        // the previous age, or FREE when the name is new
+        int put(byte[] bytes, int hash, int age) {
+            MemorySegment key = MemorySegment.ofArray(bytes);
+            int slot = findSlot(key, hash);
+            if (slot >= 0) {
+                int row = slots[slot] - 1;
+                int previousAge = ages[row];
+                if (previousAge != age) {
+                    removeFromAge(row, key);
+                    ages[row] = age;
+                    addToAge(row, key);
+                }
+                return previousAge;
+            }
+            int row = newRow(key, hash, age);
+            addToAge(row, key);
+            return FREE;
+        }
+
+        void putAll(List<Pending> batch) {
+            // row -> the age it had in the index before the batch, FREE for new rows
+            Map<Integer, Integer> indexed = new HashMap<>();
+            for (Pending pending : batch) {
+                MemorySegment key = MemorySegment.ofArray(pending.name());
+                int slot = findSlot(key, pending.hash());
+                if (slot >= 0) {
+                    int row = slots[slot] - 1;
+                    indexed.putIfAbsent(row, ages[row]);
+                    ages[row] = pending.age();
+                } else {
+                    indexed.put(newRow(key, pending.hash(), pending.age()), FREE);
+                }
+            }
+            int[] leaving = new int[MAX_AGE + 1];
+            int[] joining = new int[MAX_AGE + 1];
+            indexed.forEach((row, from) -> {
+                if (from != ages[row]) {
+                    if (from != FREE)
+                        leaving[from]++;
+                    joining[ages[row]]++;
+                }
+            });
+            int[][] leave = new int[MAX_AGE + 1][];
+            Integer[][] join = new Integer[MAX_AGE + 1][];
+            for (int age = 0; age <= MAX_AGE; age++) {
+                leave[age] = new int[leaving[age]];
+                join[age] = new Integer[joining[age]];
+                leaving[age] = 0;
+                joining[age] = 0;
+            }
+            indexed.forEach((row, from) -> {
+                int to = ages[row];
+                if (from != to) {
+                    if (from != FREE)
+                        leave[from][leaving[from]++] = row;
+                    join[to][joining[to]++] = row;
+                }
+            });
+            for (int age = 0; age <= MAX_AGE; age++)
+                if (leave[age].length > 0 || join[age].length > 0)
+                    mergeIntoAge(age, leave[age], join[age]);
+        }
+
+        // the age run without the leaving rows, merged with the joining ones: one pass
+        private void mergeIntoAge(int age, int[] leave, Integer[] join) {
+            Arrays.sort(leave);
+            Arrays.sort(join, this::compareRows);
+            int[] run = byAge[age];
+            int count = ageCounts[age];
+            int[] merged = new int[Math.max(8, count - leave.length + join.length)];
+            int length = 0;
+            int j = 0;
+            for (int i = 0; i < count; i++) {
+                int row = run[i];
+                if (Arrays.binarySearch(leave, row) >= 0)
+                    continue;
+                while (j < join.length && compareRows(join[j], row) < 0)
+                    merged[length++] = join[j++];
+                merged[length++] = row;
+            }
+            while (j < join.length)
+                merged[length++] = join[j++];
+            byAge[age] = merged;
+            ageCounts[age] = length;
+        }
+
+        // the removed row's age, or FREE when the name is unknown
+        int remove(byte[] bytes, int hash) {
+            MemorySegment key = MemorySegment.ofArray(bytes);
+            int slot = findSlot(key, hash);
+            if (slot < 0)
+                return FREE;
+            int row = slots[slot] - 1;
+            int age = ages[row];
+            removeFromAge(row, key);
+            removeSlot(slot);
+            namesLive -= nameLengths[row];
+            freeRow(row);
+            size--;
+            return age;
+        }
+
+        // --- name dictionary
+
+        // slot holding the name, or -1
+        int findSlot(MemorySegment key, int hash) {
+            int mask = slots.length - 1;
+            for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+                int row = slots[slot] - 1;
+                if (nameHashes[row] == hash && compare(row, key) == 0)
+                    return slot;
+            }
+            return -1;
+        }
+
+        private void addToSlots(int row) {
+            if (size * 2 >= slots.length) {
+                int[] old = slots;
+                slots = new int[old.length * 2];
+                for (int entry : old)
+                    if (entry != 0)
+                        insertSlot(entry - 1);
+            }
+            insertSlot(row);
+        }
+
+        private void insertSlot(int row) {
+            int mask = slots.length - 1;
+            int slot = nameHashes[row] & mask;
+            while (slots[slot] != 0)
+                slot = (slot + 1) & mask;
+            slots[slot] = row + 1;
+        }
+
+        // backward shift: pull later entries of the probe run into the hole where they still
+        // sit at or after their home slot
+        private void removeSlot(int hole) {
+            int mask = slots.length - 1;
+            for (int next = (hole + 1) & mask; slots[next] != 0; next = (next + 1) & mask) {
+                int home = nameHashes[slots[next] - 1] & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    slots[hole] = slots[next];
+                    hole = next;
+                }
+            }
+            slots[hole] = 0;
+        }
+
+        // unsigned byte order of the stored name vs key
+        int compare(int row, MemorySegment key) {
+            return ColumnarEmployeeStore.compare(names, nameOffsets[row], nameLengths[row], key, 0, key.byteSize());
+        }
+
+        private int compareRows(int a, int b) {
+            return ColumnarEmployeeStore.compare(names, nameOffsets[a], nameLengths[a], names, nameOffsets[b], nameLengths[b]);
+        }
+
+        String decode(int row) {
+            byte[] bytes = new byte[nameLengths[row]];
+            MemorySegment.copy(names, ValueLayout.JAVA_BYTE, nameOffsets[row], bytes, 0, bytes.length);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        // --- name arena
+
+        private long appendName(MemorySegment key) {
+            long length = key.byteSize();
+            if (namesUsed + length > names.byteSize())
+                compactNames(length);
+            long offset = namesUsed;
+            MemorySegment.copy(key, 0, names, offset, length);
+            namesUsed += length;
+            namesLive += length;
+            return offset;
+        }
+
+        // Copies the live names into a new arena with room for twice as much, then frees the
+        // old one. Runs under the write lock, so no reader can still be using the old segment.
+        private void compactNames(long extra) {
+            long capacity = Math.max(names.byteSize(), 2 * (namesLive + extra));
+            Arena compacted = Arena.ofShared();
+            MemorySegment target = compacted.allocate(capacity);
+            long used = 0;
+            for (int row = 0; row < rowCount; row++) {
+                if (ages[row] == FREE)
+                    continue;
+                MemorySegment.copy(names, nameOffsets[row], target, used, nameLengths[row]);
+                nameOffsets[row] = used;
+                used += nameLengths[row];
+            }
+            arena.close();
+            arena = compacted;
+            names = target;
+            namesUsed = used;
+        }
+
+        // --- rows and the age index
+
+        // a row holding the name and in the dictionary; the caller sets its age and indexes it
+        // the row is live from here on: a later compaction keeps its name
+        private int newRow(MemorySegment key, int hash, int age) {
+            // append first: compaction must not see a row whose name is not there yet
+            long offset = appendName(key);
+            int row;
+            if (freeCount > 0) {
+                row = freeRows[--freeCount];
+            } else {
+                if (rowCount == ages.length) {
+                    int capacity = ages.length * 2;
+                    ages = Arrays.copyOf(ages, capacity);
+                    nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+                    nameLengths = Arrays.copyOf(nameLengths, capacity);
+                    nameHashes = Arrays.copyOf(nameHashes, capacity);
+                    generations = Arrays.copyOf(generations, capacity);
+                }
+                row = rowCount++;
+            }
+            ages[row] = age;
+            nameOffsets[row] = offset;
+            nameLengths[row] = (int) key.byteSize();
+            nameHashes[row] = hash;
+            addToSlots(row);
+            size++;
+            return row;
+        }
+
+        private void freeRow(int row) {
+            ages[row] = FREE;
+            generations[row]++;
+            if (freeCount == freeRows.length)
+                freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+            freeRows[freeCount++] = row;
+        }
+
+        // index of the name in the age run, or -(insertion point) - 1
+        int search(int age, MemorySegment key) {
+            int[] rows = byAge[age];
+            int low = 0;
+            int high = ageCounts[age] - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int order = compare(rows[mid], key);
+                if (order < 0)
+                    low = mid + 1;
+                else if (order > 0)
+                    high = mid - 1;
+                else
+                    return mid;
+            }
+            return -(low + 1);
+        }
+
+        private void addToAge(int row, MemorySegment key) {
+            int age = ages[row];
+            int at = -(search(age, key) + 1);
+            int count = ageCounts[age];
+            int[] rows = byAge[age];
+            if (count == rows.length)
+                rows = byAge[age] = Arrays.copyOf(rows, Math.max(8, count * 2));
+            System.arraycopy(rows, at, rows, at + 1, count - at);
+            rows[at] = row;
+            ageCounts[age] = count + 1;
+        }
+
+        private void removeFromAge(int row, MemorySegment key) {
+            int age = ages[row];
+            int at = search(age, key);
+            int[] rows = byAge[age];
+            System.arraycopy(rows, at + 1, rows, at, ageCounts[age] - at - 1);
+            ageCounts[age]--;
+        }
+    }
+
+    // The runs of one age in all stripes merged by name: a binary heap of the stripes that have
+    // rows left, smallest next name on top. positions holds each stripe's next index in its
+    // run and is advanced in place. Needs the read locks of all stripes.
+    private final class AgeRuns {
+
+        private final int age;
+        private final int[] positions;
+        private final int[] heap = new int[STRIPES];
+        private int heapSize;
+
+        AgeRuns(int age, int[] positions) {
+            this.age = age;
+            this.positions = positions;
+            for (int i = 0; i < STRIPES; i++) {
+                if (positions[i] < stripes[i].ageCounts[age]) {
+                    heap[heapSize] = i;
+                    siftUp(heapSize++);
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return heapSize == 0;
+        }
+
+        int stripe() {
+            return heap[0];
+        }
+
+        int row() {
+            return rowOf(heap[0]);
+        }
+
+        void advance() {
+            int top = heap[0];
+            if (++positions[top] == stripes[top].ageCounts[age])
+                heap[0] = heap[--heapSize];
+            siftDown(0);
+        }
+
+        private int rowOf(int stripe) {
+            return stripes[stripe].byAge[age][positions[stripe]];
+        }
+
+        private boolean less(int a, int b) {
+            Stripe x = stripes[a];
+            Stripe y = stripes[b];
+            int rowX = rowOf(a);
+            int rowY = rowOf(b);
+            return compare(x.names, x.nameOffsets[rowX], x.nameLengths[rowX],
+                    y.names, y.nameOffsets[rowY], y.nameLengths[rowY]) < 0;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!less(heap[index], heap[parent]))
+                    return;
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                if (left < heapSize && less(heap[left], heap[smallest]))
+                    smallest = left;
+                if (left + 1 < heapSize && less(heap[left + 1], heap[smallest]))
+                    smallest = left + 1;
+                if (smallest == index)
+                    return;
+                swap(index, smallest);
+                index = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int stripe = heap[a];
+            heap[a] = heap[b];
+            heap[b] = stripe;
+        }
+    }
+
+    // --- iteration
+
+    private final class AllIterator implements Iterator<Employee> {
+
+        private Page page = page(0, MAX_AGE, null, ITERATION_PAGE);
+        private int next;
+
+        @Override
+        public boolean hasNext() {
+            if (next < page.items().size())
+                return true;
+            if (!page.hasMore())
+                return false;
+            page = page(0, MAX_AGE, page.last(), ITERATION_PAGE);
+            next = 0;
+            return !page.items().isEmpty();
+        }
+
+        @Override
+        public Employee next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return page.items().get(next++);
+        }
+    }
+
+    private final class NameSpliterator implements Spliterator<String> {
+
+        private final byte[] rowStripes;
+        private final int[] rows;
+        private final int[] rowGenerations;
+        private int from;
+        private final int to;
+
+        NameSpliterator(byte[] rowStripes, int[] rows, int[] rowGenerations, int from, int to) {
+            this.rowStripes = rowStripes;
+            this.rows = rows;
+            this.rowGenerations = rowGenerations;
+            this.from = from;
+            this.to = to;
+        }
+
+        // the name at index, null when its row no longer holds the employee it held at the
+        // snapshot
+        private String decode(int index) {
+            Stripe stripe = stripes[rowStripes[index]];
+            stripe.lock.readLock().lock();
+            try {
+                return stripe.generations[rows[index]] == rowGenerations[index] ? stripe.decode(rows[index]) : null;
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            while (from < to) {
+                String name = decode(from++);
+                if (name != null) {
+                    action.accept(name);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // the action runs outside the locks, it may write to the store
+        @Override
+        public void forEachRemaining(Consumer<? super String> action) {
+            while (from < to) {
+                String name = decode(from++);
+                if (name != null)
+                    action.accept(name);
+            }
+        }
+
+        @Override
+        public Spliterator<String> trySplit() {
+            int mid = (from + to) >>> 1;
+            if (mid <= from)
+                return null;
+            NameSpliterator prefix = new NameSpliterator(rowStripes, rows, rowGenerations, from, mid);
+            from = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package org.sac.store;
+
+import io.quarkus.logging.Log;
+import org.sac.EmployeeResource.Employee;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Makes another EmployeeStore survive restarts (employee.persistence.enabled=true).
+// - Mutations are applied to the store and appended to a WriteAheadLog. put/remove return
+//   once their record is fsynced; concurrent writers share fsyncs (group commit), so callers
+//   block (keep the store methods off the event loop with persistence on). Once the log has
+//   failed, writes throw without changing the store.
+// - Every snapshot-interval the store is written to an EmployeeSnapshot and the log
+//   segments it covers are deleted, so the log never holds more than about one interval.
+// - Recovery maps the latest snapshot and replays only the log segments after it.
+// Reads go straight to the wrapped store.
+public class DurableEmployeeStore implements EmployeeStore {
+
+    private static final int STRIPES = 64;
+
+    private final EmployeeStore delegate;
+    private final Path directory;
+    private final WriteAheadLog log;
+    // per name, store and log see mutations in the same order
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final ScheduledExecutorService scheduler;
+    // the store holds records replayed from a log segment that no snapshot covers yet
+    private volatile boolean replayedTail;
+
+    public DurableEmployeeStore(EmployeeStore delegate, Path directory, Duration snapshotInterval) throws IOException {
+        this.delegate = delegate;
+        this.directory = directory;
+        for (int i = 0; i < STRIPES; i++)
+            stripes[i] = new ReentrantLock();
+        Files.createDirectories(directory);
+        this.log = recover();
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("employee-snapshot").daemon().factory());
+        long period = snapshotInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::scheduledSnapshot, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private WriteAheadLog recover() throws IOException {
+        long start = System.nanoTime();
+        List<Long> snapshots = EmployeeSnapshot.snapshots(directory);
+        long from = snapshots.isEmpty() ? 0 : snapshots.getLast();
+        long loaded = snapshots.isEmpty() ? 0 : EmployeeSnapshot.load(EmployeeSnapshot.path(directory, from), delegate);
+
+        WriteAheadLog.Replay replay = new WriteAheadLog.Replay() {
+            @Override
+            public void put(String name, int age) {
+                delegate.put(new Employee(name, age));
+            }
+
+            @Override
+            public void remove(String name) {
+                delegate.remove(name);
+            }
+        };
+        List<Long> segments = WriteAheadLog.segments(directory);
+        long replayed = 0;
+        long next = from;
+        for (int i = 0; i < segments.size(); i++) {
+            long segment = segments.get(i);
+            if (segment < from) {
+                // left behind by a crash between a snapshot and its cleanup
+                Files.deleteIfExists(WriteAheadLog.segmentPath(directory, segment));
+                continue;
+            }
+            replayed += WriteAheadLog.replay(directory, segment, i == segments.size() - 1, replay);
+            next = segment + 1;
+        }
+        replayedTail = replayed > 0;
+        Log.infof("Recovered %d employees from %s in %d ms (%d from the snapshot, %d log records)",
+                delegate.size(), directory, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), loaded, replayed);
+        return new WriteAheadLog(directory, next);
+    }
+
+    private ReentrantLock stripe(String name) {
+        return stripes[(name.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    @Override
+    public Employee get(String name) {
+        return delegate.get(name);
+    }
+
+    @Override
+    public Employee put(Employee employee) {
+        byte[] record = WriteAheadLog.record(WriteAheadLog.PUT, employee.getName(), employee.getAge());
+        Employee previous;
+        long sequence;
+        ReentrantLock stripe = stripe(employee.getName());
+        stripe.lock();
+        try {
+            log.check();
+            previous = delegate.put(employee);
+            sequence = appendOrRestore(record, employee.getName(), previous);
+        } finally {
+            stripe.unlock();
+        }
+        log.await(sequence);
+        return previous;
+    }
+
+    // one wait for the whole batch
+    @Override
+    public void putAll(Collection<Employee> employees) {
+        long sequence = 0;
+        for (Employee employee : employees) {
+            byte[] record = WriteAheadLog.record(WriteAheadLog.PUT, employee.getName(), employee.getAge());
+            ReentrantLock stripe = stripe(employee.getName());
+            stripe.lock();
+            try {
+                log.check();
+                Employee previous = delegate.put(employee);
+                sequence = appendOrRestore(record, employee.getName(), previous);
+            } finally {
+                stripe.unlock();
+            }
+        }
+        log.await(sequence);
+    }
+
+    @Override
+    public Employee remove(String name) {
+        byte[] record = WriteAheadLog.record(WriteAheadLog.REMOVE, name, 0);
+        Employee removed;
+        long sequence = 0;
+        ReentrantLock stripe = stripe(name);
+        stripe.lock();
+        try {
+            log.check();
+            removed = delegate.remove(name);
+            if (removed != null)
+                sequence = appendOrRestore(record, name, removed);
+        } finally {
+            stripe.unlock();
+        }
+        log.await(sequence);
+        return removed;
+    }
+
+    // The log failed between check() and append(): puts the name back as it was, still under
+    // its stripe lock, so a write the log refused leaves nothing in the store.
+    private long appendOrRestore(byte[] record, String name, Employee previous) {
+        try {
+            return log.append(record);
+        } catch (RuntimeException e) {
+            if (previous == null)
+                delegate.remove(name);
+            else
+                delegate.put(previous);
+            throw e;
+        }
+    }
+
+    @Override
+    public Page page(int minAge, int maxAge, AgeKey after, int limit) {
+        return delegate.page(minAge, maxAge, after, limit);
+    }
+
+    @Override
+    public Collection<Employee> all() {
+        return delegate.all();
+    }
+
+    @Override
+    public Spliterator.OfInt ages() {
+        return delegate.ages();
+    }
+
+    @Override
+    public Spliterator<String> names() {
+        return delegate.names();
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    // Writes a snapshot and deletes the log segments it covers. Returns false when nothing
+    // was logged since the last one.
+    public boolean snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            if (log.segmentBytes() == 0 && !replayedTail)
+                return false;
+            long start = System.nanoTime();
+            long segment = log.rotate();
+            // Fuzzy: writers keep going while the store is copied. Whatever the copy misses or
+            // catches half way was logged to this segment or later, and replaying a put or a
+            // remove over it is idempotent.
+            long count = EmployeeSnapshot.write(directory, segment, delegate.all());
+            replayedTail = false;
+            for (long old : EmployeeSnapshot.snapshots(directory))
+                if (old < segment)
+                    Files.deleteIfExists(EmployeeSnapshot.path(directory, old));
+            for (long old : WriteAheadLog.segments(directory))
+                if (old < segment)
+                    Files.deleteIfExists(WriteAheadLog.segmentPath(directory, old));
+            WriteAheadLog.syncDirectory(directory);
+            Log.debugf("Snapshot of %d employees at segment %d in %d ms",
+                    count, segment, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return true;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private void scheduledSnapshot() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            // the log still has everything, the next attempt may succeed
+            Log.error("Employee snapshot failed", e);
+        }
+    }
+
+    // fsyncs performed by the log, for tests and diagnostics
+    long syncs() {
+        return log.syncs();
+    }
+
+    // takes a last snapshot so the next start replays nothing
+    @Override
+    public void close() {
+        // cancels the schedule; a running snapshot finishes first (snapshotLock)
+        scheduler.shutdown();
+        try {
+            try {
+                snapshot();
+            } finally {
+                log.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.sac.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.Validator;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.sac.EmployeeResource.Employee;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Reads newline delimited JSON (one employee per line) and inserts it into the store in batches.
+// Memory is bounded by the read buffer, the longest accepted line and one batch,
+// no matter how large the upload is.
+@ApplicationScoped
+public class EmployeeBulkLoader {
+
+    public record BulkResult(long accepted, long rejected) {
+    }
+
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    @Inject
+    EmployeeStore store;
+
+    @Inject
+    Validator validator;
+
+    @ConfigProperty(name = "employee.bulk.batch-size", defaultValue = "1000")
+    int batchSize;
+
+    // longer lines are rejected without being buffered
+    @ConfigProperty(name = "employee.bulk.max-line-length", defaultValue = "8192")
+    int maxLineLength;
+
+    private final ObjectReader employeeReader;
+
+    @Inject
+    public EmployeeBulkLoader(ObjectMapper mapper) {
+        this.employeeReader = mapper.readerFor(Employee.class);
+    }
+
+    // Blocking: reads the stream until EOF. Reading from the request InputStream pulls chunks
+    // from the Vert.x request on demand, so a slow loader pauses the upload (backpressure).
+    public BulkResult load(InputStream in) throws IOException {
+        return load(in, store::putAll);
+    }
+
+    // the same, handing each batch to sink instead of the store; the batch list is reused
+    // once sink returns
+    public BulkResult load(InputStream in, Consumer<List<Employee>> sink) throws IOException {
+        byte[] chunk = new byte[READ_BUFFER_SIZE];
+        byte[] line = new byte[maxLineLength];
+        int lineLength = 0;
+        boolean overflow = false;   // current line is too long, skip until the next '\n'
+        List<Employee> batch = new ArrayList<>(batchSize);
+        long accepted = 0;
+        long rejected = 0;
+
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            int start = 0;
+            for (int i = 0; i < read; i++) {
+                if (chunk[i] != '\n')
+                    continue;
+                int length = i - start;
+                if (overflow || lineLength + length > maxLineLength) {
+                    rejected++;
+                } else {
+                    System.arraycopy(chunk, start, line, lineLength, length);
+                    lineLength += length;
+                    Employee employee = parse(line, lineLength);
+                    if (employee != null) {
+                        batch.add(employee);
+                        if (batch.size() == batchSize)
+                            accepted += flush(batch, sink);
+                    } else if (!isBlank(line, lineLength)) {
+                        rejected++;
+                    }
+                }
+                lineLength = 0;
+                overflow = false;
+                start = i + 1;
+            }
+            // keep the incomplete tail of this chunk for the next read
+            int tail = read - start;
+            if (!overflow && lineLength + tail <= maxLineLength) {
+                System.arraycopy(chunk, start, line, lineLength, tail);
+                lineLength += tail;
+            } else {
+                overflow = true;
+            }
+        }
+        // last line without a trailing newline
+        if (overflow) {
+            rejected++;
+        } else if (lineLength > 0) {
+            Employee employee = parse(line, lineLength);
+            if (employee != null)
+                batch.add(employee);
+            else if (!isBlank(line, lineLength))
+                rejected++;
+        }
+        accepted += flush(batch, sink);
+        Log.debugf("Bulk load finished: %d accepted, %d rejected", accepted, rejected);
+        return new BulkResult(accepted, rejected);
+    }
+
+    private static int flush(List<Employee> batch, Consumer<List<Employee>> sink) {
+        int size = batch.size();
+        sink.accept(batch);
+        batch.clear();
+        return size;
+    }
+
+    // returns null for malformed or invalid records
+    private Employee parse(byte[] line, int length) {
+        if (isBlank(line, length))
+            return null;
+        try {
+            Employee employee = employeeReader.readValue(line, 0, length);
+            return employee != null && validator.validate(employee).isEmpty() ? employee : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static boolean isBlank(byte[] line, int length) {
+        for (int i = 0; i < length; i++) {
+            byte b = line[i];
+            if (b != ' ' && b != '\t' && b != '\r')
+                return false;
+        }
+        return true;
+    }
+}
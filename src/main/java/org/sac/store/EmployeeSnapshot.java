@@ -0,0 +1,118 @@
+package org.sac.store;
+
+import org.sac.EmployeeResource.Employee;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+// Binary snapshot of the store, snapshot-<segment>.bin: replay resumes at that log segment.
+// Big-endian layout: int magic, int version, long segment; per employee int age, int name
+// length, UTF-8 name; trailer long count, int CRC32C of the records, int magic.
+// Loading maps the file and decodes records straight from the mapping (no read buffers, no
+// JSON), so it runs at memory speed once the pages are cached.
+final class EmployeeSnapshot {
+
+    private static final int MAGIC = 0x454D5053;  // "EMPS"
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;
+    private static final int TRAILER = 16;
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private EmployeeSnapshot() {
+    }
+
+    static Path path(Path directory, long segment) {
+        return directory.resolve("snapshot-%016d.bin".formatted(segment));
+    }
+
+    // existing snapshot segment numbers, ascending
+    static List<Long> snapshots(Path directory) throws IOException {
+        return WriteAheadLog.numbered(directory, "snapshot-", ".bin");
+    }
+
+    // Writes to a temporary file, fsyncs it and renames it into place. Returns the count.
+    static long write(Path directory, long segment, Iterable<Employee> employees) throws IOException {
+        Path target = path(directory, segment);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        long count = 0;
+        CRC32C crc = new CRC32C();
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(out, ByteBuffer.allocate(HEADER).putInt(MAGIC).putInt(VERSION).putLong(segment).flip());
+            ByteBuffer buffer = ByteBuffer.allocate(256 * 1024);
+            for (Employee employee : employees) {
+                byte[] name = employee.getName().getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < 8 + name.length) {
+                    drain(out, buffer, crc);
+                    if (buffer.capacity() < 8 + name.length)
+                        buffer = ByteBuffer.allocate(8 + name.length);
+                }
+                buffer.putInt(employee.getAge()).putInt(name.length).put(name);
+                count++;
+            }
+            drain(out, buffer, crc);
+            writeFully(out, ByteBuffer.allocate(TRAILER).putLong(count).putInt((int) crc.getValue()).putInt(MAGIC).flip());
+            out.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        WriteAheadLog.syncDirectory(directory);
+        return count;
+    }
+
+    private static void drain(FileChannel out, ByteBuffer buffer, CRC32C crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        writeFully(out, buffer);
+        buffer.clear();
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            out.write(buffer);
+    }
+
+    // Maps the snapshot, verifies it and puts every employee into the store. Returns the count.
+    static long load(Path file, EmployeeStore store) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+             Arena arena = Arena.ofConfined()) {
+            MemorySegment data = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size(), arena);
+            long size = data.byteSize();
+            if (size < HEADER + TRAILER || data.get(INT, 0) != MAGIC || data.get(INT, size - 4) != MAGIC)
+                throw new IOException("Not a complete snapshot: " + file);
+            if (data.get(INT, 4) != VERSION)
+                throw new IOException("Unsupported snapshot version " + data.get(INT, 4) + ": " + file);
+            long end = size - TRAILER;
+
+            CRC32C crc = new CRC32C();
+            for (long from = HEADER; from < end; from += 1 << 30)
+                crc.update(data.asSlice(from, Math.min(1 << 30, end - from)).asByteBuffer());
+            if ((int) crc.getValue() != data.get(INT, end + 8))
+                throw new IOException("Snapshot checksum mismatch: " + file);
+
+            long count = 0;
+            for (long position = HEADER; position < end; count++) {
+                int age = data.get(INT, position);
+                byte[] name = new byte[data.get(INT, position + 4)];
+                MemorySegment.copy(data, ValueLayout.JAVA_BYTE, position + 8, name, 0, name.length);
+                position += 8 + name.length;
+                store.put(new Employee(new String(name, StandardCharsets.UTF_8), age));
+            }
+            if (count != data.get(LONG, end))
+                throw new IOException("Snapshot record count mismatch: " + file);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.sac.store;
+
+import org.sac.EmployeeResource.Employee;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+
+// In-memory employee repository, keyed by name and indexed by (age, name).
+// The implementation is selected with employee.store.mode (see EmployeeStores):
+// - heap: HeapEmployeeStore, concurrent maps of Employee objects
+// - columnar: ColumnarEmployeeStore, a primitive age column and names in off-heap memory
+// Both are thread safe. With employee.persistence.enabled the store is wrapped in a
+// DurableEmployeeStore, which logs every mutation to disk.
+public interface EmployeeStore extends AutoCloseable {
+
+    // composite key keeps employees of the same age distinct and ordered by name
+    record AgeKey(int age, String name) implements Comparable<AgeKey> {
+
+        static final Comparator<AgeKey> ORDER = Comparator.comparingInt(AgeKey::age)
+                .thenComparing(AgeKey::name);
+
+        public static AgeKey of(Employee employee) {
+            return new AgeKey(employee.getAge(), employee.getName());
+        }
+
+        @Override
+        public int compareTo(AgeKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    record Page(List<Employee> items, AgeKey last, boolean hasMore) {
+    }
+
+    // null if unknown
+    Employee get(String name);
+
+    // inserts or replaces the employee with the same name, returns the previous one (or null)
+    Employee put(Employee employee);
+
+    // batch insert, lets a durable store wait for the disk once per batch
+    default void putAll(Collection<Employee> employees) {
+        for (Employee employee : employees)
+            put(employee);
+    }
+
+    // returns the removed employee (or null)
+    Employee remove(String name);
+
+    // Keyset pagination: up to limit employees with minAge <= age <= maxAge ordered by
+    // (age, name), starting strictly after the given key (null for the first page).
+    Page page(int minAge, int maxAge, AgeKey after, int limit);
+
+    // live, weakly consistent view of all employees ordered by age and then name
+    Collection<Employee> all();
+
+    // ages of all employees, in age order, for parallel IntStreams (no boxing)
+    Spliterator.OfInt ages();
+
+    // names of all employees, in age order
+    Spliterator<String> names();
+
+    int size();
+
+    // releases off-heap memory and files, the store is unusable afterwards
+    @Override
+    default void close() {
+    }
+}
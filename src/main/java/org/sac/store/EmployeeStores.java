@@ -0,0 +1,52 @@
+package org.sac.store;
+
+import io.quarkus.runtime.Startup;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Disposes;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.sac.feed.EmployeeChangeFeed;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+
+// Produces the EmployeeStore selected by employee.store.mode: heap (default) or columnar,
+// wrapped in a DurableEmployeeStore when employee.persistence.enabled is set, and observed
+// by the change feed
+@Singleton
+public class EmployeeStores {
+
+    // eager, so a durable store recovers before the first request
+    @Produces
+    @Startup
+    @ApplicationScoped
+    EmployeeStore store(@ConfigProperty(name = "employee.store.mode", defaultValue = "heap") String mode,
+                        @ConfigProperty(name = "employee.persistence.enabled", defaultValue = "false") boolean persistent,
+                        @ConfigProperty(name = "employee.persistence.directory", defaultValue = "data") String directory,
+                        @ConfigProperty(name = "employee.persistence.snapshot-interval", defaultValue = "5m") Duration snapshotInterval,
+                        EmployeeChangeFeed feed) {
+        EmployeeStore store = switch (mode.trim().toLowerCase(Locale.ROOT)) {
+            case "heap" -> new HeapEmployeeStore();
+            case "columnar" -> new ColumnarEmployeeStore();
+            default -> throw new IllegalArgumentException("Unknown employee.store.mode: " + mode);
+        };
+        if (!persistent)
+            return new ObservedEmployeeStore(store, feed);
+        try {
+            // recovery replays into the durable store, before anything is observed
+            return new ObservedEmployeeStore(new DurableEmployeeStore(store, Path.of(directory), snapshotInterval), feed);
+        } catch (IOException e) {
+            store.close();
+            throw new UncheckedIOException("Cannot open the employee data in " + directory, e);
+        }
+    }
+
+    // flushes the log, frees the off-heap names of the columnar store
+    void close(@Disposes EmployeeStore store) {
+        store.close();
+    }
+}
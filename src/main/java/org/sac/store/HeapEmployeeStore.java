@@ -0,0 +1,110 @@
+package org.sac.store;
+
+import org.sac.EmployeeResource.Employee;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Employee store of Employee objects on the heap (employee.store.mode=heap, the default).
+// - primary index: name -> employee. ConcurrentHashMap locks a single hash bin per write
+//   (lock striping by name), and reads never lock.
+// - secondary index: (age, name) -> employee in a lock-free skip list, so age range
+//   queries are ordered scans over a sub map.
+// There is no global lock: writers only contend when they hit the same name bin.
+public class HeapEmployeeStore implements EmployeeStore {
+
+    private final ConcurrentHashMap<String, Employee> byName = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<AgeKey, Employee> byAge = new ConcurrentSkipListMap<>();
+
+    @Override
+    public Employee get(String name) {
+        return byName.get(name);
+    }
+
+    @Override
+    public Employee put(Employee employee) {
+        Employee[] previous = new Employee[1];
+        // compute() holds the bin lock for this name, so both indexes are updated
+        // atomically with respect to other writers of the same name
+        byName.compute(employee.getName(), (name, old) -> {
+            AgeKey key = AgeKey.of(employee);
+            byAge.put(key, employee);
+            if (old != null && old.getAge().intValue() != key.age())
+                byAge.remove(AgeKey.of(old));
+            previous[0] = old;
+            return employee;
+        });
+        return previous[0];
+    }
+
+    @Override
+    public Employee remove(String name) {
+        Employee[] removed = new Employee[1];
+        byName.computeIfPresent(name, (key, old) -> {
+            byAge.remove(AgeKey.of(old));
+            removed[0] = old;
+            return null;
+        });
+        return removed[0];
+    }
+
+    // The skip list seeks straight to the key, so every page costs O(log n + limit).
+    @Override
+    public Page page(int minAge, int maxAge, AgeKey after, int limit) {
+        AgeKey from = new AgeKey(minAge, "");
+        boolean inclusive = true;
+        if (after != null && after.compareTo(from) >= 0) {
+            from = after;
+            inclusive = false;
+        }
+        NavigableMap<AgeKey, Employee> range;
+        if (maxAge == Integer.MAX_VALUE) {
+            range = byAge.tailMap(from, inclusive);
+        } else {
+            // minAge > maxAge, or a cursor past maxAge: subMap would throw
+            AgeKey upper = new AgeKey(maxAge + 1, "");
+            if (from.compareTo(upper) >= 0)
+                return new Page(List.of(), null, false);
+            range = byAge.subMap(from, inclusive, upper, false);
+        }
+
+        List<Employee> items = new ArrayList<>(Math.min(limit, 256));
+        AgeKey last = null;
+        Iterator<Map.Entry<AgeKey, Employee>> entries = range.entrySet().iterator();
+        while (items.size() < limit && entries.hasNext()) {
+            Map.Entry<AgeKey, Employee> entry = entries.next();
+            items.add(entry.getValue());
+            last = entry.getKey();
+        }
+        return new Page(items, last, entries.hasNext());
+    }
+
+    // iteration walks the skip list lazily, nothing is copied
+    @Override
+    public Collection<Employee> all() {
+        return byAge.values();
+    }
+
+    // both split on the skip list index levels
+    @Override
+    public Spliterator.OfInt ages() {
+        return new KeySpliterators.Ages(byAge.keySet().spliterator());
+    }
+
+    @Override
+    public Spliterator<String> names() {
+        return new KeySpliterators.Names(byAge.keySet().spliterator());
+    }
+
+    @Override
+    public int size() {
+        return byName.size();
+    }
+}
@@ -0,0 +1,89 @@
+package org.sac.store;
+
+import org.sac.store.EmployeeStore.AgeKey;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+// Views of the (age, name) key spliterator of the age index. Splitting is delegated to the
+// skip list, which splits on its index levels, so parallel streams fork without copying.
+final class KeySpliterators {
+
+    private KeySpliterators() {
+    }
+
+    // the key spliterator is DISTINCT and SORTED by (age, name); the projections are not
+    private static final int DROPPED = Spliterator.DISTINCT | Spliterator.SORTED;
+
+    static final class Ages implements Spliterator.OfInt {
+
+        private final Spliterator<AgeKey> keys;
+
+        Ages(Spliterator<AgeKey> keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            return keys.tryAdvance(key -> action.accept(key.age()));
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            keys.forEachRemaining(key -> action.accept(key.age()));
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            Spliterator<AgeKey> prefix = keys.trySplit();
+            return prefix == null ? null : new Ages(prefix);
+        }
+
+        @Override
+        public long estimateSize() {
+            return keys.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return keys.characteristics() & ~DROPPED;
+        }
+    }
+
+    static final class Names implements Spliterator<String> {
+
+        private final Spliterator<AgeKey> keys;
+
+        Names(Spliterator<AgeKey> keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            return keys.tryAdvance(key -> action.accept(key.name()));
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super String> action) {
+            keys.forEachRemaining(key -> action.accept(key.name()));
+        }
+
+        @Override
+        public Spliterator<String> trySplit() {
+            Spliterator<AgeKey> prefix = keys.trySplit();
+            return prefix == null ? null : new Names(prefix);
+        }
+
+        @Override
+        public long estimateSize() {
+            return keys.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            // names are unique, but not sorted
+            return keys.characteristics() & ~Spliterator.SORTED;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.sac.store;
+
+import org.sac.EmployeeResource.Employee;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Reports every mutation of another EmployeeStore to a Listener, after the wrapped store has
+// applied it (and a DurableEmployeeStore has logged it). Feeds the live change feed
+// (org.sac.feed.EmployeeChangeFeed). Reads go straight to the wrapped store.
+// While the listener is listening, a write and its report happen under a lock striped by
+// name, so the changes of one name are reported in the order the store applied them and the
+// last one reported is the stored value. Writers to other stripes are not held up.
+public class ObservedEmployeeStore implements EmployeeStore {
+
+    private static final int STRIPES = 64;
+
+    public interface Listener {
+
+        // previous is null when the name is new
+        void put(Employee employee, Employee previous);
+
+        void removed(Employee employee);
+
+        // false while nobody is interested: putAll then skips the lookups of the previous
+        // values, which it would otherwise do for every employee of a bulk load
+        default boolean listening() {
+            return true;
+        }
+    }
+
+    private final EmployeeStore delegate;
+    private final Listener listener;
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    public ObservedEmployeeStore(EmployeeStore delegate, Listener listener) {
+        this.delegate = delegate;
+        this.listener = listener;
+        for (int i = 0; i < STRIPES; i++)
+            stripes[i] = new ReentrantLock();
+    }
+
+    private static int stripe(String name) {
+        return (name.hashCode() & 0x7fffffff) % STRIPES;
+    }
+
+    @Override
+    public Employee get(String name) {
+        return delegate.get(name);
+    }
+
+    @Override
+    public Employee put(Employee employee) {
+        if (!listener.listening())
+            return delegate.put(employee);
+        ReentrantLock stripe = stripes[stripe(employee.getName())];
+        stripe.lock();
+        try {
+            Employee previous = delegate.put(employee);
+            listener.put(employee, previous);
+            return previous;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    // The batch holds the stripes of all its names, taken in index order so batches and
+    // single writes cannot deadlock, while it looks up the previous values, applies the
+    // batch in one delegate call and reports it
+    @Override
+    public void putAll(Collection<Employee> employees) {
+        if (!listener.listening()) {
+            delegate.putAll(employees);
+            return;
+        }
+        boolean[] held = new boolean[STRIPES];
+        for (Employee employee : employees)
+            held[stripe(employee.getName())] = true;
+        int locked = 0;
+        try {
+            for (; locked < STRIPES; locked++)
+                if (held[locked])
+                    stripes[locked].lock();
+            // a name that comes again in the batch had the value its last occurrence put
+            Employee[] previous = new Employee[employees.size()];
+            Map<String, Employee> batched = new HashMap<>();
+            int i = 0;
+            for (Employee employee : employees) {
+                Employee before = batched.put(employee.getName(), employee);
+                previous[i++] = before != null ? before : delegate.get(employee.getName());
+            }
+            delegate.putAll(employees);
+            i = 0;
+            for (Employee employee : employees)
+                listener.put(employee, previous[i++]);
+        } finally {
+            for (int i = 0; i < locked; i++)
+                if (held[i])
+                    stripes[i].unlock();
+        }
+    }
+
+    @Override
+    public Employee remove(String name) {
+        if (!listener.listening())
+            return delegate.remove(name);
+        ReentrantLock stripe = stripes[stripe(name)];
+        stripe.lock();
+        try {
+            Employee removed = delegate.remove(name);
+            if (removed != null)
+                listener.removed(removed);
+            return removed;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    @Override
+    public Page page(int minAge, int maxAge, AgeKey after, int limit) {
+        return delegate.page(minAge, maxAge, after, limit);
+    }
+
+    @Override
+    public Collection<Employee> all() {
+        return delegate.all();
+    }
+
+    @Override
+    public Spliterator.OfInt ages() {
+        return delegate.ages();
+    }
+
+    @Override
+    public Spliterator<String> names() {
+        return delegate.names();
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,32 @@
+package org.sac.store;
+
+import jakarta.ws.rs.BadRequestException;
+import org.sac.store.EmployeeStore.AgeKey;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque continuation token for keyset pagination.
+// Encodes the (age, name) key of the last employee on a page; the next page starts
+// strictly after it, so fetching a page costs the same no matter how deep it is.
+public final class PageCursor {
+
+    private PageCursor() {
+    }
+
+    public static String encode(AgeKey key) {
+        byte[] raw = (key.age() + ":" + key.name()).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    public static AgeKey decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new AgeKey(Integer.parseInt(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            // NumberFormatException is an IllegalArgumentException
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package org.sac.store;
+
+import io.quarkus.logging.Log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Append-only log of store mutations, in numbered segment files (wal-<segment>.log).
+// Group commit: writers append records to an in-memory buffer and wait; a single flusher
+// thread writes everything appended so far and fsyncs once for the whole group. While one
+// fsync runs, the next group accumulates, so the fsync rate stays bounded by the disk, not
+// by the request rate.
+// Record: int payload length, int CRC32C of the payload, payload = byte op, int age, UTF-8 name.
+final class WriteAheadLog implements AutoCloseable {
+
+    static final byte PUT = 1;
+    static final byte REMOVE = 2;
+
+    private static final int HEADER = 8;
+    private static final int MAX_RECORD = 1 << 20;
+
+    // what replay applies, in log order
+    interface Replay {
+        void put(String name, int age);
+
+        void remove(String name);
+    }
+
+    private final Path directory;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition work = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+    private final Thread flusher;
+
+    // guarded by lock
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer writing = ByteBuffer.allocate(64 * 1024);
+    private long appended;      // bytes appended since open, the "log sequence number"
+    private long durable;       // bytes written and fsynced
+    private long segmentStart;  // appended when the current segment started
+    private long segment;
+    private long rotateRequested = -1;
+    private boolean closed;
+    private volatile IOException failure;  // also read without the lock, by check()
+    private long syncs;
+
+    // owned by the flusher thread (and by rotate/close once it is idle)
+    private FileChannel channel;
+
+    // starts a new, empty segment after all existing ones
+    WriteAheadLog(Path directory, long segment) throws IOException {
+        this.directory = directory;
+        this.segment = segment;
+        this.channel = openSegment(segment);
+        this.flusher = Thread.ofPlatform().name("employee-wal").daemon().start(this::flushLoop);
+    }
+
+    static Path segmentPath(Path directory, long segment) {
+        return directory.resolve("wal-%016d.log".formatted(segment));
+    }
+
+    // existing segment numbers, ascending
+    static List<Long> segments(Path directory) throws IOException {
+        return numbered(directory, "wal-", ".log");
+    }
+
+    // numbers of the <prefix><number><suffix> files in the directory, ascending
+    static List<Long> numbered(Path directory, String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .map(name -> Long.parseLong(name, prefix.length(), name.length() - suffix.length(), 10))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    // Replays one segment and returns the number of records. A torn record at the end of
+    // the last segment (crash in the middle of a write) is cut off; anywhere else it is
+    // corruption.
+    static long replay(Path directory, long segment, boolean last, Replay replay) throws IOException {
+        Path path = segmentPath(directory, segment);
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            ByteBuffer buffer = ByteBuffer.allocate(256 * 1024);
+            CRC32C crc = new CRC32C();
+            long position = 0;  // file offset of the buffer
+            long records = 0;
+            while (position < size) {
+                buffer.clear();
+                while (buffer.hasRemaining() && in.read(buffer, position + buffer.position()) > 0) {
+                }
+                buffer.flip();
+                while (buffer.remaining() >= HEADER) {
+                    int length = buffer.getInt(buffer.position());
+                    if (length < 5 || length > MAX_RECORD)
+                        return torn(in, path, position + buffer.position(), last, records);
+                    if (buffer.remaining() < HEADER + length)
+                        break;
+                    int checksum = buffer.getInt(buffer.position() + 4);
+                    crc.reset();
+                    crc.update(buffer.slice(buffer.position() + HEADER, length));
+                    if ((int) crc.getValue() != checksum)
+                        return torn(in, path, position + buffer.position(), last, records);
+                    buffer.position(buffer.position() + HEADER);
+                    byte op = buffer.get();
+                    int age = buffer.getInt();
+                    byte[] name = new byte[length - 5];
+                    buffer.get(name);
+                    if (op == PUT)
+                        replay.put(new String(name, StandardCharsets.UTF_8), age);
+                    else
+                        replay.remove(new String(name, StandardCharsets.UTF_8));
+                    records++;
+                }
+                if (buffer.position() == 0) {
+                    // a record larger than the buffer, or cut off at the end of the file
+                    if (buffer.limit() == buffer.capacity() && position + buffer.limit() < size) {
+                        buffer = ByteBuffer.allocate(HEADER + buffer.getInt(0));
+                        continue;
+                    }
+                    return torn(in, path, position, last, records);
+                }
+                position += buffer.position();
+            }
+            return records;
+        }
+    }
+
+    private static long torn(FileChannel in, Path path, long position, boolean last, long records) throws IOException {
+        if (!last)
+            throw new IOException("Corrupt record in " + path + " at " + position);
+        Log.warnf("Truncating torn tail of %s at %d (%d bytes)", path, position, in.size() - position);
+        in.truncate(position);
+        in.force(true);
+        return records;
+    }
+
+    // encodes a record; done before touching the store so an invalid one is never applied
+    static byte[] record(byte op, String name, int age) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int length = 5 + bytes.length;
+        if (length > MAX_RECORD)
+            throw new IllegalArgumentException("Name too long: " + bytes.length + " bytes");
+        ByteBuffer record = ByteBuffer.allocate(HEADER + length);
+        record.putInt(length).putInt(0).put(op).putInt(age).put(bytes);
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), HEADER, length);
+        record.putInt(4, (int) crc.getValue());
+        return record.array();
+    }
+
+    // returns the sequence number to pass to await()
+    long append(byte[] record) {
+        lock.lock();
+        try {
+            checkOpen();
+            if (pending.remaining() < record.length) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + record.length));
+                pending = larger.put(pending.flip());
+            }
+            pending.put(record);
+            appended += record.length;
+            work.signal();
+            return appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // blocks until everything up to the sequence number is on disk
+    void await(long sequence) {
+        lock.lock();
+        try {
+            while (durable < sequence) {
+                if (failure != null)
+                    throw new UncheckedIOException("Write-ahead log failed", failure);
+                synced.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Flushes the current segment and switches to the next one. Returns the new segment:
+    // everything appended after this call goes there or later.
+    long rotate() {
+        lock.lock();
+        try {
+            checkOpen();
+            long next = segment + 1;
+            rotateRequested = next;
+            work.signal();
+            while (segment != next) {
+                if (failure != null)
+                    throw new UncheckedIOException("Write-ahead log failed", failure);
+                synced.awaitUninterruptibly();
+            }
+            return next;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Throws once the log has failed: nothing appended after a failed write ever becomes
+    // durable, so a caller checks before it changes anything the log should cover.
+    void check() {
+        IOException failed = failure;
+        if (failed != null)
+            throw new UncheckedIOException("Write-ahead log failed", failed);
+    }
+
+    private void checkOpen() {
+        if (closed)
+            throw new IllegalStateException("Write-ahead log is closed");
+        check();
+    }
+
+    // bytes appended to the current segment, to skip idle snapshots
+    long segmentBytes() {
+        lock.lock();
+        try {
+            return appended - segmentStart;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long syncs() {
+        lock.lock();
+        try {
+            return syncs;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long upTo;
+            long rotateTo;
+            lock.lock();
+            try {
+                while (pending.position() == 0 && rotateRequested < 0 && !closed)
+                    work.awaitUninterruptibly();
+                if (pending.position() == 0 && rotateRequested < 0)
+                    return;  // closed and drained
+                ByteBuffer batch = pending;
+                pending = writing;
+                writing = batch;
+                upTo = appended;
+                rotateTo = rotateRequested;
+                if (rotateTo >= 0)
+                    segmentStart = appended;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                writing.flip();
+                while (writing.hasRemaining())
+                    channel.write(writing);
+                channel.force(false);
+                if (rotateTo >= 0) {
+                    channel.close();
+                    channel = openSegment(rotateTo);
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+            writing.clear();
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    Log.error("Write-ahead log failed", error);
+                    failure = error;
+                } else {
+                    durable = upTo;
+                    syncs++;
+                    if (rotateTo >= 0) {
+                        segment = rotateTo;
+                        rotateRequested = -1;
+                    }
+                }
+                synced.signalAll();
+                if (error != null)
+                    return;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        FileChannel opened = FileChannel.open(segmentPath(directory, number),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        syncDirectory(directory);
+        return opened;
+    }
+
+    // makes a created, renamed or deleted file survive a crash
+    static void syncDirectory(Path directory) throws IOException {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        }
+    }
+
+    // flushes what was appended, then stops the flusher
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            work.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+}
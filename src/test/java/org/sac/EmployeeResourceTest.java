@@ -0,0 +1,487 @@
+package org.sac;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+class EmployeeResourceTest {
+
+    @Test
+    void testStoreLookupAndDelete() {
+        given()
+          .contentType(ContentType.JSON)
+          .body("{\"name\":\"store-test\",\"age\":42}")
+          .when().post("/api/employee/employee")
+          .then()
+             .statusCode(200);
+
+        given()
+          .when().get("/api/employee/employees/store-test")
+          .then()
+             .statusCode(200)
+             .body("age", is(42));
+
+        given()
+          .when().delete("/api/employee/employees/store-test")
+          .then()
+             .statusCode(204);
+
+        given()
+          .when().get("/api/employee/employees/store-test")
+          .then()
+             .statusCode(404);
+    }
+
+    @Test
+    void testAgeRange() {
+        for (String body : new String[]{
+                "{\"name\":\"range-b\",\"age\":120}",
+                "{\"name\":\"range-a\",\"age\":120}",
+                "{\"name\":\"range-c\",\"age\":121}"}) {
+            given().contentType(ContentType.JSON).body(body)
+              .when().post("/api/employee/employee")
+              .then().statusCode(200);
+        }
+
+        given()
+          .queryParam("minAge", 120)
+          .queryParam("maxAge", 120)
+          .when().get("/api/employee/employees")
+          .then()
+             .statusCode(200)
+             .body("items.name", contains("range-a", "range-b"))
+             .body("next", nullValue());
+
+        // keyset pagination: one employee per page
+        String next = given()
+          .queryParam("minAge", 120)
+          .queryParam("maxAge", 121)
+          .queryParam("limit", 1)
+          .when().get("/api/employee/employees")
+          .then()
+             .statusCode(200)
+             .body("items.name", contains("range-a"))
+             .extract().path("next");
+
+        given()
+          .queryParam("minAge", 120)
+          .queryParam("maxAge", 121)
+          .queryParam("limit", 2)
+          .queryParam("cursor", next)
+          .when().get("/api/employee/employees")
+          .then()
+             .statusCode(200)
+             .body("items.name", contains("range-b", "range-c"))
+             .body("next", nullValue());
+
+        // an inverted range is empty, not an error
+        given()
+          .queryParam("minAge", 121)
+          .queryParam("maxAge", 120)
+          .when().get("/api/employee/employees")
+          .then()
+             .statusCode(200)
+             .body("items.size()", is(0))
+             .body("next", nullValue());
+
+        given()
+          .queryParam("cursor", "not-a-cursor")
+          .when().get("/api/employee/employees")
+          .then()
+             .statusCode(400);
+    }
+
+    @Test
+    void testBulkIngest() {
+        given()
+          .contentType("application/x-ndjson")
+          .body(("{\"name\":\"bulk-a\",\"age\":30}\n"
+                  + "\n"
+                  + "not json\n"
+                  + "{\"name\":\"bulk-b\",\"age\":999}\n"
+                  + "{\"name\":\"bulk-c\",\"age\":31}").getBytes(StandardCharsets.UTF_8))
+          .when().post("/api/employee/employees/bulk")
+          .then()
+             .statusCode(200)
+             .body("accepted", is(2))
+             .body("rejected", is(2));
+
+        given()
+          .when().get("/api/employee/employees/bulk-c")
+          .then()
+             .statusCode(200)
+             .body("age", is(31));
+    }
+
+    // more than the 10240K that buffered endpoints accept
+    @Test
+    void testBulkIngestOverTheBodyLimit() {
+        StringBuilder lines = new StringBuilder();
+        int count = 0;
+        while (lines.length() <= 11 * 1024 * 1024) {
+            lines.append("{\"name\":\"bulk-large\",\"age\":").append(count % 100).append("}\n");
+            count++;
+        }
+        byte[] body = lines.toString().getBytes(StandardCharsets.UTF_8);
+        given()
+          .contentType("application/x-ndjson")
+          .body(body)
+          .when().post("/api/employee/employees/bulk")
+          .then()
+             .statusCode(200)
+             .body("accepted", is(count))
+             .body("rejected", is(0));
+
+        given()
+          .when().get("/api/employee/employees/bulk-large")
+          .then()
+             .statusCode(200)
+             .body("age", is((count - 1) % 100));
+
+        // answered before the body is sent
+        given()
+          .contentType(ContentType.JSON)
+          .header("Expect", "100-continue")
+          .body(body)
+          .when().post("/api/employee/employee")
+          .then()
+             .statusCode(413)
+             .header("Connection", "close");
+    }
+
+    @Test
+    void testCheeses() {
+        given()
+          .when().get("/api/employee/cheeses/salty")
+          .then()
+             .statusCode(200);
+
+        // the shared miss response, twice
+        for (int i = 0; i < 2; i++) {
+            given()
+              .when().get("/api/employee/cheeses/no-such-cheese")
+              .then()
+                 .statusCode(404)
+                 .body(is("Unknown cheese"));
+        }
+
+        given()
+          .queryParam("prefix", "ca")
+          .queryParam("limit", 2)
+          .when().get("/api/employee/cheese-suggestions")
+          .then()
+             .statusCode(200)
+             .body("$", contains("Caciocavallo", "Camembert"));
+    }
+
+    @Test
+    void testBatchLookup() {
+        given()
+          .contentType(ContentType.JSON)
+          .body("{\"name\":\"lookup-a\",\"age\":21}")
+          .when().post("/api/employee/employee")
+          .then()
+             .statusCode(200);
+
+        // lines come in completion order, duplicates are looked up once
+        String ndjson = given()
+          .contentType(ContentType.JSON)
+          .body("[\"lookup-a\",\"lookup-missing\",\"lookup-a\"]")
+          .when().post("/api/employee/employees/lookup")
+          .then()
+             .statusCode(200)
+             .extract().asString();
+        List<String> lines = ndjson.lines().sorted().toList();
+        assertEquals(List.of(
+                "{\"name\":\"lookup-a\",\"status\":200,\"employee\":{\"name\":\"lookup-a\",\"age\":21}}",
+                "{\"name\":\"lookup-missing\",\"status\":404}"), lines);
+
+        given()
+          .contentType(ContentType.JSON)
+          .body("[]")
+          .when().post("/api/employee/employees/lookup")
+          .then()
+             .statusCode(400);
+    }
+
+    @Test
+    void testStreamingModes() {
+        given()
+          .contentType(ContentType.JSON)
+          .body("{\"name\":\"stream-a\",\"age\":140}")
+          .when().post("/api/employee/employee")
+          .then()
+             .statusCode(200);
+
+        given()
+          .when().get("/api/employee/hello-streaming")
+          .then()
+             .statusCode(200)
+             .body("name", hasItem("stream-a"));
+
+        // RestAssured treats x-ndjson as JSON, so check the raw text
+        String ndjson = given()
+          .accept("application/x-ndjson")
+          .when().get("/api/employee/hello-streaming")
+          .then()
+             .statusCode(200)
+             .extract().asString();
+        assertTrue(ndjson.contains("{\"name\":\"stream-a\",\"age\":140}"), ndjson);
+
+        given()
+          .accept("text/event-stream")
+          .when().get("/api/employee/hello-streaming")
+          .then()
+             .statusCode(200)
+             .body(containsString("data:{\"name\":\"stream-a\",\"age\":140}"));
+    }
+
+    @Test
+    void testCborNegotiation() throws IOException {
+        CBORMapper cbor = new CBORMapper();
+        byte[] body = cbor.writeValueAsBytes(Map.of("name", "cbor-a", "age", 141));
+        byte[] added = given()
+          .contentType("application/cbor")
+          .accept("application/cbor")
+          .body(body)
+          .when().post("/api/employee/employee")
+          .then()
+             .statusCode(200)
+             .contentType("application/cbor")
+             .extract().asByteArray();
+        assertEquals(Map.of("name", "cbor-a", "age", 141), cbor.readValue(added, Map.class));
+
+        byte[] page = given()
+          .accept("application/cbor")
+          .queryParam("minAge", 141)
+          .queryParam("maxAge", 141)
+          .when().get("/api/employee/employees")
+          .then()
+             .statusCode(200)
+             .contentType("application/cbor")
+             .extract().asByteArray();
+        assertEquals("cbor-a", cbor.readTree(page).path("items").path(0).path("name").asText());
+
+        given()
+          .accept("application/cbor")
+          .when().get("/api/employee/hello-status")
+          .then()
+             .statusCode(409)
+             .contentType("application/cbor");
+        // JSON stays the default
+        given()
+          .when().get("/api/employee/employee")
+          .then()
+             .statusCode(200)
+             .contentType(ContentType.JSON);
+
+        // a CBOR sequence: items back to back
+        byte[] sequence = given()
+          .accept("application/cbor-seq")
+          .when().get("/api/employee/hello-streaming")
+          .then()
+             .statusCode(200)
+             .extract().asByteArray();
+        List<Map<?, ?>> employees = new ArrayList<>();
+        try (MappingIterator<Map<?, ?>> items = cbor.readerFor(Map.class).readValues(sequence)) {
+            items.forEachRemaining(employees::add);
+        }
+        assertTrue(employees.contains(Map.of("name", "cbor-a", "age", 141)), employees.toString());
+
+        given()
+          .contentType("application/cbor")
+          .body(new byte[]{(byte) 0xA2, 0x64})
+          .when().post("/api/employee/employee")
+          .then()
+             .statusCode(400)
+             .body(containsString("Invalid CBOR"));
+    }
+
+    @Test
+    void testInvalidEmployeeRejected() {
+        given()
+          .contentType(ContentType.JSON)
+          .body("{\"name\":\"\",\"age\":-1}")
+          .when().post("/api/employee/employee")
+          .then()
+             .statusCode(400);
+    }
+
+    @Test
+    void testMalformedEmployeeRejected() {
+        given()
+          .contentType(ContentType.JSON)
+          .body("{\"name\":\"x\",\"age\":")
+          .when().post("/api/employee/employee")
+          .then()
+             .statusCode(400)
+             .body(containsString("Invalid JSON"));
+
+        given()
+          .contentType(ContentType.JSON)
+          .body("{\"name\":\"json\",\"age\":33}")
+          .when().post("/api/employee/employee")
+          .then()
+             .statusCode(200)
+             .body(is("{\"name\":\"json\",\"age\":33}"));
+    }
+
+    @Test
+    void testPreEncodedResponses() {
+        for (int i = 0; i < 2; i++) {
+            given()
+              .when().get("/api/employee/hello")
+              .then()
+                 .statusCode(200)
+                 .contentType("text/plain;charset=UTF-8")
+                 .header("X-Cheese", "Camembert")
+                 .header("Set-Cookie", "Flavour=chocolate;Version=1")
+                 .header("Expires", containsString(" GMT"))
+                 .body(is("Hello, World!"));
+        }
+
+        given()
+          .when().get("/api/employee/hello-annotation")
+          .then()
+             .statusCode(201)
+             .contentType("text/plain;charset=UTF-8")
+             .header("X-Cheese", "Camembert")
+             .body(is("Hello, World!"));
+    }
+
+    @Test
+    void testAnalytics() {
+        for (String body : new String[]{
+                "{\"name\":\"analytics-a\",\"age\":140}",
+                "{\"name\":\"analytics-b\",\"age\":150}"}) {
+            given().contentType(ContentType.JSON).body(body)
+              .when().post("/api/employee/employee")
+              .then().statusCode(200);
+        }
+
+        given()
+          .queryParam("bucketWidth", 151)
+          .queryParam("prefixLength", 9)
+          .when().get("/api/employee/analytics")
+          .then()
+             .statusCode(200)
+             .body("maxAge", is(150))
+             .body("topPrefixes.prefix", hasItem("analytics"));
+
+        given()
+          .queryParam("bucketWidth", 0)
+          .when().get("/api/employee/analytics")
+          .then()
+             .statusCode(400);
+    }
+
+    // HS256, signed with the secret in src/test/resources/jwt-hmac.key
+    private static String token(String payload) throws Exception {
+        Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+        String signed = base64.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8))
+                + "." + base64.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec("test-only-hmac-secret-0123456789abcdef".getBytes(StandardCharsets.US_ASCII), "HmacSHA256"));
+        return signed + "." + base64.encodeToString(mac.doFinal(signed.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void testBearerToken() throws Exception {
+        long exp = System.currentTimeMillis() / 1000 + 300;
+        String token = token("{\"sub\":\"sachin\",\"groups\":[\"user\"],\"exp\":" + exp + "}");
+        // the second round is served from the verification cache
+        for (int i = 0; i < 2; i++) {
+            given()
+              .header("Authorization", "Bearer " + token)
+              .when().get("/api/employee/hello-context")
+              .then()
+                 .statusCode(200)
+                 .body(is("sachin"));
+        }
+
+        given()
+          .when().get("/api/employee/hello-context")
+          .then()
+             .statusCode(200)
+             .body(is("<NOT LOGGED IN>"));
+
+        given()
+          .header("Authorization", "Bearer " + token("{\"sub\":\"sachin\",\"exp\":1}"))
+          .when().get("/api/employee/hello-context")
+          .then()
+             .statusCode(401)
+             .header("WWW-Authenticate", containsString("invalid_token"));
+
+        given()
+          .header("Authorization", "Bearer " + token.substring(0, token.length() - 2))
+          .when().get("/api/employee/hello-context")
+          .then()
+             .statusCode(401);
+    }
+
+    @TestHTTPResource("/api/employee/changes")
+    URI changes;
+
+    @Test
+    @Timeout(30)
+    void testChangeFeed() throws Exception {
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            // returns once the response headers are in, the subscription then exists
+            HttpResponse<Stream<String>> feed = client.send(HttpRequest.newBuilder(changes)
+                    .header("Accept", "text/event-stream").build(), HttpResponse.BodyHandlers.ofLines());
+            assertEquals(200, feed.statusCode());
+
+            given().contentType(ContentType.JSON).body("{\"name\":\"feed\",\"age\":40}")
+              .when().post("/api/employee/employee").then().statusCode(200);
+            given().contentType(ContentType.JSON).body("{\"name\":\"feed\",\"age\":41}")
+              .when().post("/api/employee/employee").then().statusCode(200);
+            given().when().delete("/api/employee/employees/feed").then().statusCode(204);
+
+            // "event: name" then "data: json", collected as "name json"
+            List<String> events = new ArrayList<>();
+            Iterator<String> lines = feed.body().iterator();
+            String event = null;
+            while (events.size() < 3) {
+                String line = lines.next();
+                if (line.startsWith("event:"))
+                    event = line.substring(6).strip();
+                else if (line.startsWith("data:"))
+                    events.add(event + " " + line.substring(5).strip());
+            }
+            feed.body().close();
+            assertEquals(List.of(
+                    "created {\"name\":\"feed\",\"age\":40}",
+                    "updated {\"name\":\"feed\",\"age\":41}",
+                    "deleted {\"name\":\"feed\",\"age\":41}"), events);
+        }
+    }
+}
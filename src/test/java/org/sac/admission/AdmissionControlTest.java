@@ -0,0 +1,114 @@
+package org.sac.admission;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@QuarkusTest
+class AdmissionControlTest {
+
+    @AdmissionGroup("overloads")
+    static class Overloads {
+
+        public void find(String name) {
+        }
+
+        @AdmissionGroup("overloads-by-age")
+        public void find(int age) {
+        }
+
+        @AdmissionGroup(AdmissionGroup.NONE)
+        public void find(String name, int age) {
+        }
+    }
+
+    @Inject
+    AdmissionControl admission;
+
+    @TestHTTPResource("/api/employee/employees/bulk")
+    URI bulk;
+
+    @Test
+    void testOverloadsHaveTheirOwnGroups() {
+        for (int i = 0; i < 2; i++) {
+            assertEquals("overloads", admission.limiter(Overloads.class, "find", new Class<?>[]{String.class}).group);
+            assertEquals("overloads-by-age", admission.limiter(Overloads.class, "find", new Class<?>[]{int.class}).group);
+            assertNull(admission.limiter(Overloads.class, "find", new Class<?>[]{String.class, int.class}));
+        }
+    }
+
+    // the streaming group has a limit of 2 in the test profile: two bulk uploads that are
+    // still sending hold both permits
+    @Test
+    @Timeout(30)
+    void testGroupOverItsLimitIsShed() throws Exception {
+        List<Socket> uploads = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                Socket upload = new Socket(bulk.getHost(), bulk.getPort());
+                uploads.add(upload);
+                String line = "{\"name\":\"admission-" + i + "\",\"age\":30}\n";
+                upload.getOutputStream().write(("POST " + bulk.getPath() + " HTTP/1.1\r\n"
+                        + "Host: " + bulk.getAuthority() + "\r\n"
+                        + "Content-Type: application/x-ndjson\r\n"
+                        + "Transfer-Encoding: chunked\r\n\r\n"
+                        + Integer.toHexString(line.length()) + "\r\n" + line + "\r\n").getBytes(StandardCharsets.UTF_8));
+                upload.getOutputStream().flush();
+            }
+            while (!metrics().contains("admission_in_flight{group=\"employee-streaming\"} 2"))
+                Thread.sleep(10);
+
+            given()
+              .when().get("/api/employee/hello-streaming")
+              .then()
+                 .statusCode(503)
+                 .header("Retry-After", "1")
+                 .body(is("Overloaded, retry later"));
+            // other groups are not affected
+            given()
+              .when().get("/api/employee/employees/admission-0")
+              .then()
+                 .statusCode(404);
+
+            // the last chunk ends the uploads
+            for (Socket upload : uploads) {
+                upload.getOutputStream().write("0\r\n\r\n".getBytes(StandardCharsets.UTF_8));
+                upload.getOutputStream().flush();
+                String status = new BufferedReader(new InputStreamReader(upload.getInputStream(), StandardCharsets.UTF_8)).readLine();
+                assertEquals("HTTP/1.1 200 OK", status);
+            }
+        } finally {
+            for (Socket upload : uploads)
+                upload.close();
+        }
+
+        given()
+          .when().get("/api/metrics")
+          .then()
+             .body(containsString("admission_requests_total{group=\"employee-streaming\",outcome=\"rejected\"} 1"));
+        given()
+          .when().get("/api/employee/employees/admission-1")
+          .then()
+             .statusCode(200);
+    }
+
+    private static String metrics() {
+        return given().when().get("/api/metrics").then().extract().asString();
+    }
+}
@@ -0,0 +1,55 @@
+package org.sac.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GradientLimitTest {
+
+    private static final long MS = 1_000_000;
+
+    private static void windows(GradientLimit limit, int windows, long rttNanos, int inFlight) {
+        for (int i = 0; i < windows * 10; i++)
+            limit.sample(rttNanos, inFlight);
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyIsStable() {
+        GradientLimit limit = new GradientLimit(10, 2, 100, 10);
+        windows(limit, 1, 5 * MS, 10);
+        windows(limit, 20, 5 * MS, 100);
+        assertTrue(limit.limit() > 20, "limit " + limit.limit());
+        windows(limit, 200, 5 * MS, 100);
+        assertEquals(100, limit.limit());
+    }
+
+    @Test
+    void testLimitDoesNotGrowWhenPermitsAreUnused() {
+        GradientLimit limit = new GradientLimit(20, 2, 100, 10);
+        windows(limit, 50, 5 * MS, 3);
+        assertEquals(20, limit.limit());
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyRises() {
+        GradientLimit limit = new GradientLimit(50, 2, 100, 10);
+        windows(limit, 10, 5 * MS, 50);
+        int before = limit.limit();
+        // requests start queueing: latency six times the baseline
+        windows(limit, 10, 30 * MS, before);
+        assertTrue(limit.limit() < before / 2, before + " -> " + limit.limit());
+    }
+
+    @Test
+    void testLimiterRejectsOverTheLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", new GradientLimit(2, 1, 10, 10));
+        assertEquals(1, limiter.tryAcquire());
+        assertEquals(2, limiter.tryAcquire());
+        assertEquals(0, limiter.tryAcquire());
+        assertEquals(1, limiter.rejected.sum());
+        limiter.release(MS, 1);
+        assertEquals(2, limiter.tryAcquire());
+        assertEquals(2, limiter.inFlight());
+    }
+}
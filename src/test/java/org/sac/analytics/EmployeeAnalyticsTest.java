@@ -0,0 +1,69 @@
+package org.sac.analytics;
+
+import org.junit.jupiter.api.Test;
+import org.sac.EmployeeResource.Employee;
+import org.sac.store.EmployeeStore;
+import org.sac.store.HeapEmployeeStore;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class EmployeeAnalyticsTest {
+
+    private final EmployeeStore store = new HeapEmployeeStore();
+    private final EmployeeAnalytics analytics = new EmployeeAnalytics(store);
+
+    @Test
+    void testEmptyStore() {
+        EmployeeAnalytics.Report report = analytics.compute(10, 3, 5);
+        assertEquals(0, report.count());
+        assertNull(report.minAge());
+        assertNull(report.meanAge());
+        assertEquals(List.of(), report.ageHistogram());
+        assertEquals(List.of(), report.topPrefixes());
+    }
+
+    @Test
+    void testStatistics() {
+        for (String name : new String[]{"Sachin", "sam", "SAMIR", "Anna", "Andy", "Bo"})
+            store.put(new Employee(name, 20 + name.length()));
+
+        EmployeeAnalytics.Report report = analytics.compute(10, 2, 2);
+        assertEquals(6, report.count());
+        assertEquals(22, report.minAge());
+        assertEquals(26, report.maxAge());
+        assertEquals((26 + 23 + 25 + 24 + 24 + 22) / 6.0, report.meanAge(), 1e-9);
+        assertEquals(List.of(new EmployeeAnalytics.AgeBucket(20, 29, 6)), report.ageHistogram());
+        assertEquals(List.of(new EmployeeAnalytics.PrefixCount("sa", 3), new EmployeeAnalytics.PrefixCount("an", 2)),
+                report.topPrefixes());
+    }
+
+    // enough keys for the parallel streams to actually split
+    @Test
+    void testParallelMatchesSequential() {
+        IntStream.range(0, 100_000).forEach(i ->
+                store.put(new Employee("emp" + (i % 977) + "-" + i, i % 101)));
+
+        EmployeeAnalytics.Report report = analytics.compute(25, 5, 3);
+        assertEquals(100_000, report.count());
+        assertEquals(0, report.minAge());
+        assertEquals(100, report.maxAge());
+        assertEquals(IntStream.range(0, 100_000).map(i -> i % 101).average().orElseThrow(), report.meanAge(), 1e-9);
+        assertEquals(List.of(
+                new EmployeeAnalytics.AgeBucket(0, 24, IntStream.range(0, 100_000).filter(i -> i % 101 < 25).count()),
+                new EmployeeAnalytics.AgeBucket(25, 49, IntStream.range(0, 100_000).filter(i -> i % 101 >= 25 && i % 101 < 50).count()),
+                new EmployeeAnalytics.AgeBucket(50, 74, IntStream.range(0, 100_000).filter(i -> i % 101 >= 50 && i % 101 < 75).count()),
+                new EmployeeAnalytics.AgeBucket(75, 99, IntStream.range(0, 100_000).filter(i -> i % 101 >= 75 && i % 101 < 100).count()),
+                new EmployeeAnalytics.AgeBucket(100, 124, IntStream.range(0, 100_000).filter(i -> i % 101 == 100).count())),
+                report.ageHistogram());
+        // "emp1-", "emp2-" ... get 103 names each, the three digit prefixes "emp10" ... far more
+        List<EmployeeAnalytics.PrefixCount> top = report.topPrefixes();
+        assertEquals(3, top.size());
+        assertEquals(IntStream.range(0, 100_000).filter(i -> ("emp" + (i % 977)).startsWith("emp10")).count(),
+                top.getFirst().count());
+        assertEquals("emp10", top.getFirst().prefix());
+    }
+}
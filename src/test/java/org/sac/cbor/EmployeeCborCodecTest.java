@@ -0,0 +1,62 @@
+package org.sac.cbor;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+import org.sac.EmployeeResource.Employee;
+import org.sac.json.EmployeeJsonCodec;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EmployeeCborCodecTest {
+
+    private final CBORMapper cbor = new CBORMapper();
+    private final ObjectMapper json = JsonMapper.builder().build();
+
+    private byte[] write(Employee employee) {
+        ByteBuf buf = Unpooled.buffer(8);
+        EmployeeCborCodec.INSTANCE.write(employee, new CborOutput(buf));
+        return ByteBufUtil.getBytes(buf);
+    }
+
+    @Test
+    void testWriteDecodesLikeJson() throws IOException {
+        String[] names = {"sachin", "", "x".repeat(23), "y".repeat(24), "z".repeat(300), "z".repeat(70_000),
+                "café € 🧀", null};
+        int[] ages = {0, 23, 24, 255, 256, 65_535, 65_536, -1, -24, -25, -257, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (String name : names) {
+            for (int age : ages) {
+                Employee employee = new Employee(name, age);
+                byte[] bytes = write(employee);
+                // Jackson's own CBOR decoder sees the same map as the JSON form
+                assertEquals(json.readValue(json.writeValueAsString(employee), Map.class), cbor.readValue(bytes, Map.class));
+                try (JsonParser parser = cbor.createParser(bytes)) {
+                    parser.nextToken();
+                    Employee read = EmployeeJsonCodec.INSTANCE.read(parser);
+                    assertEquals(name, read.getName());
+                    assertEquals(age, read.getAge());
+                }
+            }
+        }
+        Employee noAge = new Employee("x", null);
+        assertEquals(json.readValue(json.writeValueAsString(noAge), Map.class), cbor.readValue(write(noAge), Map.class));
+    }
+
+    @Test
+    void testEncoding() {
+        // RFC 8949 appendix A style: map(2), "name", "ab", "age", 30
+        assertArrayEquals(new byte[]{(byte) 0xA2, 0x64, 'n', 'a', 'm', 'e', 0x62, 'a', 'b', 0x63, 'a', 'g', 'e', 0x18, 30},
+                write(new Employee("ab", 30)));
+        assertArrayEquals(new byte[]{(byte) 0xA2, 0x64, 'n', 'a', 'm', 'e', (byte) 0xF6, 0x63, 'a', 'g', 'e', 0x38, 99},
+                write(new Employee(null, -100)));
+    }
+}
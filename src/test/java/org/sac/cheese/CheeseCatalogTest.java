@@ -0,0 +1,51 @@
+package org.sac.cheese;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CheeseCatalogTest {
+
+    private final CheeseCatalog catalog = new CheeseCatalog(Map.of(
+            "Brie", "soft",
+            "Brie de Meaux", "softer",
+            "Camembert", "bloomy",
+            "Cantal", "firm",
+            "Caciocavallo", "stretched",
+            "Cheddar", "hard"));
+
+    @Test
+    void testExactLookup() {
+        assertEquals("soft", catalog.find("Brie"));
+        assertNull(catalog.find("brie"));
+        assertNull(catalog.find("Bri"));
+    }
+
+    @Test
+    void testCaseInsensitiveLookup() {
+        assertEquals("soft", catalog.findIgnoreCase("bRIE"));
+        assertEquals("softer", catalog.findIgnoreCase("brie de meaux"));
+        assertNull(catalog.findIgnoreCase("brie de"));
+        assertNull(catalog.findIgnoreCase("gouda"));
+    }
+
+    @Test
+    void testPrefixSuggestions() {
+        assertEquals(List.of("Caciocavallo", "Camembert", "Cantal"), catalog.suggest("ca", 10));
+        assertEquals(List.of("Caciocavallo", "Camembert"), catalog.suggest("CA", 2));
+        assertEquals(List.of("Brie", "Brie de Meaux"), catalog.suggest("brie", 10));
+        assertEquals(List.of(), catalog.suggest("x", 10));
+        assertEquals(6, catalog.suggest("", 10).size());
+    }
+
+    @Test
+    void testBundledCatalogLoads() {
+        CheeseCatalog bundled = new CheeseCatalog();
+        assertEquals("Salty cheese", bundled.find("salty"));
+        assertEquals("Salty cheese", bundled.findIgnoreCase("Salty"));
+    }
+}
@@ -0,0 +1,133 @@
+package org.sac.cluster;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerRequest;
+import jakarta.ws.rs.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.sac.EmployeeResource.Employee;
+import org.sac.store.EmployeeStore.AgeKey;
+import org.sac.store.EmployeeStore.Page;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmployeeClusterTest {
+
+    private final Vertx vertx = Vertx.vertx();
+
+    @AfterEach
+    void close() {
+        vertx.close();
+    }
+
+    private EmployeeCluster cluster(List<String> nodes, String secret) {
+        return new EmployeeCluster(Optional.of(nodes), Optional.of(nodes.getFirst()), 128, 4,
+                Duration.ofSeconds(1), Optional.ofNullable(secret), vertx);
+    }
+
+    @Test
+    void testLocalHeaderIsOnlyTrustedFromPeers() {
+        EmployeeCluster cluster = cluster(List.of("http://127.0.0.1:8081", "http://127.0.0.1:8082"), null);
+        assertTrue(cluster.fromPeer("127.0.0.1", null));
+        assertFalse(cluster.fromPeer("10.1.2.3", null));
+        assertFalse(cluster.fromPeer(null, null));
+        cluster.close();
+    }
+
+    @Test
+    void testLocalHeaderNeedsTheSecret() {
+        EmployeeCluster cluster = cluster(List.of("http://127.0.0.1:8081", "http://127.0.0.1:8082"), "s3cret");
+        assertTrue(cluster.fromPeer("127.0.0.1", "s3cret"));
+        assertFalse(cluster.fromPeer("127.0.0.1", null));
+        assertFalse(cluster.fromPeer("127.0.0.1", "guess"));
+        assertFalse(cluster.fromPeer("10.1.2.3", "s3cret"));
+        cluster.close();
+    }
+
+    @Test
+    void testLocalHeaderIsNeverTrustedWhenNotSharded() {
+        EmployeeCluster cluster = new EmployeeCluster(Optional.empty(), Optional.empty(), 128, 4,
+                Duration.ofSeconds(1), Optional.empty(), vertx);
+        assertFalse(cluster.fromPeer("127.0.0.1", null));
+    }
+
+    private HttpServer peer(Handler<HttpServerRequest> handler) throws Exception {
+        return vertx.createHttpServer().requestHandler(handler)
+                .listen(0).toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testGetAllIsOneBatchLookup() throws Exception {
+        Map<String, String> seen = new ConcurrentHashMap<>();
+        HttpServer peer = peer(request -> request.body().onSuccess(body -> {
+            seen.put("path", request.path());
+            seen.put("local", request.getHeader(EmployeeCluster.LOCAL_HEADER));
+            seen.put("secret", request.getHeader(EmployeeCluster.SECRET_HEADER));
+            seen.put("accept", request.getHeader("Accept"));
+            seen.put("body", body.toString());
+            request.response().putHeader("Content-Type", "application/x-ndjson").end("""
+                    {"name":"sachin","status":200,"employee":{"name":"sachin","age":30}}
+                    {"name":"nobody","status":404}
+                    """);
+        }));
+        String node = "http://127.0.0.1:" + peer.actualPort();
+        EmployeeCluster cluster = cluster(List.of("http://127.0.0.1:1", node), "s3cret");
+
+        Map<String, Employee> found = cluster.getAll(node, List.of("sachin", "nobody", "lost"))
+                .await().atMost(Duration.ofSeconds(10));
+        assertEquals(30, found.get("sachin").getAge());
+        assertTrue(found.containsKey("nobody"));
+        assertNull(found.get("nobody"));
+        // not answered for: neither found nor known to be missing
+        assertFalse(found.containsKey("lost"));
+        assertEquals("/api/employee/employees/lookup", seen.get("path"));
+        assertEquals("true", seen.get("local"));
+        assertEquals("s3cret", seen.get("secret"));
+        assertEquals("application/x-ndjson", seen.get("accept"));
+        assertEquals("[\"sachin\",\"nobody\",\"lost\"]", seen.get("body"));
+        cluster.close();
+    }
+
+    @Test
+    void testGetAllFailsWhenThePeerFails() throws Exception {
+        HttpServer peer = peer(request -> request.response().setStatusCode(503).end());
+        String node = "http://127.0.0.1:" + peer.actualPort();
+        EmployeeCluster cluster = cluster(List.of("http://127.0.0.1:1", node), null);
+        assertThrows(ServiceUnavailableException.class,
+                () -> cluster.getAll(node, List.of("sachin")).await().atMost(Duration.ofSeconds(10)));
+        cluster.close();
+    }
+
+    private static Page page(boolean hasMore, Employee... items) {
+        return new Page(List.of(items), items.length == 0 ? null : AgeKey.of(items[items.length - 1]), hasMore);
+    }
+
+    @Test
+    void testMergePages() {
+        Page a = page(false, new Employee("a", 20), new Employee("d", 30));
+        Page b = page(true, new Employee("b", 20), new Employee("c", 25));
+        Page c = page(false);
+
+        Page merged = EmployeeCluster.merge(List.of(a, b, c), 3);
+        assertEquals(List.of("a", "b", "c"), merged.items().stream().map(Employee::getName).toList());
+        assertEquals(new AgeKey(25, "c"), merged.last());
+        assertTrue(merged.hasMore());
+
+        Page all = EmployeeCluster.merge(List.of(a, page(false, new Employee("b", 20))), 10);
+        assertEquals(List.of("a", "b", "d"), all.items().stream().map(Employee::getName).toList());
+        assertFalse(all.hasMore());
+    }
+}
@@ -0,0 +1,56 @@
+package org.sac.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashRingTest {
+
+    private static final List<String> THREE = List.of("http://a:8080", "http://b:8080", "http://c:8080");
+
+    @Test
+    void testEvenSpread() {
+        HashRing ring = new HashRing(THREE, 128);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 30_000; i++)
+            counts.merge(ring.owner("employee-" + i), 1, Integer::sum);
+        assertEquals(3, counts.size());
+        for (int count : counts.values())
+            assertTrue(count > 8_000 && count < 12_000, counts.toString());
+    }
+
+    @Test
+    void testAddingANodeMovesOnlyItsShare() {
+        HashRing three = new HashRing(THREE, 128);
+        List<String> fourNodes = new ArrayList<>(THREE);
+        fourNodes.add("http://d:8080");
+        HashRing four = new HashRing(fourNodes, 128);
+        int moved = 0;
+        for (int i = 0; i < 20_000; i++) {
+            String name = "employee-" + i;
+            String before = three.owner(name);
+            String after = four.owner(name);
+            if (!before.equals(after)) {
+                // names only move to the new node
+                assertEquals("http://d:8080", after);
+                moved++;
+            }
+        }
+        // about a quarter
+        assertTrue(moved > 3_500 && moved < 6_500, "moved " + moved);
+    }
+
+    @Test
+    void testSameRingOnEveryNode() {
+        HashRing ring = new HashRing(THREE, 128);
+        HashRing copy = new HashRing(List.copyOf(THREE), 128);
+        for (int i = 0; i < 1_000; i++)
+            assertEquals(ring.owner("n" + i), copy.owner("n" + i));
+    }
+}
@@ -0,0 +1,115 @@
+package org.sac.execution;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import org.jboss.resteasy.reactive.server.SimpleResourceInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventLoopWatchdogTest {
+
+    private Vertx vertx;
+    private EventLoopWatchdog watchdog;
+
+    @BeforeEach
+    void start() throws InterruptedException {
+        vertx = Vertx.vertx(new VertxOptions().setEventLoopPoolSize(1));
+        watchdog = new EventLoopWatchdog(vertx, true, Duration.ofMillis(50), Duration.ofMillis(10), 100, 8);
+        watchdog.start();
+        // the first probes tell the watchdog which thread the loop is
+        Thread.sleep(100);
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        watchdog.stop();
+        vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testStallIsSampledAndBlamedOnTheEndpoint() throws InterruptedException {
+        vertx.runOnContext(v -> {
+            watchdog.dispatched(endpoint("blockingCall"));
+            sleep(300);
+        });
+        awaitStalls(1);
+
+        Stall stall = watchdog.recentStalls().getFirst();
+        assertEquals("EventLoopWatchdogTest.blockingCall", stall.endpoint());
+        assertTrue(stall.thread().contains("eventloop"), stall.thread());
+        assertTrue(stall.duration().toMillis() >= 250, stall.duration().toString());
+        // sampled every 10 ms from 50 ms on
+        assertTrue(stall.samples() >= 10, "samples: " + stall.samples());
+        List<StackTraceElement> top = stall.stacks().getFirst().frames();
+        assertTrue(top.stream().anyMatch(frame -> frame.getMethodName().equals("sleep")), top.toString());
+
+        StringBuilder metrics = new StringBuilder();
+        watchdog.writePrometheus(metrics);
+        assertTrue(metrics.toString().contains("event_loop_stalls_total{endpoint=\"EventLoopWatchdogTest.blockingCall\"} 1"), metrics.toString());
+        assertTrue(metrics.toString().contains("event_loop_delay_seconds_count{loop=\"loop-0\"}"), metrics.toString());
+    }
+
+    @Test
+    void testShortTasksAreNoStall() throws InterruptedException {
+        for (int i = 0; i < 20; i++) {
+            vertx.runOnContext(v -> sleep(5));
+            Thread.sleep(15);
+        }
+        Thread.sleep(100);
+        assertTrue(watchdog.recentStalls().isEmpty());
+    }
+
+    @Test
+    void testHistoryIsBounded() throws InterruptedException {
+        // stalls of 3 x threshold are always seen, and each ends well before the next starts
+        for (int i = 0; i < 10; i++) {
+            vertx.runOnContext(v -> sleep(150));
+            Thread.sleep(250);
+        }
+        awaitStalls(8);
+        Thread.sleep(100);
+        assertEquals(8, watchdog.recentStalls().size());
+    }
+
+    private void awaitStalls(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (watchdog.recentStalls().size() < count && System.nanoTime() < deadline)
+            Thread.sleep(10);
+        assertTrue(watchdog.recentStalls().size() >= count, "stalls: " + watchdog.recentStalls().size());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static SimpleResourceInfo endpoint(String method) {
+        return new SimpleResourceInfo() {
+            @Override
+            public Class<?> getResourceClass() {
+                return EventLoopWatchdogTest.class;
+            }
+
+            @Override
+            public String getMethodName() {
+                return method;
+            }
+
+            @Override
+            public Class<?>[] parameterTypes() {
+                return new Class<?>[0];
+            }
+        };
+    }
+}
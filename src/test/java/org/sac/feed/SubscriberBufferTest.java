@@ -0,0 +1,91 @@
+package org.sac.feed;
+
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import io.smallrye.mutiny.operators.multi.processors.BroadcastProcessor;
+import io.smallrye.mutiny.subscription.BackPressureFailure;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SubscriberBufferTest {
+
+    private final AtomicInteger dropped = new AtomicInteger();
+    private final AtomicInteger disconnected = new AtomicInteger();
+
+    private AssertSubscriber<Integer> subscribe(BroadcastProcessor<Integer> broadcast, int capacity, OverflowPolicy policy) {
+        return SubscriberBuffer.attach(broadcast, capacity, policy, dropped::incrementAndGet, disconnected::incrementAndGet)
+                .subscribe().withSubscriber(AssertSubscriber.create(0));
+    }
+
+    @Test
+    void testDeliversOnDemand() {
+        BroadcastProcessor<Integer> broadcast = BroadcastProcessor.create();
+        AssertSubscriber<Integer> subscriber = subscribe(broadcast, 10, OverflowPolicy.DROP_OLDEST);
+        broadcast.onNext(1);
+        broadcast.onNext(2);
+        subscriber.assertItems();
+        subscriber.request(1).assertItems(1);
+        broadcast.onNext(3);
+        subscriber.request(5).assertItems(1, 2, 3);
+        broadcast.onNext(4);
+        subscriber.assertItems(1, 2, 3, 4);
+        broadcast.onComplete();
+        subscriber.assertCompleted();
+        assertEquals(0, dropped.get());
+    }
+
+    @Test
+    void testDropOldest() {
+        BroadcastProcessor<Integer> broadcast = BroadcastProcessor.create();
+        AssertSubscriber<Integer> slow = subscribe(broadcast, 3, OverflowPolicy.DROP_OLDEST);
+        AssertSubscriber<Integer> fast = subscribe(broadcast, 3, OverflowPolicy.DROP_OLDEST);
+        fast.request(Long.MAX_VALUE);
+        for (int i = 1; i <= 10; i++)
+            broadcast.onNext(i);
+
+        // the slow subscriber neither stalled the broadcast nor the other subscriber
+        assertEquals(10, fast.getItems().size());
+        slow.request(Long.MAX_VALUE).assertItems(8, 9, 10).assertNotTerminated();
+        assertEquals(7, dropped.get());
+        broadcast.onNext(11);
+        slow.assertItems(8, 9, 10, 11);
+    }
+
+    @Test
+    void testDisconnect() {
+        BroadcastProcessor<Integer> broadcast = BroadcastProcessor.create();
+        AssertSubscriber<Integer> slow = subscribe(broadcast, 3, OverflowPolicy.DISCONNECT);
+        AssertSubscriber<Integer> fast = subscribe(broadcast, 3, OverflowPolicy.DISCONNECT);
+        fast.request(Long.MAX_VALUE);
+        slow.request(1);
+        for (int i = 1; i <= 5; i++)
+            broadcast.onNext(i);
+
+        slow.assertFailedWith(BackPressureFailure.class);
+        assertEquals(List.of(1), slow.getItems());
+        assertEquals(1, disconnected.get());
+        broadcast.onNext(6);
+        fast.assertItems(1, 2, 3, 4, 5, 6).assertNotTerminated();
+    }
+
+    @Test
+    void testCancel() {
+        BroadcastProcessor<Integer> broadcast = BroadcastProcessor.create();
+        AssertSubscriber<Integer> subscriber = subscribe(broadcast, 3, OverflowPolicy.DROP_OLDEST);
+        broadcast.onNext(1);
+        subscriber.cancel();
+        subscriber.request(1).assertItems();
+        // the buffer unsubscribed from the broadcast
+        broadcast.onNext(2);
+        assertEquals(0, dropped.get());
+    }
+
+    @Test
+    void testParsePolicy() {
+        assertEquals(OverflowPolicy.DROP_OLDEST, OverflowPolicy.parse("drop-oldest"));
+        assertEquals(OverflowPolicy.DISCONNECT, OverflowPolicy.parse(" Disconnect "));
+    }
+}
@@ -0,0 +1,22 @@
+package org.sac.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PreEncodedResponseTest {
+
+    @Test
+    void testExpiresFollowsTheClock() {
+        PreEncodedResponse response = new PreEncodedResponse(
+                PreEncodedResponse.of("body", "text/plain").expiresAfter(Duration.ofDays(2)),
+                Instant.parse("2024-03-01T08:05:09.750Z"));
+        assertEquals("Sun, 03 Mar 2024 08:05:09 GMT", response.expiresValue().toString());
+
+        response.refresh(Instant.parse("2024-03-01T08:05:10Z"));
+        assertEquals("Sun, 03 Mar 2024 08:05:10 GMT", response.expiresValue().toString());
+    }
+}
@@ -0,0 +1,72 @@
+package org.sac.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+import org.sac.EmployeeResource.Employee;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EmployeeJsonCodecTest {
+
+    private final ObjectMapper mapper = JsonMapper.builder().build();
+    private final EmployeeJsonCodec codec = EmployeeJsonCodec.INSTANCE;
+
+    private String write(Employee employee) {
+        ByteBuf buf = Unpooled.buffer(8);
+        codec.write(employee, new JsonOutput(buf));
+        return buf.toString(StandardCharsets.UTF_8);
+    }
+
+    private Employee read(String json) throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(json)) {
+            parser.nextToken();
+            return codec.read(parser);
+        }
+    }
+
+    @Test
+    void testWriteMatchesJackson() throws IOException {
+        String[] names = {"sachin", "", "quote\" back\\slash", "tab\tnew\nline\u0001\u001f",
+                "café € 🧀", null};
+        int[] ages = {0, 7, 30, 150, -12, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (String name : names) {
+            for (int age : ages) {
+                Employee employee = new Employee(name, age);
+                assertEquals(mapper.writeValueAsString(employee), write(employee));
+            }
+        }
+        Employee noAge = new Employee("x", null);
+        assertEquals(mapper.writeValueAsString(noAge), write(noAge));
+    }
+
+    @Test
+    void testRead() throws IOException {
+        Employee employee = read("{\"age\":30,\"extra\":{\"a\":[1,2]},\"name\":\"caf\\u00e9\"}");
+        assertEquals("café", employee.getName());
+        assertEquals(30, employee.getAge());
+
+        Employee coerced = read("{\"name\":null,\"age\":\"42\"}");
+        assertNull(coerced.getName());
+        assertEquals(42, coerced.getAge());
+
+        assertNull(read("{}").getAge());
+    }
+
+    @Test
+    void testReadRejectsMalformed() {
+        assertThrows(JsonProcessingException.class, () -> read("{\"name\":\"a\",\"age\":\"old\"}"));
+        assertThrows(JsonProcessingException.class, () -> read("{\"name\":\"a\",\"age\":1.5}"));
+        assertThrows(JsonProcessingException.class, () -> read("{\"name\":[\"a\"]}"));
+        assertThrows(JsonProcessingException.class, () -> read("{\"name\":\"a\""));
+    }
+}
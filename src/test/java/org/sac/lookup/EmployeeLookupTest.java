@@ -0,0 +1,68 @@
+package org.sac.lookup;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import io.smallrye.mutiny.subscription.UniEmitter;
+import org.junit.jupiter.api.Test;
+import org.sac.EmployeeResource.Employee;
+import org.sac.json.JsonOutput;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EmployeeLookupTest {
+
+    @Test
+    void testFanOutCapsConcurrency() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<UniEmitter<? super Integer>> pending = new ArrayList<>();
+        List<Uni<Integer>> lookups = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            lookups.add(Uni.createFrom().emitter(emitter -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                pending.add(emitter);
+            }));
+        }
+
+        AssertSubscriber<Integer> subscriber = EmployeeLookup.fanOut(lookups, 3)
+                .subscribe().withSubscriber(AssertSubscriber.create(Long.MAX_VALUE));
+        assertEquals(3, pending.size());
+
+        // completing one lookup starts the next; results come in completion order
+        running.decrementAndGet();
+        pending.get(1).complete(1);
+        assertEquals(4, pending.size());
+        subscriber.assertItems(1);
+
+        for (int i = 0; i < 10; i++) {
+            if (i == 1)
+                continue;
+            running.decrementAndGet();
+            pending.get(i).complete(i);
+        }
+        subscriber.assertCompleted();
+        assertEquals(10, subscriber.getItems().size());
+        assertEquals(3, maxRunning.get());
+    }
+
+    @Test
+    void testResultJson() {
+        assertEquals("{\"name\":\"sachin\",\"status\":200,\"employee\":{\"name\":\"sachin\",\"age\":30}}",
+                json(LookupResult.of("sachin", new Employee("sachin", 30))));
+        assertEquals("{\"name\":\"no\\\"body\",\"status\":404}", json(LookupResult.of("no\"body", null)));
+        assertEquals("{\"name\":\"x\",\"status\":503}", json(LookupResult.unavailable("x")));
+    }
+
+    private static String json(LookupResult result) {
+        ByteBuf buf = Unpooled.buffer();
+        result.write(new JsonOutput(buf));
+        return buf.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,35 @@
+package org.sac.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketsCoverValuesWithinPrecision() {
+        for (long value = 0; value < 1_000_000; value = value * 2 + 7) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            long upper = LatencyHistogram.upperBoundOf(bucket);
+            assertTrue(upper >= value, "upper bound below value " + value);
+            assertTrue(upper <= value + value / 8 + 1, "bucket too wide for " + value);
+            if (bucket > 0)
+                assertTrue(LatencyHistogram.upperBoundOf(bucket - 1) < value, "value in wrong bucket " + value);
+        }
+    }
+
+    @Test
+    void testQuantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++)
+            histogram.record(i * 1000L);
+
+        assertEquals(1000, histogram.count());
+        assertEquals(1_000_000, histogram.max());
+        long median = histogram.valueAtQuantile(0.5);
+        assertTrue(median >= 500_000 && median <= 500_000 * 9 / 8, "median " + median);
+        long p99 = histogram.valueAtQuantile(0.99);
+        assertTrue(p99 >= 990_000 && p99 <= 1_000_000, "p99 " + p99);
+    }
+}
@@ -0,0 +1,51 @@
+package org.sac.metrics;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.containsString;
+
+@QuarkusTest
+class MetricsResourceTest {
+
+    @Test
+    void testEndpointLatencyIsExported() {
+        given()
+          .when().get("/api/employee/cheeses/salty")
+          .then()
+             .statusCode(200);
+        given()
+          .when().get("/api/employee/employees/no-such-employee-" + System.nanoTime())
+          .then()
+             .statusCode(404);
+        given()
+          .when().get("/api/employee/hello-async")
+          .then()
+             .statusCode(200);
+        given()
+          .when().get("/api/employee/hello-annotation")
+          .then()
+             .statusCode(201);
+
+        given()
+          .when().get("/api/metrics")
+          .then()
+             .statusCode(200)
+             .body(containsString("http_server_requests_seconds_count{endpoint=\"EmployeeResource.findCheese\",status=\"200\"}"))
+             .body(containsString("http_server_requests_seconds{endpoint=\"EmployeeResource.findEmployee\",status=\"404\",quantile=\"0.99\"}"))
+             .body(containsString("http_server_requests_seconds_count{endpoint=\"EmployeeResource.helloAnnotation\",status=\"201\"}"))
+             .body(containsString("mutiny_pipeline_stage_seconds_count{pipeline=\"EmployeeResource.findEmployee\",stage=\"work\"}"))
+             .body(containsString("mutiny_pipeline_thread_hops_total{pipeline=\"EmployeeResource.findEmployee\",from=\"event-loop\",to=\"worker\"}"))
+             .body(containsString("coalesce_calls_total{method=\"EmployeeResource.helloAsync\",outcome=\"load\"}"))
+             .body(containsString("admission_requests_total{group=\"employee\",outcome=\"admitted\"}"))
+             .body(containsString("auth_tokens_total{outcome=\"verified\"}"))
+             .body(containsString("employee_feed_overflow_total{action=\"dropped\"}"))
+             .body(containsString("event_loop_delay_seconds_count{loop=\"loop-0\"}"));
+
+        given()
+          .when().get("/api/metrics/stalls")
+          .then()
+             .statusCode(200);
+    }
+}
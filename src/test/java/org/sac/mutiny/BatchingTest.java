@@ -0,0 +1,101 @@
+package org.sac.mutiny;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchingTest {
+
+    @Test
+    void testBatchesByCount() {
+        AssertSubscriber<List<Integer>> subscriber = Multi.createFrom().range(0, 10)
+                .plug(Batching.batches(3))
+                .subscribe().withSubscriber(AssertSubscriber.create(Long.MAX_VALUE));
+
+        subscriber.assertCompleted().assertItems(List.of(0, 1, 2), List.of(3, 4, 5), List.of(6, 7, 8), List.of(9));
+    }
+
+    @Test
+    void testBatchesByBytes() {
+        AssertSubscriber<List<String>> subscriber = Multi.createFrom().items("aaaa", "bbbb", "cc", "dddddddddddd", "e")
+                .plug(Batching.batches(100, null, 10, String::length))
+                .subscribe().withSubscriber(AssertSubscriber.create(Long.MAX_VALUE));
+
+        // an item over the budget is a batch of its own
+        subscriber.assertCompleted().assertItems(
+                List.of("aaaa", "bbbb", "cc"), List.of("dddddddddddd"), List.of("e"));
+    }
+
+    @Test
+    void testBatchesByTime() {
+        // 1 ms ticks: the 20 ms window closes batches long before 1000 items
+        AssertSubscriber<List<Long>> subscriber = Multi.createFrom().ticks().every(Duration.ofMillis(1))
+                .select().first(100)
+                .plug(Batching.batches(1000, Duration.ofMillis(20)))
+                .subscribe().withSubscriber(AssertSubscriber.create(Long.MAX_VALUE));
+
+        subscriber.awaitCompletion(Duration.ofSeconds(10));
+        List<List<Long>> batches = subscriber.getItems();
+        assertTrue(batches.size() > 1, "expected the time window to close batches, got " + batches.size());
+        assertEquals(100, batches.stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    void testBackpressureIsPreserved() {
+        AtomicLong requested = new AtomicLong();
+        AssertSubscriber<List<Integer>> subscriber = Multi.createFrom().range(0, 1_000_000)
+                .onRequest().invoke(requested::addAndGet)
+                .plug(Batching.batches(10, Duration.ofSeconds(1)))
+                .subscribe().withSubscriber(AssertSubscriber.create(2));
+
+        subscriber.assertItems(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), List.of(10, 11, 12, 13, 14, 15, 16, 17, 18, 19));
+        assertEquals(20, requested.get());
+
+        subscriber.request(1);
+        assertEquals(3, subscriber.getItems().size());
+        assertEquals(30, requested.get());
+        subscriber.cancel();
+    }
+
+    @Test
+    void testBufferIsBoundedByMaxItems() {
+        // every item fills the byte budget: the 5 items asked for become 5 batches
+        AtomicLong requested = new AtomicLong();
+        AssertSubscriber<List<Integer>> subscriber = Multi.createFrom().range(0, 1_000_000)
+                .onRequest().invoke(requested::addAndGet)
+                .plug(Batching.batches(5, null, 10, i -> 10))
+                .subscribe().withSubscriber(AssertSubscriber.create(1));
+
+        subscriber.assertItems(List.of(0));
+        assertEquals(5, requested.get());
+
+        subscriber.request(4);
+        assertEquals(5, subscriber.getItems().size());
+        assertEquals(5, requested.get());
+
+        subscriber.request(1);
+        assertEquals(6, subscriber.getItems().size());
+        assertEquals(10, requested.get());
+        subscriber.cancel();
+    }
+
+    @Test
+    void testFailureIsPropagated() {
+        AssertSubscriber<List<Integer>> subscriber = Multi.createFrom().range(0, 5)
+                .onItem().invoke(i -> {
+                    if (i == 3)
+                        throw new IllegalStateException("boom");
+                })
+                .plug(Batching.batches(2))
+                .subscribe().withSubscriber(AssertSubscriber.create(Long.MAX_VALUE));
+
+        subscriber.assertFailedWith(IllegalStateException.class, "boom").assertItems(List.of(0, 1));
+    }
+}
@@ -0,0 +1,121 @@
+package org.sac.mutiny;
+
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CoalescerTest {
+
+    // a source that counts its subscriptions and emits when the gate completes
+    private static Uni<String> gated(CompletableFuture<String> gate, AtomicInteger subscriptions) {
+        return Uni.createFrom().completionStage(() -> {
+            subscriptions.incrementAndGet();
+            return gate;
+        });
+    }
+
+    @Test
+    void testConcurrentCallsShareOneSubscription() {
+        Coalescer<String, String> coalescer = new Coalescer<>();
+        CompletableFuture<String> gate = new CompletableFuture<>();
+        AtomicInteger subscriptions = new AtomicInteger();
+
+        List<UniAssertSubscriber<String>> subscribers = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            subscribers.add(coalescer.get("a", gated(gate, subscriptions))
+                    .subscribe().withSubscriber(UniAssertSubscriber.create()));
+        // a different key is a flight of its own
+        UniAssertSubscriber<String> other = coalescer.get("b", gated(new CompletableFuture<>(), subscriptions))
+                .subscribe().withSubscriber(UniAssertSubscriber.create());
+
+        assertEquals(2, subscriptions.get());
+        assertEquals(2, coalescer.inFlight());
+        gate.complete("result");
+        for (UniAssertSubscriber<String> subscriber : subscribers)
+            subscriber.assertItem("result");
+        other.assertNotTerminated();
+        assertEquals(2, coalescer.loads.sum());
+        assertEquals(9, coalescer.joins.sum());
+
+        // without a ttl the next call subscribes again
+        coalescer.get("a", gated(CompletableFuture.completedFuture("again"), subscriptions))
+                .subscribe().withSubscriber(UniAssertSubscriber.create())
+                .assertItem("again");
+        assertEquals(3, subscriptions.get());
+    }
+
+    @Test
+    void testFailuresAreSharedButNotCached() {
+        Coalescer<String, String> coalescer = new Coalescer<>(Duration.ofMinutes(1), 16);
+        CompletableFuture<String> gate = new CompletableFuture<>();
+        AtomicInteger subscriptions = new AtomicInteger();
+
+        UniAssertSubscriber<String> first = coalescer.get("a", gated(gate, subscriptions))
+                .subscribe().withSubscriber(UniAssertSubscriber.create());
+        UniAssertSubscriber<String> second = coalescer.get("a", gated(gate, subscriptions))
+                .subscribe().withSubscriber(UniAssertSubscriber.create());
+        gate.completeExceptionally(new IllegalStateException("boom"));
+        first.assertFailedWith(IllegalStateException.class, "boom");
+        second.assertFailedWith(IllegalStateException.class, "boom");
+
+        coalescer.get("a", gated(CompletableFuture.completedFuture("ok"), subscriptions))
+                .subscribe().withSubscriber(UniAssertSubscriber.create())
+                .assertItem("ok");
+        assertEquals(2, subscriptions.get());
+        assertEquals(0, coalescer.inFlight());
+    }
+
+    @Test
+    void testCancellingOneSubscriberKeepsTheFlightForOthers() {
+        Coalescer<String, String> coalescer = new Coalescer<>();
+        CompletableFuture<String> gate = new CompletableFuture<>();
+        AtomicInteger subscriptions = new AtomicInteger();
+
+        UniAssertSubscriber<String> cancelled = coalescer.get("a", gated(gate, subscriptions))
+                .subscribe().withSubscriber(UniAssertSubscriber.create());
+        UniAssertSubscriber<String> waiting = coalescer.get("a", gated(gate, subscriptions))
+                .subscribe().withSubscriber(UniAssertSubscriber.create());
+        cancelled.cancel();
+        gate.complete("result");
+
+        waiting.assertItem("result");
+        cancelled.assertNotTerminated();
+        assertEquals(1, subscriptions.get());
+    }
+
+    @Test
+    void testCacheExpiresAndIsBounded() throws InterruptedException {
+        Coalescer<Integer, String> coalescer = new Coalescer<>(Duration.ofMillis(200), 2);
+        AtomicInteger subscriptions = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++)
+            coalescer.get(1, gated(CompletableFuture.completedFuture("one"), subscriptions))
+                    .subscribe().withSubscriber(UniAssertSubscriber.create())
+                    .assertItem("one");
+        assertEquals(1, subscriptions.get());
+        assertEquals(1, coalescer.hits.sum());
+
+        // 1 was used last, so 2 is evicted when 3 comes in
+        coalescer.get(2, gated(CompletableFuture.completedFuture("two"), subscriptions)).await().indefinitely();
+        coalescer.get(1, gated(CompletableFuture.completedFuture("one"), subscriptions)).await().indefinitely();
+        coalescer.get(3, gated(CompletableFuture.completedFuture("three"), subscriptions)).await().indefinitely();
+        assertEquals(2, coalescer.cached());
+        assertEquals(3, subscriptions.get());
+        coalescer.get(2, gated(CompletableFuture.completedFuture("two"), subscriptions)).await().indefinitely();
+        assertEquals(4, subscriptions.get());
+
+        Thread.sleep(250);
+        coalescer.get(1, gated(CompletableFuture.completedFuture("one"), subscriptions))
+                .subscribe().withSubscriber(UniAssertSubscriber.create())
+                .assertItem("one");
+        assertEquals(5, subscriptions.get());
+    }
+}
@@ -0,0 +1,62 @@
+package org.sac.mutiny;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.Test;
+import org.sac.mutiny.PipelineProfile.Event;
+import org.sac.mutiny.PipelineProfile.ThreadKind;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PipelineProfilerTest {
+
+    private final PipelineProfiler profiler = new PipelineProfiler();
+
+    @Test
+    void testUniStagesAndThreadHops() {
+        PipelineProfile profile = profiler.pipeline("uni");
+        try (ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 5; i++) {
+                int n = i;
+                String result = profile.<String>uni(trace -> Uni.createFrom().item(n)
+                        .onItem().transform(value -> "hello" + value)
+                        .onItem().invoke(trace.stage("transform"))
+                        .emitOn(virtualThreads)
+                        .onItem().invoke(trace.stage("emit"))).await().indefinitely();
+                assertEquals("hello" + i, result);
+            }
+        }
+        assertEquals(5, profile.count(Event.SUBSCRIBE));
+        assertEquals(5, profile.count(Event.ITEM));
+        assertEquals(5, profile.count(Event.COMPLETE));
+        assertEquals(5, profile.stages.get("transform").count());
+        assertEquals(5, profile.stages.get("emit").count());
+        assertEquals(5, profile.total.count());
+        assertEquals(5, profile.hops(ThreadKind.OTHER, ThreadKind.VIRTUAL));
+    }
+
+    @Test
+    void testMultiDemandAndCancellation() {
+        PipelineProfile profile = profiler.pipeline("multi");
+        List<Integer> firstThree = profile.<Integer>multi(trace -> Multi.createFrom().range(0, 100)
+                        .onItem().invoke(trace.stage("source")))
+                .select().first(3)
+                .collect().asList().await().indefinitely();
+
+        assertEquals(List.of(0, 1, 2), firstThree);
+        assertEquals(1, profile.count(Event.CANCEL));
+        assertEquals(0, profile.count(Event.COMPLETE));
+        assertEquals(3, profile.count(Event.ITEM));
+        assertTrue(profile.count(Event.REQUEST) + profile.count(Event.UNBOUNDED_REQUEST) > 0);
+
+        StringBuilder out = new StringBuilder();
+        profiler.writePrometheus(out);
+        assertTrue(out.toString().contains("mutiny_pipeline_events_total{pipeline=\"multi\",event=\"cancel\"} 1"));
+        assertTrue(out.toString().contains("mutiny_pipeline_stage_seconds_count{pipeline=\"multi\",stage=\"source\"} 3"));
+    }
+}
@@ -0,0 +1,148 @@
+package org.sac.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtVerifierTest {
+
+    private static final long NOW = 1_800_000_000L;
+    private static final Clock CLOCK = Clock.fixed(Instant.ofEpochSecond(NOW), ZoneOffset.UTC);
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private static String part(String json) {
+        return BASE64URL.encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String hmacToken(String alg, byte[] secret, String payload) throws GeneralSecurityException {
+        String signed = part("{\"alg\":\"" + alg + "\",\"typ\":\"JWT\"}") + "." + part(payload);
+        String jca = "Hmac" + alg.replace("HS", "SHA");
+        Mac mac = Mac.getInstance(jca);
+        mac.init(new SecretKeySpec(secret, jca));
+        return signed + "." + BASE64URL.encodeToString(mac.doFinal(signed.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static String rsaToken(KeyPair keys, String payload) throws GeneralSecurityException {
+        String signed = part("{\"alg\":\"RS256\"}") + "." + part(payload);
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keys.getPrivate());
+        signature.update(signed.getBytes(StandardCharsets.US_ASCII));
+        return signed + "." + BASE64URL.encodeToString(signature.sign());
+    }
+
+    @Test
+    void testHmacTokens() throws Exception {
+        JwtVerifier verifier = JwtVerifier.hmac(SECRET, null, CLOCK);
+        for (String alg : new String[]{"HS256", "HS384", "HS512"}) {
+            JwtVerifier.Claims claims = verifier.verify(hmacToken(alg, SECRET,
+                    "{\"sub\":\"sachin\",\"groups\":[\"admin\",\"user\"],\"exp\":" + (NOW + 60) + "}"));
+            assertEquals("sachin", claims.name());
+            assertEquals(Set.of("admin", "user"), claims.groups());
+            assertEquals(NOW + 60, claims.expiresAt());
+        }
+        // upn wins over sub
+        assertEquals("sac@example.org", verifier.verify(hmacToken("HS256", SECRET,
+                "{\"sub\":\"s\",\"upn\":\"sac@example.org\",\"exp\":" + (NOW + 60) + "}")).name());
+    }
+
+    @Test
+    void testRejectedTokens() throws Exception {
+        JwtVerifier verifier = JwtVerifier.hmac(SECRET, "https://issuer", CLOCK);
+        String valid = hmacToken("HS256", SECRET, "{\"sub\":\"a\",\"iss\":\"https://issuer\",\"exp\":" + (NOW + 60) + "}");
+        verifier.verify(valid);
+
+        String[] parts = valid.split("\\.");
+        String[] invalid = {
+                "", "a.b", valid + ".x", "%%%.%%%.%%%",
+                // payload swapped under the same signature
+                parts[0] + "." + part("{\"sub\":\"admin\",\"iss\":\"https://issuer\",\"exp\":" + (NOW + 60) + "}") + "." + parts[2],
+                hmacToken("HS256", "another-secret-another-secret-xx".getBytes(StandardCharsets.US_ASCII),
+                        "{\"sub\":\"a\",\"iss\":\"https://issuer\",\"exp\":" + (NOW + 60) + "}"),
+                hmacToken("HS256", SECRET, "{\"sub\":\"a\",\"iss\":\"https://issuer\",\"exp\":" + NOW + "}"),
+                hmacToken("HS256", SECRET, "{\"sub\":\"a\",\"iss\":\"https://issuer\"}"),
+                hmacToken("HS256", SECRET, "{\"sub\":\"a\",\"iss\":\"https://other\",\"exp\":" + (NOW + 60) + "}"),
+                hmacToken("HS256", SECRET, "{\"iss\":\"https://issuer\",\"exp\":" + (NOW + 60) + "}"),
+                hmacToken("HS256", SECRET, "{\"sub\":\"a\",\"iss\":\"https://issuer\",\"nbf\":" + (NOW + 600) + ",\"exp\":" + (NOW + 900) + "}"),
+                // asLong() would read these as 0, always valid
+                hmacToken("HS256", SECRET, "{\"sub\":\"a\",\"iss\":\"https://issuer\",\"nbf\":\"soon\",\"exp\":" + (NOW + 900) + "}"),
+                hmacToken("HS256", SECRET, "{\"sub\":\"a\",\"iss\":\"https://issuer\",\"nbf\":{},\"exp\":" + (NOW + 900) + "}"),
+                part("{\"alg\":\"none\"}") + "." + part("{\"sub\":\"a\",\"exp\":" + (NOW + 60) + "}") + ".",
+        };
+        for (String token : invalid)
+            assertThrows(InvalidTokenException.class, () -> verifier.verify(token), token);
+    }
+
+    @Test
+    void testRsaTokens(@TempDir Path dir) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keys = generator.generateKeyPair();
+        Path pem = dir.resolve("public.pem");
+        Files.writeString(pem, "-----BEGIN PUBLIC KEY-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(keys.getPublic().getEncoded())
+                + "\n-----END PUBLIC KEY-----\n");
+        JwtVerifier verifier = JwtVerifier.fromKeyFile(pem, null, CLOCK);
+
+        assertEquals("rsa", verifier.verify(rsaToken(keys, "{\"sub\":\"rsa\",\"exp\":" + (NOW + 60) + "}")).name());
+        // the classic confusion attack: HMAC "signed" with the public key as the secret
+        String confused = hmacToken("HS256", Files.readAllBytes(pem), "{\"sub\":\"rsa\",\"exp\":" + (NOW + 60) + "}");
+        assertThrows(InvalidTokenException.class, () -> verifier.verify(confused));
+        // and an HMAC verifier does not take RSA tokens
+        assertThrows(InvalidTokenException.class, () -> JwtVerifier.hmac(SECRET, null, CLOCK)
+                .verify(rsaToken(keys, "{\"sub\":\"rsa\",\"exp\":" + (NOW + 60) + "}")));
+    }
+
+    @Test
+    void testCacheExpiresAndIsBounded() {
+        TokenCache cache = new TokenCache(10);
+        cache.put("a", new JwtVerifier.Claims("a", Set.of(), NOW + 10), NOW);
+        assertEquals("a", cache.get("a", NOW + 9).name());
+        assertNull(cache.get("a", NOW + 10));
+        assertEquals(0, cache.size());
+
+        for (int i = 0; i < 100; i++)
+            cache.put("t" + i, new JwtVerifier.Claims("t" + i, Set.of(), NOW + 60), NOW);
+        assertTrue(cache.size() <= 10, "size " + cache.size());
+        assertEquals("t99", cache.get("t99", NOW).name());
+    }
+
+    @Test
+    void testCacheStaysBoundedUnderConcurrentPuts() {
+        TokenCache cache = new TokenCache(10);
+        AtomicInteger largest = new AtomicInteger();
+        try (var threads = Executors.newFixedThreadPool(8)) {
+            for (int writer = 0; writer < 8; writer++) {
+                int w = writer;
+                threads.execute(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        cache.put(w + "-" + i, new JwtVerifier.Claims("t", Set.of(), NOW + 60), NOW);
+                        largest.accumulateAndGet(cache.size(), Math::max);
+                    }
+                });
+            }
+        }
+        assertTrue(largest.get() <= 10, "largest " + largest.get());
+    }
+}
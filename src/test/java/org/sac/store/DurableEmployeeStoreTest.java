@@ -0,0 +1,157 @@
+package org.sac.store;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sac.EmployeeResource.Employee;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DurableEmployeeStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<EmployeeStore> opened = new ArrayList<>();
+
+    private DurableEmployeeStore open(Path directory) throws IOException {
+        DurableEmployeeStore store = new DurableEmployeeStore(new HeapEmployeeStore(), directory, Duration.ofHours(1));
+        opened.add(store);
+        return store;
+    }
+
+    @AfterEach
+    void close() {
+        opened.forEach(EmployeeStore::close);
+    }
+
+    // what a crash leaves behind: the files as they are while the store is still running
+    private Path crashCopy(String name) throws IOException {
+        Path copy = Files.createDirectory(directory.resolveSibling(directory.getFileName() + "-" + name));
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList())
+                Files.copy(file, copy.resolve(file.getFileName()));
+        }
+        return copy;
+    }
+
+    private static List<String> files(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    @Test
+    void testRecoversFromTheLog() throws IOException {
+        DurableEmployeeStore store = open(directory);
+        store.put(new Employee("sachin", 30));
+        store.put(new Employee("zoë", 40));
+        store.put(new Employee("sachin", 31));
+        store.remove("zoë");
+        store.putAll(List.of(new Employee("a", 1), new Employee("b", 2)));
+
+        DurableEmployeeStore recovered = open(crashCopy("crash"));
+        assertEquals(3, recovered.size());
+        assertEquals(31, recovered.get("sachin").getAge());
+        assertNull(recovered.get("zoë"));
+        assertEquals(2, recovered.get("b").getAge());
+    }
+
+    @Test
+    void testTornTailIsCutOff() throws IOException {
+        DurableEmployeeStore store = open(directory);
+        store.put(new Employee("kept", 30));
+        Path copy = crashCopy("torn");
+        Path last = WriteAheadLog.segmentPath(copy, WriteAheadLog.segments(copy).getLast());
+        long size = Files.size(last);
+        // half a record, as if the process died in the middle of a write
+        Files.write(last, new byte[]{0, 0, 0, 20, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        DurableEmployeeStore recovered = open(copy);
+        assertEquals(30, recovered.get("kept").getAge());
+        assertEquals(1, recovered.size());
+        assertEquals(size, Files.size(last));
+    }
+
+    @Test
+    void testSnapshotReplacesTheLog() throws IOException {
+        DurableEmployeeStore store = open(directory);
+        IntStream.range(0, 1_000).forEach(i -> store.put(new Employee("e" + i, i % 100)));
+        assertTrue(store.snapshot());
+        assertFalse(store.snapshot());
+        // one snapshot, the segment it starts from and nothing older
+        assertEquals(List.of("snapshot-0000000000000001.bin", "wal-0000000000000001.log"), files(directory));
+
+        IntStream.range(0, 500).forEach(i -> store.remove("e" + i));
+        store.put(new Employee("late", 50));
+
+        DurableEmployeeStore recovered = open(crashCopy("snapshot"));
+        assertEquals(501, recovered.size());
+        assertNull(recovered.get("e10"));
+        assertEquals(599 % 100, recovered.get("e599").getAge());
+        assertEquals(50, recovered.get("late").getAge());
+    }
+
+    @Test
+    void testCloseTakesAFinalSnapshot() throws IOException {
+        DurableEmployeeStore store = open(directory);
+        store.put(new Employee("sachin", 30));
+        opened.remove(store);
+        store.close();
+
+        DurableEmployeeStore reopened = open(directory);
+        assertEquals(30, reopened.get("sachin").getAge());
+        assertTrue(files(directory).contains("snapshot-0000000000000001.bin"));
+    }
+
+    @Test
+    void testWritesFailWithoutChangingTheStoreOnceTheLogFails() throws IOException {
+        DurableEmployeeStore store = open(directory);
+        store.put(new Employee("sachin", 30));
+        // the rotation cannot create the next segment
+        Path moved = Files.move(directory, directory.resolveSibling(directory.getFileName() + "-moved"));
+        assertThrows(UncheckedIOException.class, store::snapshot);
+        Files.move(moved, directory);
+
+        assertThrows(UncheckedIOException.class, () -> store.put(new Employee("sachin", 31)));
+        assertThrows(UncheckedIOException.class, () -> store.put(new Employee("zoë", 40)));
+        assertThrows(UncheckedIOException.class, () -> store.putAll(List.of(new Employee("a", 1))));
+        assertThrows(UncheckedIOException.class, () -> store.remove("sachin"));
+        assertEquals(30, store.get("sachin").getAge());
+        assertNull(store.get("zoë"));
+        assertNull(store.get("a"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testConcurrentWritersShareFsyncs() throws IOException {
+        DurableEmployeeStore store = open(directory);
+        IntStream.range(0, 16).parallel().forEach(writer -> {
+            try (var threads = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 50; i++) {
+                    int n = i;
+                    threads.submit(() -> store.put(new Employee("w" + writer + "-" + n, n)));
+                }
+            }
+        });
+        assertEquals(800, store.size());
+        assertTrue(store.syncs() < 800, "syncs: " + store.syncs());
+        assertEquals(800, open(crashCopy("concurrent")).size());
+    }
+}
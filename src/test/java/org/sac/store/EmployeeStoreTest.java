@@ -0,0 +1,204 @@
+package org.sac.store;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.sac.EmployeeResource.Employee;
+import org.sac.store.EmployeeStore.AgeKey;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// the same contract for every store mode
+class EmployeeStoreTest {
+
+    private EmployeeStore store;
+
+    private EmployeeStore create(String mode) {
+        store = switch (mode) {
+            case "heap" -> new HeapEmployeeStore();
+            // tiny initial capacities so the columns, dictionary and name arena all grow
+            default -> new ColumnarEmployeeStore(2, 16);
+        };
+        return store;
+    }
+
+    @AfterEach
+    void close() {
+        store.close();
+    }
+
+    private static List<String> names(List<Employee> employees) {
+        return employees.stream().map(Employee::getName).toList();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"heap", "columnar"})
+    void testPutGetRemove(String mode) {
+        EmployeeStore store = create(mode);
+        assertNull(store.put(new Employee("sachin", 30)));
+        assertNull(store.put(new Employee("zoë", 40)));
+        assertEquals(30, store.get("sachin").getAge());
+        assertEquals(40, store.get("zoë").getAge());
+        assertNull(store.get("sachi"));
+
+        assertEquals(30, store.put(new Employee("sachin", 31)).getAge());
+        assertEquals(31, store.get("sachin").getAge());
+        assertEquals(2, store.size());
+
+        assertEquals(31, store.remove("sachin").getAge());
+        assertNull(store.remove("sachin"));
+        assertNull(store.get("sachin"));
+        assertEquals(1, store.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"heap", "columnar"})
+    void testPagesInAgeThenNameOrder(String mode) {
+        EmployeeStore store = create(mode);
+        for (String name : new String[]{"d", "b", "a", "c", "e"})
+            store.put(new Employee(name, name.equals("a") || name.equals("e") ? 50 : 20));
+        store.put(new Employee("f", 90));
+
+        EmployeeStore.Page first = store.page(0, 60, null, 2);
+        assertEquals(List.of("b", "c"), names(first.items()));
+        assertEquals(new AgeKey(20, "c"), first.last());
+        assertTrue(first.hasMore());
+
+        EmployeeStore.Page second = store.page(0, 60, first.last(), 2);
+        assertEquals(List.of("d", "a"), names(second.items()));
+        assertTrue(second.hasMore());
+
+        EmployeeStore.Page third = store.page(0, 60, second.last(), 2);
+        assertEquals(List.of("e"), names(third.items()));
+        assertFalse(third.hasMore());
+
+        assertEquals(List.of("a", "e", "f"), names(store.page(21, Integer.MAX_VALUE, null, 10).items()));
+        // a cursor below minAge is ignored, a removed cursor key still works
+        assertEquals(List.of("a", "e"), names(store.page(50, 50, new AgeKey(20, "d"), 10).items()));
+        store.remove("b");
+        assertEquals(List.of("c", "d"), names(store.page(0, 20, new AgeKey(20, "b"), 10).items()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"heap", "columnar"})
+    void testEmptyRanges(String mode) {
+        EmployeeStore store = create(mode);
+        store.put(new Employee("a", 10));
+        store.put(new Employee("b", 50));
+
+        // minAge above maxAge
+        EmployeeStore.Page inverted = store.page(50, 10, null, 10);
+        assertTrue(inverted.items().isEmpty());
+        assertFalse(inverted.hasMore());
+        // a cursor from a wider query replayed with a smaller maxAge
+        EmployeeStore.Page pastMax = store.page(0, 20, new AgeKey(50, "b"), 10);
+        assertTrue(pastMax.items().isEmpty());
+        assertFalse(pastMax.hasMore());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"heap", "columnar"})
+    void testChurn(String mode) {
+        EmployeeStore store = create(mode);
+        // insert, re-age and remove enough to grow and compact the columnar store repeatedly
+        for (int i = 0; i < 5_000; i++) {
+            store.put(new Employee("employee-" + i, i % 100));
+            if (i % 3 == 0)
+                store.put(new Employee("employee-" + i, 100 + i % 50));
+            if (i % 2 == 0)
+                store.remove("employee-" + (i / 2));
+        }
+        List<String> expected = new ArrayList<>();
+        for (int i = 2_500; i < 5_000; i++)
+            expected.add("employee-" + i);
+        assertEquals(expected.size(), store.size());
+        for (String name : expected)
+            assertEquals(Integer.parseInt(name.substring(9)) % 3 == 0
+                    ? 100 + Integer.parseInt(name.substring(9)) % 50
+                    : Integer.parseInt(name.substring(9)) % 100, store.get(name).getAge());
+
+        // all() crosses several columnar iteration pages, in (age, name) order
+        List<AgeKey> keys = store.all().stream().map(AgeKey::of).toList();
+        assertEquals(expected.size(), keys.size());
+        assertEquals(keys.stream().sorted().toList(), keys);
+
+        assertEquals(keys.stream().mapToInt(AgeKey::age).sum(),
+                StreamSupport.intStream(store.ages(), true).sum());
+        assertEquals(keys.stream().map(AgeKey::name).toList(),
+                StreamSupport.stream(store.names(), true).toList());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"heap", "columnar"})
+    void testPutAll(String mode) {
+        EmployeeStore store = create(mode);
+        for (int i = 0; i < 300; i++)
+            store.put(new Employee("e" + i, i % 10));
+        // new names, re-aged and unchanged ones, and a name twice in one batch
+        List<Employee> batch = new ArrayList<>();
+        for (int i = 200; i < 500; i++)
+            batch.add(new Employee("e" + i, i % 3 == 0 ? i % 10 : 20 + i % 7));
+        batch.add(new Employee("e250", 99));
+        store.putAll(batch);
+
+        assertEquals(500, store.size());
+        assertEquals(99, store.get("e250").getAge());
+        assertEquals(5, store.get("e5").getAge());
+        assertEquals(1, store.get("e201").getAge());
+        assertEquals(26, store.get("e202").getAge());
+        assertEquals(21, store.get("e400").getAge());
+        List<AgeKey> keys = store.all().stream().map(AgeKey::of).toList();
+        assertEquals(500, keys.size());
+        assertEquals(keys.stream().sorted().toList(), keys);
+        for (AgeKey key : keys)
+            assertEquals(key.age(), store.get(key.name()).getAge());
+    }
+
+    @Test
+    void testColumnarPutAllChecksTheWholeBatchFirst() {
+        EmployeeStore store = create("columnar");
+        store.put(new Employee("a", 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> store.putAll(List.of(new Employee("a", 50), new Employee("b", 1000))));
+        assertEquals(1, store.get("a").getAge());
+        assertNull(store.get("b"));
+    }
+
+    @Test
+    void testColumnarNamesSkipReusedRows() {
+        EmployeeStore store = create("columnar");
+        store.put(new Employee("a", 1));
+        store.put(new Employee("b", 2));
+        Spliterator<String> names = store.names();
+        // z takes the row a was in when the names were snapshot
+        store.remove("a");
+        store.put(new Employee("z", 3));
+        assertEquals(List.of("b"), StreamSupport.stream(names, false).toList());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"heap", "columnar"})
+    void testConcurrentWriters(String mode) {
+        EmployeeStore store = create(mode);
+        IntStream.range(0, 8).parallel().forEach(writer -> {
+            for (int i = 0; i < 2_000; i++)
+                store.put(new Employee("w" + writer + "-" + i, i % 120));
+            for (int i = 0; i < 2_000; i += 2)
+                store.remove("w" + writer + "-" + i);
+        });
+        assertEquals(8_000, store.size());
+        assertEquals(8_000, store.all().size());
+        assertEquals(8_000, store.page(0, Integer.MAX_VALUE, null, 100_000).items().size());
+    }
+}
@@ -0,0 +1,104 @@
+package org.sac.store;
+
+import org.junit.jupiter.api.Test;
+import org.sac.EmployeeResource.Employee;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ObservedEmployeeStoreTest {
+
+    // counts the reports that do not match what the store holds when they are made
+    private static final class Checking implements ObservedEmployeeStore.Listener {
+        final EmployeeStore store;
+        final AtomicInteger reports = new AtomicInteger();
+        final AtomicInteger stale = new AtomicInteger();
+
+        Checking(EmployeeStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public void put(Employee employee, Employee previous) {
+            check(employee.getName(), employee.getAge());
+        }
+
+        @Override
+        public void removed(Employee employee) {
+            check(employee.getName(), null);
+        }
+
+        private void check(String name, Integer age) {
+            reports.incrementAndGet();
+            Employee stored = store.get(name);
+            if (!Objects.equals(age, stored == null ? null : stored.getAge()))
+                stale.incrementAndGet();
+        }
+    }
+
+    @Test
+    void testNameTwiceInOneBatch() {
+        List<String> reports = new ArrayList<>();
+        EmployeeStore store = new ObservedEmployeeStore(new HeapEmployeeStore(), new ObservedEmployeeStore.Listener() {
+            @Override
+            public void put(Employee employee, Employee previous) {
+                reports.add(employee.getName() + "=" + employee.getAge()
+                        + (previous == null ? " created" : " updated from " + previous.getAge()));
+            }
+
+            @Override
+            public void removed(Employee employee) {
+                reports.add(employee.getName() + " removed");
+            }
+        });
+        store.put(new Employee("b", 1));
+        reports.clear();
+        store.putAll(List.of(new Employee("a", 1), new Employee("b", 2), new Employee("a", 2), new Employee("b", 3)));
+        assertEquals(List.of("a=1 created", "b=2 updated from 1", "a=2 updated from 1", "b=3 updated from 2"), reports);
+    }
+
+    @Test
+    void testReportedChangeIsTheStoredValue() {
+        // yields between applying a write and returning, where another writer would overtake
+        EmployeeStore delegate = new HeapEmployeeStore() {
+            @Override
+            public Employee put(Employee employee) {
+                Employee previous = super.put(employee);
+                Thread.yield();
+                return previous;
+            }
+
+            @Override
+            public Employee remove(String name) {
+                Employee removed = super.remove(name);
+                Thread.yield();
+                return removed;
+            }
+        };
+        Checking listener = new Checking(delegate);
+        EmployeeStore store = new ObservedEmployeeStore(delegate, listener);
+        List<String> names = List.of("a", "b", "c", "d");
+        try (var threads = Executors.newFixedThreadPool(8)) {
+            for (int writer = 0; writer < 8; writer++) {
+                int w = writer;
+                threads.execute(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        String name = names.get(i % names.size());
+                        switch ((w + i) % 5) {
+                            case 0 -> store.remove(name);
+                            case 1 -> store.putAll(List.of(new Employee(name, w * 10_000 + i),
+                                    new Employee(names.get((i + 1) % names.size()), w * 10_000 + i)));
+                            default -> store.put(new Employee(name, w * 10_000 + i));
+                        }
+                    }
+                });
+            }
+        }
+        assertEquals(0, listener.stale.get(), listener.reports.get() + " reports");
+    }
+}